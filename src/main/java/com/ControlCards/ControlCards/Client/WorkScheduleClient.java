@@ -3,6 +3,7 @@ package com.ControlCards.ControlCards.Client;
 import com.ControlCards.ControlCards.DTO.WorkScheduleDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -11,12 +12,21 @@ import java.util.UUID;
 
 @FeignClient(name = "workScheduleService", url = "${workschedule.service.url}")
 public interface WorkScheduleClient {
-    
+
+    // Заглавие в отговора, с което сървисът показва, че е приложил филтрите и страницирането
+    String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    // Филтрите и страницата се изпълняват от сървиса. По-стара версия, която ги игнорира,
+    // връща целия списък без X-Total-Count - тогава филтрирането е локално (виж WorkScheduleService)
     @GetMapping("/api/schedules")
-    List<WorkScheduleDTO> getSchedules(
+    ResponseEntity<List<WorkScheduleDTO>> searchSchedules(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
             @RequestParam(required = false) Integer shift,
-            @RequestParam(required = false) String workCenter
+            @RequestParam(required = false) String workCenter,
+            @RequestParam int page,
+            @RequestParam int size
     );
     
     @GetMapping("/api/schedules/{id}")
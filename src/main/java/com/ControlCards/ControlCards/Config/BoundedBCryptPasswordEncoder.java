@@ -0,0 +1,140 @@
+package com.ControlCards.ControlCards.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import com.ControlCards.ControlCards.Exception.PasswordHashingOverloadedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt с изчисленията в отделен ограничен пул от нишки (по подразбиране колкото ядрата),
+// така че масовите входове в началото на смяната не заемат процесора за нишките на Tomcat.
+// Опашката е къса (по подразбиране 2 задачи на нишка), а чакането - ограничено: при претоварване
+// заявката се отказва веднага с PasswordHashingOverloadedException, вместо нишката на Tomcat
+// да виси в опашката и да изчерпва пула за всички останали заявки.
+// upgradeEncoding() връща true, когато цената на хеша е различна от настроената -
+// DaoAuthenticationProvider тогава прехешира паролата при успешен вход.
+@Slf4j
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    static final String EXECUTOR_NAME = "password.hashing";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[abyx]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejectedCounter;
+    private final Timer hashTimer;
+
+    public BoundedBCryptPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMs,
+                                        MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeoutMs = timeoutMs;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int capacity = queueCapacity > 0 ? queueCapacity : poolSize * 2;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // executor.queued, executor.active, executor.pool.size... с tag name=password.hashing
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME);
+        this.rejectedCounter = Counter.builder(EXECUTOR_NAME + ".rejected")
+                .description("Отказани хеширания на пароли поради пълна опашка или изтекло време")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder(EXECUTOR_NAME + ".duration")
+                .description("Време за хеширане/проверка на парола, включително чакането в опашката")
+                .register(meterRegistry);
+        log.info("Password hashing: BCrypt strength {}, {} threads, queue capacity {}, timeout {} ms",
+                strength, poolSize, capacity, timeoutMs);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing queue is full ({}), rejecting", executor.getQueue().size());
+            throw new PasswordHashingOverloadedException("Password hashing is overloaded", e);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            log.warn("Password hashing did not finish within {} ms", timeoutMs);
+            throw new PasswordHashingOverloadedException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingOverloadedException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -1,27 +1,50 @@
 package com.ControlCards.ControlCards.Config;
 
+import com.ControlCards.ControlCards.Service.Impl.UserCredentialsCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
-import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableCaching
+@Slf4j
 public class CacheConfig {
 
+    // Кешовете, които се създават при стартиране (и затова имат метрики от самото начало).
+    // Цеховете и работните центрове не са тук - те са в ReferenceDataRegistry.
+    public static final List<String> CACHE_NAMES = List.of(UserCredentialsCache.CACHE_NAME);
+
+    static final String DEFAULT_SPEC = "maximumSize=500,expireAfterWrite=10m";
+
+    // Всеки кеш е ограничен по размер и време - политиката е в cache.spec.<име>
+    // (формат на CaffeineSpec), а cache.spec.default важи за всички останали.
+    // Статистиките (hit/miss/eviction) се виждат в /actuator/metrics/cache.gets и др.
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(Arrays.asList(
-            "workshops",
-            "activeWorkshops",
-            "workCenters",
-            "activeWorkCenters"
-        ));
+    public CacheManager cacheManager(Environment environment) {
+        String defaultSpec = environment.getProperty("cache.spec.default", DEFAULT_SPEC);
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache<Object, Object> createNativeCaffeineCache(String name) {
+                return buildCache(environment, name, defaultSpec);
+            }
+        };
+        for (String cacheName : CACHE_NAMES) {
+            cacheManager.registerCustomCache(cacheName, buildCache(environment, cacheName, defaultSpec));
+        }
         return cacheManager;
     }
-}
 
+    private static Cache<Object, Object> buildCache(Environment environment, String cacheName, String defaultSpec) {
+        String spec = environment.getProperty("cache.spec." + cacheName, defaultSpec);
+        log.info("Cache '{}' configured with {}", cacheName, spec);
+        return Caffeine.from(spec).recordStats().build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ControlCards.ControlCards.Config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Нишки за паралелното зареждане на данните за една страница (PageDataLoader).
+// С Java 21 и spring.threads.virtual.enabled=true всяка задача е във виртуална нишка;
+// иначе се използва ограничен пул, за да не се създават неограничено платформени нишки.
+@Configuration
+@Slf4j
+public class PageLoadConfig {
+
+    public static final String PAGE_LOAD_EXECUTOR = "pageLoadExecutor";
+
+    @Bean(name = PAGE_LOAD_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualPageLoadExecutor() {
+        log.info("Page data loading uses virtual threads");
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("page-load-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @Bean(name = PAGE_LOAD_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor platformPageLoadExecutor(@Value("${page.load.threads:16}") int threads,
+                                                      @Value("${page.load.queue-capacity:100}") int queueCapacity) {
+        log.info("Page data loading uses {} platform threads", threads);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("page-load-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
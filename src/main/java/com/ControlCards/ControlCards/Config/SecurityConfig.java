@@ -1,5 +1,10 @@
 package com.ControlCards.ControlCards.Config;
 
+import com.ControlCards.ControlCards.Exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -7,20 +12,30 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
 import org.springframework.security.web.firewall.HttpFirewall;
 import org.springframework.security.web.firewall.StrictHttpFirewall;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    // При смяна на password.bcrypt.strength старите хешове се прехешират при следващия успешен вход
+    // (CustomUserDetailsService.updatePassword)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength:10}") int strength,
+                                           @Value("${password.hashing.threads:0}") int threads,
+                                           @Value("${password.hashing.queue-capacity:0}") int queueCapacity,
+                                           @Value("${password.hashing.timeout-ms:2000}") long timeoutMs,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BoundedBCryptPasswordEncoder(strength, threads, queueCapacity, timeoutMs,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 
     @Bean
@@ -41,7 +56,8 @@ public class SecurityConfig {
         http
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/", "/home", "/login", "/info", "/user-request", "/error", "/favicon.ico", "/css/**", "/js/**", "/images/**").permitAll()
-                        .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/manager/**").hasAnyRole("ADMIN", "PRODUCTION_MANAGER", "MANAGER")
                         .requestMatchers("/technician/**").hasAnyRole("ADMIN", "PRODUCTION_MANAGER", "MANAGER", "TECHNICIAN")
                         .requestMatchers("/worker/**").hasAnyRole("ADMIN", "PRODUCTION_MANAGER", "MANAGER", "TECHNICIAN", "WORKER")
@@ -50,7 +66,7 @@ public class SecurityConfig {
                 .formLogin(form -> form
                         .loginPage("/login")
                         .defaultSuccessUrl("/dashboard", true)
-                        .failureUrl("/login?error=true")
+                        .failureHandler(loginFailureHandler())
                         .permitAll()
                 )
                 .logout(logout -> logout
@@ -67,4 +83,12 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    // Претоварено хеширане не е грешна парола - потребителят вижда, че трябва да опита след малко
+    private AuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error=true");
+        handler.setExceptionMappings(Map.of(PasswordHashingOverloadedException.class.getName(), "/login?busy=true"));
+        return handler;
+    }
 }
@@ -0,0 +1,106 @@
+package com.ControlCards.ControlCards.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Следи JFR събитието jdk.VirtualThreadPinned (Java 21) - виртуална нишка, блокирала носещата си нишка,
+// обикновено заради блокираща операция в synchronized блок. За всяко събитие се намира първият ред
+// от нашия код в стека; той е таг "frame" на метриката virtual.threads.pinned, а при първото
+// срещане се логва целият стек. Работи само при spring.threads.virtual.enabled=true.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "diagnostics.pinning.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String METRIC_NAME = "virtual.threads.pinned";
+    static final String APPLICATION_PACKAGE = "com.ControlCards.";
+    static final String OTHER_FRAME = "other";
+
+    private static final int LOGGED_FRAMES = 15;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> reportedFrames = ConcurrentHashMap.newKeySet();
+    private volatile RecordingStream stream;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${diagnostics.pinning.threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onEvent);
+        recordingStream.startAsync();
+        stream = recordingStream;
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recordingStream = stream;
+        stream = null;
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onEvent(RecordedEvent event) {
+        List<String> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .map(VirtualThreadPinningMonitor::describe)
+                .toList();
+        report(frames, event.getDuration());
+    }
+
+    void report(List<String> frames, Duration duration) {
+        String frame = frames.stream()
+                .filter(f -> f.startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .orElse(OTHER_FRAME);
+        Timer.builder(METRIC_NAME)
+                .description("Време, за което виртуална нишка е блокирала носещата си нишка")
+                .tag("frame", frame)
+                .register(meterRegistry)
+                .record(duration.toNanos(), TimeUnit.NANOSECONDS);
+
+        if (reportedFrames.add(frame)) {
+            log.warn("Virtual thread pinned its carrier for {} ms at {}:\n\t{}", duration.toMillis(), frame,
+                    frames.stream().limit(LOGGED_FRAMES).collect(Collectors.joining("\n\t")));
+        } else {
+            log.debug("Virtual thread pinned its carrier for {} ms at {}", duration.toMillis(), frame);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
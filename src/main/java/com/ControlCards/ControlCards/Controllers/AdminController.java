@@ -1,31 +1,43 @@
 package com.ControlCards.ControlCards.Controllers;
 
+import com.ControlCards.ControlCards.DTO.LogEntryFilterDTO;
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
+import com.ControlCards.ControlCards.DTO.WorkshopSnapshot;
 import com.ControlCards.ControlCards.Exception.UserNotFoundException;
 import com.ControlCards.ControlCards.Exception.WorkCenterNotFoundException;
 import com.ControlCards.ControlCards.Exception.WorkshopNotFoundException;
-import com.ControlCards.ControlCards.Model.LogEntry;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Model.WorkCenter;
 import com.ControlCards.ControlCards.Model.Workshop;
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
+import com.ControlCards.ControlCards.Service.Impl.PageDataLoader;
 import com.ControlCards.ControlCards.Service.UserService;
 import com.ControlCards.ControlCards.Service.WorkCenterService;
 import com.ControlCards.ControlCards.Service.WorkshopService;
 import com.ControlCards.ControlCards.Util.Enums.Role;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Controller
@@ -39,27 +51,18 @@ public class AdminController {
     private final WorkshopService workshopService;
     private final LogEntryService logEntryService;
     private final PasswordEncoder passwordEncoder;
+    private final PageDataLoader pageDataLoader;
 
     @Autowired
     public AdminController(UserService userService, WorkCenterService workCenterService, 
                           WorkshopService workshopService, LogEntryService logEntryService,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder, PageDataLoader pageDataLoader) {
         this.userService = userService;
         this.workCenterService = workCenterService;
         this.workshopService = workshopService;
         this.logEntryService = logEntryService;
         this.passwordEncoder = passwordEncoder;
-    }
-
-    private void logAction(UserDetails userDetails, String action) {
-        try {
-            User currentUser = userService.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
-            logEntryService.createLog(currentUser, action);
-            log.info("Admin action logged: {} by user: {}", action, currentUser.getUsername());
-        } catch (Exception e) {
-            log.error("Failed to log action: {}", e.getMessage());
-        }
+        this.pageDataLoader = pageDataLoader;
     }
 
     @GetMapping("/users")
@@ -77,15 +80,14 @@ public class AdminController {
         ModelAndView modelAndView = new ModelAndView("admin-users-form");
         modelAndView.addObject("user", new User());
         modelAndView.addObject("roles", Role.values());
-        modelAndView.addObject("allWorkshops", workshopService.findAll());
+        modelAndView.addObject("allWorkshops", workshopService.findAllSnapshots());
         return modelAndView;
     }
 
     @PostMapping("/users/new")
     public String createUser(@ModelAttribute User user, 
                              @RequestParam(required = false) List<UUID> workshopIds,
-                             @RequestParam(required = false) Boolean selectAll,
-                             @AuthenticationPrincipal UserDetails userDetails) {
+                             @RequestParam(required = false) Boolean selectAll) {
         if (user.getPassword() != null && !user.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
@@ -105,35 +107,29 @@ public class AdminController {
         
         userService.save(user);
         log.info("User created: {}", user.getUsername());
-        logAction(userDetails, "Създаден нов потребител: " + user.getUsername());
         return "redirect:/admin/users";
     }
 
     @GetMapping("/users/edit/{id}")
     public ModelAndView showEditUserForm(@PathVariable UUID id) {
-        Optional<User> userOpt = userService.findById(id);
-        if (userOpt.isEmpty()) {
+        // Потребителят с цеховете му е една заявка, а списъкът с цехове идва от кеша в паметта -
+        // няма какво да се зарежда паралелно
+        Optional<User> user = userService.findByIdWithWorkshops(id);
+        if (user.isEmpty()) {
             log.warn("Attempt to edit non-existent user with ID: {}", id);
             return new ModelAndView("redirect:/admin/users");
         }
-        
-        Optional<User> userWithWorkshops = userService.findByUsernameWithWorkshops(userOpt.get().getUsername());
-        if (userWithWorkshops.isPresent()) {
-            ModelAndView modelAndView = new ModelAndView("admin-users-form");
-            modelAndView.addObject("user", userWithWorkshops.get());
-            modelAndView.addObject("roles", Role.values());
-            modelAndView.addObject("allWorkshops", workshopService.findAll());
-            return modelAndView;
-        }
-        log.warn("User with ID {} found but could not load with workshops", id);
-        return new ModelAndView("redirect:/admin/users");
+        ModelAndView modelAndView = new ModelAndView("admin-users-form");
+        modelAndView.addObject("user", user.get());
+        modelAndView.addObject("roles", Role.values());
+        modelAndView.addObject("allWorkshops", workshopService.findAllSnapshots());
+        return modelAndView;
     }
 
     @PostMapping("/users/edit/{id}")
     public String updateUser(@PathVariable UUID id, @ModelAttribute User user,
                              @RequestParam(required = false) List<UUID> workshopIds,
-                             @RequestParam(required = false) Boolean selectAll,
-                             @AuthenticationPrincipal UserDetails userDetails) {
+                             @RequestParam(required = false) Boolean selectAll) {
         User existingUser = userService.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + id));
         
@@ -167,12 +163,11 @@ public class AdminController {
         
         userService.save(existingUser);
         log.info("User updated: {} -> {}", oldUsername, user.getUsername());
-        logAction(userDetails, "Обновен потребител: " + oldUsername + " -> " + user.getUsername());
         return "redirect:/admin/users";
     }
 
     @PostMapping("/users/deactivate/{id}")
-    public String deactivateUser(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
+    public String deactivateUser(@PathVariable UUID id) {
         if (userService.existsById(id)) {
             Optional<User> userOpt = userService.findById(id);
             if (userOpt.isPresent()) {
@@ -185,7 +180,6 @@ public class AdminController {
                 try {
                     userService.deactivate(id);
                     log.info("User deactivated: {}", username);
-                    logAction(userDetails, "Деактивиран потребител: " + username);
                 } catch (RuntimeException e) {
                     log.error("Failed to deactivate user {}: {}", username, e.getMessage());
                 }
@@ -195,13 +189,12 @@ public class AdminController {
     }
 
     @PostMapping("/users/activate/{id}")
-    public String activateUser(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
+    public String activateUser(@PathVariable UUID id) {
         if (userService.existsById(id)) {
             Optional<User> userOpt = userService.findById(id);
             String username = userOpt.map(User::getUsername).orElse("Unknown");
             userService.activate(id);
             log.info("User activated: {}", username);
-            logAction(userDetails, "Активиран потребител: " + username);
         }
         return "redirect:/admin/users";
     }
@@ -209,7 +202,7 @@ public class AdminController {
     @GetMapping("/workcenters")
     public ModelAndView listWorkCenters() {
         log.debug("Listing all work centers");
-        List<WorkCenter> workCenters = workCenterService.findAll();
+        List<WorkCenterSnapshot> workCenters = workCenterService.findAllSnapshots();
         ModelAndView modelAndView = new ModelAndView("admin-workcenters");
         modelAndView.addObject("workCenters", workCenters);
         return modelAndView;
@@ -220,20 +213,18 @@ public class AdminController {
         log.debug("Showing create work center form");
         ModelAndView modelAndView = new ModelAndView("admin-workcenters-form");
         modelAndView.addObject("workCenter", new WorkCenter());
-        List<Workshop> workshops = workshopService.findAllActive();
+        List<WorkshopSnapshot> workshops = workshopService.findActiveSnapshots();
         modelAndView.addObject("workshops", workshops);
         return modelAndView;
     }
 
     @PostMapping("/workcenters/new")
-    public String createWorkCenter(@ModelAttribute WorkCenter workCenter, @RequestParam UUID workshopId, 
-                                   @AuthenticationPrincipal UserDetails userDetails) {
+    public String createWorkCenter(@ModelAttribute WorkCenter workCenter, @RequestParam UUID workshopId) {
         Workshop workshop = workshopService.findById(workshopId)
                 .orElseThrow(() -> new WorkshopNotFoundException("Workshop not found: " + workshopId));
         workCenter.setWorkshop(workshop);
         workCenterService.save(workCenter);
         log.info("Work center created: {}", workCenter.getNumber());
-        logAction(userDetails, "Създаден нов работен център: " + workCenter.getNumber());
         return "redirect:/admin/workcenters";
     }
 
@@ -247,14 +238,14 @@ public class AdminController {
         
         ModelAndView modelAndView = new ModelAndView("admin-workcenters-form");
         modelAndView.addObject("workCenter", workCenterOpt.get());
-        List<Workshop> workshops = workshopService.findAllActive();
+        List<WorkshopSnapshot> workshops = workshopService.findActiveSnapshots();
         modelAndView.addObject("workshops", workshops);
         return modelAndView;
     }
 
     @PostMapping("/workcenters/edit/{id}")
     public String updateWorkCenter(@PathVariable UUID id, @ModelAttribute WorkCenter workCenter, 
-                                   @RequestParam UUID workshopId, @AuthenticationPrincipal UserDetails userDetails) {
+                                   @RequestParam UUID workshopId) {
         WorkCenter existingWorkCenter = workCenterService.findById(id)
                 .orElseThrow(() -> new WorkCenterNotFoundException("Work center not found with ID: " + id));
         
@@ -269,30 +260,27 @@ public class AdminController {
         
         workCenterService.save(existingWorkCenter);
         log.info("Work center updated: {} -> {}", oldNumber, workCenter.getNumber());
-        logAction(userDetails, "Обновен работен център: " + oldNumber + " -> " + workCenter.getNumber());
         return "redirect:/admin/workcenters";
     }
 
     @PostMapping("/workcenters/deactivate/{id}")
-    public String deactivateWorkCenter(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
+    public String deactivateWorkCenter(@PathVariable UUID id) {
         if (workCenterService.existsById(id)) {
             Optional<WorkCenter> workCenterOpt = workCenterService.findById(id);
             String workCenterNumber = workCenterOpt.map(WorkCenter::getNumber).orElse("Unknown");
             workCenterService.deactivate(id);
             log.info("Work center deactivated: {}", workCenterNumber);
-            logAction(userDetails, "Деактивиран работен център: " + workCenterNumber);
         }
         return "redirect:/admin/workcenters";
     }
 
     @PostMapping("/workcenters/activate/{id}")
-    public String activateWorkCenter(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
+    public String activateWorkCenter(@PathVariable UUID id) {
         if (workCenterService.existsById(id)) {
             Optional<WorkCenter> workCenterOpt = workCenterService.findById(id);
             String workCenterNumber = workCenterOpt.map(WorkCenter::getNumber).orElse("Unknown");
             workCenterService.activate(id);
             log.info("Work center activated: {}", workCenterNumber);
-            logAction(userDetails, "Активиран работен център: " + workCenterNumber);
         }
         return "redirect:/admin/workcenters";
     }
@@ -300,7 +288,7 @@ public class AdminController {
     @GetMapping("/workshops")
     public ModelAndView listWorkshops() {
         log.debug("Listing all workshops");
-        List<Workshop> workshops = workshopService.findAll();
+        List<WorkshopSnapshot> workshops = workshopService.findAllSnapshots();
         ModelAndView modelAndView = new ModelAndView("admin-workshops");
         modelAndView.addObject("workshops", workshops);
         return modelAndView;
@@ -315,10 +303,9 @@ public class AdminController {
     }
 
     @PostMapping("/workshops/new")
-    public String createWorkshop(@ModelAttribute Workshop workshop, @AuthenticationPrincipal UserDetails userDetails) {
+    public String createWorkshop(@ModelAttribute Workshop workshop) {
         workshopService.save(workshop);
         log.info("Workshop created: {}", workshop.getName());
-        logAction(userDetails, "Създаден нов цех: " + workshop.getName());
         return "redirect:/admin/workshops";
     }
 
@@ -336,7 +323,7 @@ public class AdminController {
     }
 
     @PostMapping("/workshops/edit/{id}")
-    public String updateWorkshop(@PathVariable UUID id, @ModelAttribute Workshop workshop, @AuthenticationPrincipal UserDetails userDetails) {
+    public String updateWorkshop(@PathVariable UUID id, @ModelAttribute Workshop workshop) {
         Workshop existingWorkshop = workshopService.findById(id)
                 .orElseThrow(() -> new WorkshopNotFoundException("Workshop not found with ID: " + id));
         
@@ -345,43 +332,59 @@ public class AdminController {
         existingWorkshop.setDescription(workshop.getDescription());
         workshopService.save(existingWorkshop);
         log.info("Workshop updated: {} -> {}", oldName, workshop.getName());
-        logAction(userDetails, "Обновен цех: " + oldName + " -> " + workshop.getName());
         return "redirect:/admin/workshops";
     }
 
     @PostMapping("/workshops/deactivate/{id}")
-    public String deactivateWorkshop(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
+    public String deactivateWorkshop(@PathVariable UUID id) {
         if (workshopService.existsById(id)) {
             Optional<Workshop> workshopOpt = workshopService.findById(id);
             String workshopName = workshopOpt.map(Workshop::getName).orElse("Unknown");
             workshopService.deactivate(id);
             log.info("Workshop deactivated: {}", workshopName);
-            logAction(userDetails, "Деактивиран цех: " + workshopName);
         }
         return "redirect:/admin/workshops";
     }
 
     @PostMapping("/workshops/activate/{id}")
-    public String activateWorkshop(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
+    public String activateWorkshop(@PathVariable UUID id) {
         if (workshopService.existsById(id)) {
             Optional<Workshop> workshopOpt = workshopService.findById(id);
             String workshopName = workshopOpt.map(Workshop::getName).orElse("Unknown");
             workshopService.activate(id);
             log.info("Workshop activated: {}", workshopName);
-            logAction(userDetails, "Активиран цех: " + workshopName);
         }
         return "redirect:/admin/workshops";
     }
 
     @GetMapping("/logs")
-    public ModelAndView listLogs() {
-        log.debug("Listing all logs");
-        List<LogEntry> logs = logEntryService.findAll();
-        List<User> users = userService.findAll();
-        ModelAndView modelAndView = new ModelAndView("admin-logs");
-        modelAndView.addObject("logs", logs);
-        modelAndView.addObject("users", users);
-        return modelAndView;
+    public ModelAndView listLogs(@ModelAttribute("filter") LogEntryFilterDTO filter) {
+        log.debug("Listing logs with filter: {}", filter);
+        try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+            Supplier<Page<LogEntryViewDTO>> logs = scope.fork("logs", () -> logEntryService.search(filter));
+            Supplier<List<User>> users = scope.fork("users", userService::findAll);
+            scope.join();
+            ModelAndView modelAndView = new ModelAndView("admin-logs");
+            modelAndView.addObject("logs", logs.get().getContent());
+            modelAndView.addObject("page", logs.get());
+            modelAndView.addObject("users", users.get());
+            return modelAndView;
+        }
+    }
+
+    @GetMapping("/logs/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(@ModelAttribute("filter") LogEntryFilterDTO filter) {
+        log.info("Exporting logs with filter: {}", filter);
+        // Експортът се извиква вътре в тялото, така че транзакцията и курсорът
+        // остават отворени, докато се пише последният ред към клиента
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            logEntryService.exportCsv(filter, writer);
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"logs.csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
     }
 }
 
@@ -1,23 +1,32 @@
 package com.ControlCards.ControlCards.Controllers;
 
+import com.ControlCards.ControlCards.DTO.CardBulkActionDTO;
+import com.ControlCards.ControlCards.DTO.CardBulkResultDTO;
 import com.ControlCards.ControlCards.DTO.CardCreateDTO;
+import com.ControlCards.ControlCards.DTO.ArchivedCardFilterDTO;
+import com.ControlCards.ControlCards.DTO.ArchivedCardPageDTO;
+import com.ControlCards.ControlCards.DTO.CardCursorDTO;
 import com.ControlCards.ControlCards.DTO.CardExtendDTO;
-import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.DTO.CardPageDTO;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
 import com.ControlCards.ControlCards.Exception.UserNotFoundException;
 import com.ControlCards.ControlCards.Model.User;
-import com.ControlCards.ControlCards.Model.WorkCenter;
 import com.ControlCards.ControlCards.Model.Workshop;
 import com.ControlCards.ControlCards.Service.CardService;
+import com.ControlCards.ControlCards.Service.Impl.CardEventBroadcaster;
+import com.ControlCards.ControlCards.Service.Impl.CurrentUserService;
 import com.ControlCards.ControlCards.Service.UserService;
 import com.ControlCards.ControlCards.Service.WorkCenterService;
 import com.ControlCards.ControlCards.Util.Enums.Shift;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -36,13 +45,18 @@ public class CardController {
     private final CardService cardService;
     private final UserService userService;
     private final WorkCenterService workCenterService;
+    private final CurrentUserService currentUserService;
+    private final CardEventBroadcaster cardEventBroadcaster;
 
     @Autowired
     public CardController(CardService cardService, UserService userService, 
-                         WorkCenterService workCenterService) {
+                         WorkCenterService workCenterService, CurrentUserService currentUserService,
+                         CardEventBroadcaster cardEventBroadcaster) {
         this.cardService = cardService;
         this.userService = userService;
         this.workCenterService = workCenterService;
+        this.currentUserService = currentUserService;
+        this.cardEventBroadcaster = cardEventBroadcaster;
     }
 
 
@@ -60,7 +74,7 @@ public class CardController {
         log.debug("User {} has {} active workshops (out of {} total)", 
                  currentUser.getUsername(), workshops.size(), allWorkshops != null ? allWorkshops.size() : 0);
         
-        List<WorkCenter> workCenters = getWorkCentersForWorkshops(workshops);
+        List<WorkCenterSnapshot> workCenters = getWorkCentersForWorkshops(workshops);
 
         ModelAndView modelAndView = new ModelAndView("worker-cards-new");
         modelAndView.addObject("workshops", workshops);
@@ -90,11 +104,11 @@ public class CardController {
         List<Workshop> workshops = allWorkshops != null ? allWorkshops.stream()
                 .filter(w -> w.getActive() != null && w.getActive())
                 .collect(Collectors.toList()) : new ArrayList<>();
-        List<WorkCenter> workCenters = getWorkCentersForWorkshops(workshops);
         
         if (bindingResult.hasErrors()) {
             log.warn("Validation errors occurred during card creation. Error count: {}", bindingResult.getErrorCount());
             logValidationErrors(bindingResult);
+            List<WorkCenterSnapshot> workCenters = getWorkCentersForWorkshops(workshops);
 
             ModelAndView modelAndView = new ModelAndView("worker-cards-new");
             modelAndView.addObject("workshops", workshops);
@@ -112,13 +126,14 @@ public class CardController {
 
     @GetMapping("/created")
     @PreAuthorize("hasRole('TECHNICIAN')")
-    public ModelAndView listCreatedCards(@AuthenticationPrincipal UserDetails userDetails) {
+    public ModelAndView listCreatedCards(@AuthenticationPrincipal UserDetails userDetails,
+                                         @ModelAttribute("cursor") CardCursorDTO cursor) {
         log.debug("Listing created cards for technician");
         User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
                 .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
-        List<CardViewDTO> createdCards = cardService.getCreatedCards(currentUser);
+        CardPageDTO createdCards = cardService.getCreatedCards(currentUser, cursor);
         ModelAndView modelAndView = new ModelAndView("technician-cards");
-        modelAndView.addObject("cards", createdCards);
+        addPage(modelAndView, createdCards, "/cards/created");
         return modelAndView;
     }
 
@@ -129,8 +144,7 @@ public class CardController {
             return new ModelAndView("redirect:/cards/created");
         }
         
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        User currentUser = currentUserService.getCurrentUser();
         
         if (!cardService.canExtendCard(id, currentUser)) {
             return new ModelAndView("redirect:/cards/created");
@@ -165,8 +179,7 @@ public class CardController {
             return modelAndView;
         }
 
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        User currentUser = currentUserService.getCurrentUser();
         
         cardService.extendCard(id, cardExtendDTO, currentUser);
         log.info("Card {} extended by technician: {}", id, currentUser.getUsername());
@@ -176,52 +189,58 @@ public class CardController {
 
     @GetMapping("/extended")
     @PreAuthorize("hasAnyRole('MANAGER', 'PRODUCTION_MANAGER')")
-    public ModelAndView listExtendedCards(@AuthenticationPrincipal UserDetails userDetails) {
+    public ModelAndView listExtendedCards(@AuthenticationPrincipal UserDetails userDetails,
+                                          @ModelAttribute("cursor") CardCursorDTO cursor) {
         log.debug("Listing extended cards for manager/production manager");
         User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
                 .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
-        List<CardViewDTO> extendedCards = cardService.getExtendedCards(currentUser);
+        CardPageDTO extendedCards = cardService.getExtendedCards(currentUser, cursor);
         ModelAndView modelAndView = new ModelAndView("manager-cards");
-        modelAndView.addObject("cards", extendedCards);
+        addPage(modelAndView, extendedCards, "/cards/extended");
         modelAndView.addObject("pageTitle", "Разширени карти");
         return modelAndView;
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRODUCTION_MANAGER', 'MANAGER')")
-    public ModelAndView listAllCards(@AuthenticationPrincipal UserDetails userDetails) {
+    public ModelAndView listAllCards(@AuthenticationPrincipal UserDetails userDetails,
+                                     @ModelAttribute("cursor") CardCursorDTO cursor) {
         log.debug("Listing all cards for admin/manager/production manager");
         User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
                 .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
-        List<CardViewDTO> allCards = cardService.getAllCards(currentUser);
+        CardPageDTO allCards = cardService.getAllCards(currentUser, cursor);
         ModelAndView modelAndView = new ModelAndView("manager-cards");
-        modelAndView.addObject("cards", allCards);
+        addPage(modelAndView, allCards, "/cards/all");
         modelAndView.addObject("pageTitle", "Всички карти");
         return modelAndView;
     }
 
     @GetMapping("/closed")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRODUCTION_MANAGER', 'MANAGER')")
-    public ModelAndView listClosedCards(@AuthenticationPrincipal UserDetails userDetails) {
+    public ModelAndView listClosedCards(@AuthenticationPrincipal UserDetails userDetails,
+                                        @ModelAttribute("cursor") CardCursorDTO cursor) {
         log.debug("Listing closed cards for admin/manager/production manager");
         User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
                 .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
-        List<CardViewDTO> closedCards = cardService.getClosedCards(currentUser);
+        CardPageDTO closedCards = cardService.getClosedCards(currentUser, cursor);
         ModelAndView modelAndView = new ModelAndView("closed-cards");
-        modelAndView.addObject("cards", closedCards);
+        addPage(modelAndView, closedCards, "/cards/closed");
         modelAndView.addObject("pageTitle", "Затворени карти");
         return modelAndView;
     }
 
     @GetMapping("/archived")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRODUCTION_MANAGER', 'MANAGER')")
-    public ModelAndView listArchivedCards(@AuthenticationPrincipal UserDetails userDetails) {
+    public ModelAndView listArchivedCards(@AuthenticationPrincipal UserDetails userDetails,
+                                          @ModelAttribute("filter") ArchivedCardFilterDTO filter) {
         log.debug("Listing archived cards for admin/manager/production manager");
         User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
                 .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
-        List<CardViewDTO> archivedCards = cardService.getArchivedCards(currentUser);
+        ArchivedCardPageDTO archivedCards = cardService.getArchivedCards(currentUser, filter);
         ModelAndView modelAndView = new ModelAndView("archived-cards");
-        modelAndView.addObject("cards", archivedCards);
+        modelAndView.addObject("cards", archivedCards.getCards());
+        modelAndView.addObject("page", archivedCards);
+        modelAndView.addObject("shifts", Shift.values());
         modelAndView.addObject("pageTitle", "Архивирани карти");
         return modelAndView;
     }
@@ -229,8 +248,7 @@ public class CardController {
     @PostMapping("/close/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PRODUCTION_MANAGER')")
     public String closeCard(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        User currentUser = currentUserService.getCurrentUser();
         
         cardService.closeCard(id, currentUser);
         log.info("Card {} closed by user: {}", id, currentUser.getUsername());
@@ -241,8 +259,7 @@ public class CardController {
     @PostMapping("/archive/{id}")
     @PreAuthorize("hasRole('PRODUCTION_MANAGER')")
     public String archiveCard(@PathVariable UUID id, @AuthenticationPrincipal UserDetails userDetails) {
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        User currentUser = currentUserService.getCurrentUser();
         
         cardService.archiveCard(id, currentUser);
         log.info("Card {} archived by user: {}", id, currentUser.getUsername());
@@ -250,28 +267,88 @@ public class CardController {
         return "redirect:/cards/closed";
     }
 
+    // Масово затваряне/архивиране на избраните в таблицата карти - връща отчет по карти
+    @PostMapping("/bulk/close")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PRODUCTION_MANAGER')")
+    public ModelAndView closeCards(@AuthenticationPrincipal UserDetails userDetails,
+                                   @Valid @ModelAttribute("bulk") CardBulkActionDTO bulk, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            logValidationErrors(bindingResult);
+            return new ModelAndView("redirect:/cards/extended");
+        }
+        // С цеховете - картите извън тях се пропускат
+        User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        
+        CardBulkResultDTO result = cardService.closeCards(bulk.getCardIds(), currentUser);
+        log.info("{} of {} cards closed by user: {}", result.getSucceededCount(), result.getItems().size(), currentUser.getUsername());
+        
+        return bulkResult(result, "Масово затваряне", "/cards/extended");
+    }
+
+    @PostMapping("/bulk/archive")
+    @PreAuthorize("hasRole('PRODUCTION_MANAGER')")
+    public ModelAndView archiveCards(@AuthenticationPrincipal UserDetails userDetails,
+                                     @Valid @ModelAttribute("bulk") CardBulkActionDTO bulk, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            logValidationErrors(bindingResult);
+            return new ModelAndView("redirect:/cards/closed");
+        }
+        // С цеховете - картите извън тях се пропускат
+        User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        
+        CardBulkResultDTO result = cardService.archiveCards(bulk.getCardIds(), currentUser);
+        log.info("{} of {} cards archived by user: {}", result.getSucceededCount(), result.getItems().size(), currentUser.getUsername());
+        
+        return bulkResult(result, "Масово архивиране", "/cards/closed");
+    }
+
     @GetMapping("/view")
     @PreAuthorize("hasRole('WORKER')")
-    public ModelAndView listWorkerCards(@AuthenticationPrincipal UserDetails userDetails) {
+    public ModelAndView listWorkerCards(@AuthenticationPrincipal UserDetails userDetails,
+                                        @ModelAttribute("cursor") CardCursorDTO cursor) {
         log.debug("Listing cards for worker");
         User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
                 .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
-        List<CardViewDTO> workerCards = cardService.getAllCards(currentUser);
+        CardPageDTO workerCards = cardService.getAllCards(currentUser, cursor);
         ModelAndView modelAndView = new ModelAndView("manager-cards");
-        modelAndView.addObject("cards", workerCards);
+        addPage(modelAndView, workerCards, "/cards/view");
         modelAndView.addObject("pageTitle", "Преглед на карти");
         return modelAndView;
     }
 
-    private List<WorkCenter> getWorkCentersForWorkshops(List<Workshop> workshops) {
-        List<WorkCenter> workCenters = new ArrayList<>();
-        if (workshops != null && !workshops.isEmpty()) {
-            for (Workshop workshop : workshops) {
-                List<WorkCenter> centers = workCenterService.findByWorkshopIdWithWorkshop(workshop.getId());
-                workCenters.addAll(centers);
-                log.debug("Workshop {} has {} active work centers", workshop.getName(), centers.size());
-            }
+    // Промените по картите от цеховете на потребителя (js/card-board.js обновява таблицата)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'PRODUCTION_MANAGER', 'MANAGER', 'TECHNICIAN', 'WORKER')")
+    @ResponseBody
+    public SseEmitter streamCardChanges(@AuthenticationPrincipal UserDetails userDetails) {
+        User currentUser = userService.findByUsernameWithWorkshops(userDetails.getUsername())
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        return cardEventBroadcaster.subscribe(currentUser);
+    }
+
+    private ModelAndView bulkResult(CardBulkResultDTO result, String pageTitle, String backUrl) {
+        ModelAndView modelAndView = new ModelAndView("card-bulk-result");
+        modelAndView.addObject("result", result);
+        modelAndView.addObject("pageTitle", pageTitle);
+        modelAndView.addObject("backUrl", backUrl);
+        return modelAndView;
+    }
+
+    private void addPage(ModelAndView modelAndView, CardPageDTO page, String pageUrl) {
+        modelAndView.addObject("cards", page.getCards());
+        modelAndView.addObject("page", page);
+        modelAndView.addObject("pageUrl", pageUrl);
+    }
+
+    private List<WorkCenterSnapshot> getWorkCentersForWorkshops(List<Workshop> workshops) {
+        if (workshops == null || workshops.isEmpty()) {
+            return new ArrayList<>();
         }
+        List<UUID> workshopIds = workshops.stream().map(Workshop::getId).collect(Collectors.toList());
+        List<WorkCenterSnapshot> workCenters = workCenterService.findActiveByWorkshopIds(workshopIds);
+        log.debug("{} workshops have {} active work centers", workshopIds.size(), workCenters.size());
         return workCenters;
     }
 
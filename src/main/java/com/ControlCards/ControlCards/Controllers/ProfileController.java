@@ -1,8 +1,8 @@
 package com.ControlCards.ControlCards.Controllers;
 
 import com.ControlCards.ControlCards.DTO.ProfileUpdateDTO;
-import com.ControlCards.ControlCards.Exception.UserNotFoundException;
 import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Service.Impl.CurrentUserService;
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
 import com.ControlCards.ControlCards.Service.UserService;
 import jakarta.validation.Valid;
@@ -27,22 +27,24 @@ public class ProfileController {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final LogEntryService logEntryService;
+    private final CurrentUserService currentUserService;
 
     @Autowired
     public ProfileController(UserService userService,
                              PasswordEncoder passwordEncoder,
-                             LogEntryService logEntryService) {
+                             LogEntryService logEntryService,
+                             CurrentUserService currentUserService) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.logEntryService = logEntryService;
+        this.currentUserService = currentUserService;
     }
 
     @GetMapping
     public ModelAndView showProfile(@AuthenticationPrincipal UserDetails userDetails) {
         log.debug("Showing profile for user: {}", userDetails.getUsername());
         
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        User currentUser = currentUserService.getCurrentUser();
         
         ProfileUpdateDTO profileDTO = new ProfileUpdateDTO();
         profileDTO.setFirstName(currentUser.getFirstName());
@@ -60,8 +62,7 @@ public class ProfileController {
                                      BindingResult bindingResult) {
         log.info("Updating profile for user: {}", userDetails.getUsername());
         
-        User currentUser = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+        User currentUser = currentUserService.getCurrentUser();
         
         if (profileDTO.getPassword() != null && !profileDTO.getPassword().isEmpty()) {
             if (profileDTO.getPassword().length() < 6) {
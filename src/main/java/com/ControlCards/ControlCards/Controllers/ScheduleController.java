@@ -1,13 +1,16 @@
 package com.ControlCards.ControlCards.Controllers;
 
-import com.ControlCards.ControlCards.Client.WorkScheduleClient;
+import com.ControlCards.ControlCards.DTO.SchedulePageDTO;
+import com.ControlCards.ControlCards.DTO.ScheduleQueryDTO;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
 import com.ControlCards.ControlCards.DTO.WorkScheduleDTO;
-import com.ControlCards.ControlCards.Exception.UserNotFoundException;
+import com.ControlCards.ControlCards.Exception.ScheduleServiceUnavailableException;
 import com.ControlCards.ControlCards.Exception.WorkCenterNotFoundException;
 import com.ControlCards.ControlCards.Model.User;
-import com.ControlCards.ControlCards.Model.WorkCenter;
+import com.ControlCards.ControlCards.Service.Impl.CurrentUserService;
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
-import com.ControlCards.ControlCards.Service.UserService;
+import com.ControlCards.ControlCards.Service.Impl.PageDataLoader;
+import com.ControlCards.ControlCards.Service.Impl.WorkScheduleService;
 import com.ControlCards.ControlCards.Service.WorkCenterService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,33 +27,35 @@ import org.springframework.web.servlet.ModelAndView;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Controller
 @RequestMapping("/schedules")
 @Slf4j
 public class ScheduleController {
 
-    private final WorkScheduleClient workScheduleClient;
+    private final WorkScheduleService workScheduleService;
     private final WorkCenterService workCenterService;
     private final LogEntryService logEntryService;
-    private final UserService userService;
+    private final CurrentUserService currentUserService;
+    private final PageDataLoader pageDataLoader;
 
     @Autowired
-    public ScheduleController(WorkScheduleClient workScheduleClient,
+    public ScheduleController(WorkScheduleService workScheduleService,
                               WorkCenterService workCenterService,
                               LogEntryService logEntryService,
-                              UserService userService) {
-        this.workScheduleClient = workScheduleClient;
+                              CurrentUserService currentUserService,
+                              PageDataLoader pageDataLoader) {
+        this.workScheduleService = workScheduleService;
         this.workCenterService = workCenterService;
         this.logEntryService = logEntryService;
-        this.userService = userService;
+        this.currentUserService = currentUserService;
+        this.pageDataLoader = pageDataLoader;
     }
 
     private void logAction(UserDetails userDetails, String action) {
         try {
-            User currentUser = userService.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new UserNotFoundException("User not found: " + userDetails.getUsername()));
+            User currentUser = currentUserService.getCurrentUser();
             logEntryService.createLog(currentUser, action);
             log.info("Schedule action logged: {} by user: {}", action, currentUser.getUsername());
         } catch (Exception e) {
@@ -58,11 +63,21 @@ public class ScheduleController {
         }
     }
 
+    // Формата с грешка при създаване/редакция - активните работни центрове се взимат веднъж
+    private ModelAndView scheduleForm(WorkScheduleDTO scheduleDTO, boolean isEdit, String error) {
+        ModelAndView modelAndView = new ModelAndView("schedule-form");
+        modelAndView.addObject("workCenters", workCenterService.findActiveSnapshots());
+        modelAndView.addObject("schedule", scheduleDTO);
+        modelAndView.addObject("isEdit", isEdit);
+        modelAndView.addObject("error", error);
+        return modelAndView;
+    }
+
     @GetMapping
     public ModelAndView showSchedulesPage() {
         log.debug("Showing schedules page");
         ModelAndView modelAndView = new ModelAndView("schedules");
-        modelAndView.addObject("workCenters", workCenterService.findAllActive());
+        modelAndView.addObject("workCenters", workCenterService.findActiveSnapshots());
         return modelAndView;
     }
 
@@ -70,53 +85,47 @@ public class ScheduleController {
     public ModelAndView searchSchedules(
             @RequestParam(required = false) UUID workCenterId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
-            @RequestParam(required = false) Integer shift) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) Integer shift,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         
-        log.info("Searching schedules - workCenterId: {}, date: {}, shift: {}", workCenterId, date, shift);
+        log.info("Searching schedules - workCenterId: {}, date: {}, period: {} - {}, shift: {}, page: {}",
+                workCenterId, date, dateFrom, dateTo, shift, page);
         
-        List<WorkScheduleDTO> schedules;
-        WorkCenter selectedWorkCenter = null;
+        WorkCenterSnapshot selectedWorkCenter = null;
         String workCenterNumber = null;
         
         if (workCenterId != null) {
-            selectedWorkCenter = workCenterService.findById(workCenterId)
+            selectedWorkCenter = workCenterService.findSnapshotById(workCenterId)
                     .orElseThrow(() -> new WorkCenterNotFoundException("Work center not found"));
             workCenterNumber = selectedWorkCenter.getNumber();
         }
         
-        final String finalWorkCenterNumber = workCenterNumber;
-        final Integer finalShift = shift;
-        
-        schedules = workScheduleClient.getSchedules(date, shift, workCenterNumber);
-        
-        if (shift != null && date == null) {
-            schedules = schedules.stream()
-                    .filter(s -> s.getShift() != null && s.getShift().equals(finalShift))
-                    .collect(Collectors.toList());
-            log.debug("Filtered schedules by shift {}: {} results", shift, schedules.size());
-        }
-        
-        if (finalWorkCenterNumber != null && date == null && shift == null) {
-            schedules = schedules.stream()
-                    .filter(s -> finalWorkCenterNumber.equals(s.getWorkCenter()))
-                    .collect(Collectors.toList());
-            log.debug("Filtered schedules by workCenter {}: {} results", finalWorkCenterNumber, schedules.size());
-        }
-        
-        if (finalWorkCenterNumber != null && shift != null && date == null) {
-            schedules = schedules.stream()
-                    .filter(s -> finalWorkCenterNumber.equals(s.getWorkCenter()) 
-                            && s.getShift() != null && s.getShift().equals(finalShift))
-                    .collect(Collectors.toList());
-            log.debug("Filtered schedules by workCenter {} and shift {}: {} results", 
-                    finalWorkCenterNumber, shift, schedules.size());
+        // Всички филтри се изпращат към сървиса; конкретната дата е с предимство пред периода
+        ScheduleQueryDTO query = new ScheduleQueryDTO(date, date == null ? dateFrom : null, date == null ? dateTo : null,
+                shift, workCenterNumber, page, size);
+        // Графиците от отдалечения сървис се зареждат със срок; активните работни центрове са от кеша
+        // в паметта и се четат директно в тази нишка, докато отдалечената заявка работи
+        SchedulePageDTO schedulePage;
+        List<WorkCenterSnapshot> workCenters;
+        try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+            Supplier<SchedulePageDTO> schedules = scope.fork("schedules", () -> workScheduleService.searchSchedules(query));
+            workCenters = workCenterService.findActiveSnapshots();
+            scope.join();
+            schedulePage = schedules.get();
         }
+        log.debug("Found {} schedules, showing {}", schedulePage.getTotalElements(), schedulePage.getSchedules().size());
         
         ModelAndView modelAndView = new ModelAndView("schedules");
-        modelAndView.addObject("workCenters", workCenterService.findAllActive());
-        modelAndView.addObject("schedules", schedules);
+        modelAndView.addObject("workCenters", workCenters);
+        modelAndView.addObject("schedules", schedulePage.getSchedules());
+        modelAndView.addObject("page", schedulePage);
         modelAndView.addObject("selectedWorkCenter", selectedWorkCenter);
         modelAndView.addObject("selectedDate", date);
+        modelAndView.addObject("selectedDateFrom", query.getDateFrom());
+        modelAndView.addObject("selectedDateTo", query.getDateTo());
         modelAndView.addObject("selectedShift", shift);
         return modelAndView;
     }
@@ -126,7 +135,7 @@ public class ScheduleController {
     public ModelAndView showCreateScheduleForm(@RequestParam(required = false) String error) {
         log.debug("Showing create schedule form");
         ModelAndView modelAndView = new ModelAndView("schedule-form");
-        modelAndView.addObject("workCenters", workCenterService.findAllActive());
+        modelAndView.addObject("workCenters", workCenterService.findActiveSnapshots());
         modelAndView.addObject("schedule", new WorkScheduleDTO());
         modelAndView.addObject("isEdit", false);
         if (error != null && !error.isEmpty()) {
@@ -144,15 +153,10 @@ public class ScheduleController {
                 scheduleDTO.getProductionOrder(), scheduleDTO.getShift());
         
         if (scheduleDTO.getWorkCenterId() == null) {
-            ModelAndView modelAndView = new ModelAndView("schedule-form");
-            modelAndView.addObject("workCenters", workCenterService.findAllActive());
-            modelAndView.addObject("schedule", scheduleDTO);
-            modelAndView.addObject("isEdit", false);
-            modelAndView.addObject("error", "Моля, изберете работен център");
-            return modelAndView;
+            return scheduleForm(scheduleDTO, false, "Моля, изберете работен център");
         }
         
-        WorkCenter selectedWorkCenter = workCenterService.findById(scheduleDTO.getWorkCenterId())
+        WorkCenterSnapshot selectedWorkCenter = workCenterService.findSnapshotById(scheduleDTO.getWorkCenterId())
                 .orElseThrow(() -> new WorkCenterNotFoundException("Work center not found: " + scheduleDTO.getWorkCenterId()));
         
         scheduleDTO.setWorkCenter(selectedWorkCenter.getNumber());
@@ -161,7 +165,7 @@ public class ScheduleController {
             log.debug("Schedule DTO before sending: date={}, shift={}, workCenter={}, productionOrder={}", 
                     scheduleDTO.getDate(), scheduleDTO.getShift(), scheduleDTO.getWorkCenter(), scheduleDTO.getProductionOrder());
             
-            WorkScheduleDTO created = workScheduleClient.createSchedule(scheduleDTO);
+            WorkScheduleDTO created = workScheduleService.createSchedule(scheduleDTO);
             log.info("Schedule created successfully with ID: {}", created.getId());
             
             String action = String.format("Създаден график - Производствена поръчка: %s, Смяна: %s, Дата: %s, Работен център: %s",
@@ -172,28 +176,16 @@ public class ScheduleController {
         } catch (HttpClientErrorException e) {
             log.error("HTTP error creating schedule: Status={}, Body={}", e.getStatusCode(), e.getResponseBodyAsString(), e);
             String errorMsg = "Грешка при създаване на график: " + (e.getResponseBodyAsString() != null ? e.getResponseBodyAsString() : e.getMessage());
-            ModelAndView modelAndView = new ModelAndView("schedule-form");
-            modelAndView.addObject("workCenters", workCenterService.findAllActive());
-            modelAndView.addObject("schedule", scheduleDTO);
-            modelAndView.addObject("isEdit", false);
-            modelAndView.addObject("error", errorMsg);
-            return modelAndView;
+            return scheduleForm(scheduleDTO, false, errorMsg);
         } catch (ResourceAccessException e) {
             log.error("Connection error creating schedule: {}", e.getMessage(), e);
-            ModelAndView modelAndView = new ModelAndView("schedule-form");
-            modelAndView.addObject("workCenters", workCenterService.findAllActive());
-            modelAndView.addObject("schedule", scheduleDTO);
-            modelAndView.addObject("isEdit", false);
-            modelAndView.addObject("error", "Грешка при свързване със сървиса за графици. Моля, проверете дали WorkScheduleService е стартиран.");
-            return modelAndView;
+            return scheduleForm(scheduleDTO, false, "Грешка при свързване със сървиса за графици. Моля, проверете дали WorkScheduleService е стартиран.");
+        } catch (ScheduleServiceUnavailableException e) {
+            log.error("Schedule service unavailable while creating schedule: {}", e.getMessage());
+            return scheduleForm(scheduleDTO, false, "Сървисът за графици в момента е недостъпен. Моля, опитайте отново след малко.");
         } catch (Exception e) {
             log.error("Error creating schedule: {}", e.getMessage(), e);
-            ModelAndView modelAndView = new ModelAndView("schedule-form");
-            modelAndView.addObject("workCenters", workCenterService.findAllActive());
-            modelAndView.addObject("schedule", scheduleDTO);
-            modelAndView.addObject("isEdit", false);
-            modelAndView.addObject("error", "Грешка: " + (e.getMessage() != null ? e.getMessage() : "Неизвестна грешка"));
-            return modelAndView;
+            return scheduleForm(scheduleDTO, false, "Грешка: " + (e.getMessage() != null ? e.getMessage() : "Неизвестна грешка"));
         }
     }
 
@@ -205,12 +197,12 @@ public class ScheduleController {
         try {
             WorkScheduleDTO schedule = null;
             try {
-                schedule = workScheduleClient.getScheduleById(id);
+                schedule = workScheduleService.getScheduleById(id);
             } catch (Exception e) {
                 log.warn("Could not fetch schedule info before deletion: {}", e.getMessage());
             }
             
-            workScheduleClient.deleteSchedule(id);
+            workScheduleService.deleteSchedule(id);
             log.info("Schedule deleted successfully with ID: {}", id);
             
             String action = schedule != null 
@@ -232,17 +224,18 @@ public class ScheduleController {
         log.debug("Showing edit schedule form for ID: {}", id);
         
         try {
-            WorkScheduleDTO schedule = workScheduleClient.getScheduleById(id);
+            WorkScheduleDTO schedule = workScheduleService.getScheduleById(id);
+            List<WorkCenterSnapshot> workCenters = workCenterService.findActiveSnapshots();
             
             if (schedule.getWorkCenter() != null) {
-                workCenterService.findAllActive().stream()
+                workCenters.stream()
                         .filter(wc -> schedule.getWorkCenter().equals(wc.getNumber()))
                         .findFirst()
                         .ifPresent(wc -> schedule.setWorkCenterId(wc.getId()));
             }
             
             ModelAndView modelAndView = new ModelAndView("schedule-form");
-            modelAndView.addObject("workCenters", workCenterService.findAllActive());
+            modelAndView.addObject("workCenters", workCenters);
             modelAndView.addObject("schedule", schedule);
             modelAndView.addObject("isEdit", true);
             return modelAndView;
@@ -260,22 +253,17 @@ public class ScheduleController {
         log.info("Updating schedule {} via Feign Client", id);
         
         if (scheduleDTO.getWorkCenterId() == null) {
-            ModelAndView modelAndView = new ModelAndView("schedule-form");
-            modelAndView.addObject("workCenters", workCenterService.findAllActive());
-            modelAndView.addObject("schedule", scheduleDTO);
-            modelAndView.addObject("isEdit", true);
-            modelAndView.addObject("error", "Моля, изберете работен център");
-            return modelAndView;
+            return scheduleForm(scheduleDTO, true, "Моля, изберете работен център");
         }
         
-        WorkCenter selectedWorkCenter = workCenterService.findById(scheduleDTO.getWorkCenterId())
+        WorkCenterSnapshot selectedWorkCenter = workCenterService.findSnapshotById(scheduleDTO.getWorkCenterId())
                 .orElseThrow(() -> new WorkCenterNotFoundException("Work center not found: " + scheduleDTO.getWorkCenterId()));
         
         scheduleDTO.setWorkCenter(selectedWorkCenter.getNumber());
         
         try {
             scheduleDTO.setId(id);
-            WorkScheduleDTO updated = workScheduleClient.updateSchedule(id, scheduleDTO);
+            WorkScheduleDTO updated = workScheduleService.updateSchedule(id, scheduleDTO);
             log.info("Schedule updated successfully with ID: {}", updated.getId());
             
             String action = String.format("Променен график (ID: %s) - Производствена поръчка: %s, Смяна: %s, Дата: %s, Работен център: %s",
@@ -283,14 +271,12 @@ public class ScheduleController {
             logAction(userDetails, action);
             
             return new ModelAndView("redirect:/schedules?success=updated");
+        } catch (ScheduleServiceUnavailableException e) {
+            log.error("Schedule service unavailable while updating schedule: {}", e.getMessage());
+            return scheduleForm(scheduleDTO, true, "Сървисът за графици в момента е недостъпен. Моля, опитайте отново след малко.");
         } catch (Exception e) {
             log.error("Error updating schedule: {}", e.getMessage(), e);
-            ModelAndView modelAndView = new ModelAndView("schedule-form");
-            modelAndView.addObject("workCenters", workCenterService.findAllActive());
-            modelAndView.addObject("schedule", scheduleDTO);
-            modelAndView.addObject("isEdit", true);
-            modelAndView.addObject("error", "Грешка: " + (e.getMessage() != null ? e.getMessage() : "Неизвестна грешка"));
-            return modelAndView;
+            return scheduleForm(scheduleDTO, true, "Грешка: " + (e.getMessage() != null ? e.getMessage() : "Неизвестна грешка"));
         }
     }
 }
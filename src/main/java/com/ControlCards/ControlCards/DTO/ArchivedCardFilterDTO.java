@@ -0,0 +1,57 @@
+package com.ControlCards.ControlCards.DTO;
+
+import com.ControlCards.ControlCards.Util.Enums.Shift;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedCardFilterDTO {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    // Период на архивиране (включително двете дати) и смяна
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateTo;
+    private Shift shift;
+
+    // Позиция на последния ред от предходната страница (archivedAt, id)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime afterArchivedAt;
+    private UUID afterId;
+
+    private Integer size;
+
+    public static ArchivedCardFilterDTO firstPage() {
+        return new ArchivedCardFilterDTO(null, null, null, null, null, DEFAULT_SIZE);
+    }
+
+    public boolean isFirstPage() {
+        return afterArchivedAt == null || afterId == null;
+    }
+
+    public int getPageSize() {
+        if (size == null || size < 1) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public LocalDateTime getArchivedFrom() {
+        return dateFrom != null ? dateFrom.atStartOfDay() : null;
+    }
+
+    public LocalDateTime getArchivedBefore() {
+        return dateTo != null ? dateTo.plusDays(1).atStartOfDay() : null;
+    }
+}
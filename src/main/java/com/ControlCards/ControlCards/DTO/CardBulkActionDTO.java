@@ -0,0 +1,21 @@
+package com.ControlCards.ControlCards.DTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+// Избраните карти от таблицата - най-много колкото се побират на една страница
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardBulkActionDTO {
+
+    @NotEmpty(message = "Изберете поне една карта")
+    @Size(max = CardCursorDTO.MAX_SIZE, message = "Могат да се изберат най-много " + CardCursorDTO.MAX_SIZE + " карти наведнъж")
+    private List<UUID> cardIds;
+}
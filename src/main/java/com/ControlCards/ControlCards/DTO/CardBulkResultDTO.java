@@ -0,0 +1,54 @@
+package com.ControlCards.ControlCards.DTO;
+
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+// Резултатът от масово затваряне/архивиране - по един ред за всяка избрана карта
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardBulkResultDTO {
+
+    private Outcome action;
+    private List<Item> items;
+
+    public long getSucceededCount() {
+        return items.stream().filter(item -> item.getOutcome() == action).count();
+    }
+
+    public long getSkippedCount() {
+        return items.size() - getSucceededCount();
+    }
+
+    @Value
+    public static class Item {
+
+        UUID cardId;
+        String shortDescription;
+        Outcome outcome;
+        // Статусът, заради който картата е пропусната (null при успех или липсваща карта)
+        CardStatus status;
+    }
+
+    @Getter
+    public enum Outcome {
+        CLOSED("Затворена"),
+        ARCHIVED("Архивирана"),
+        NOT_FOUND("Не е намерена"),
+        INVALID_STATUS("Пропусната - неподходящ статус"),
+        OTHER_WORKSHOP("Пропусната - карта от друг цех");
+
+        private final String displayName;
+
+        Outcome(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardCursorDTO {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    // Позиция на последния ред от предходната страница (createdAt, id)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime afterCreatedAt;
+    private UUID afterId;
+
+    private Integer size;
+
+    public static CardCursorDTO firstPage() {
+        return new CardCursorDTO(null, null, DEFAULT_SIZE);
+    }
+
+    public boolean isFirstPage() {
+        return afterCreatedAt == null || afterId == null;
+    }
+
+    public int getPageSize() {
+        if (size == null || size < 1) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ControlCards.ControlCards.DTO;
+
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// Съобщението, което /cards/stream изпраща към браузъра - само това, което таблиците показват
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardEventDTO {
+
+    private String type;
+    private UUID cardId;
+    private String status;
+    private String workshopName;
+    private String workCenterName;
+    private String shift;
+    private String shortDescription;
+    private String detailedDescription;
+    private Integer resolutionDurationMinutes;
+    private String createdBy;
+    private String extendedBy;
+
+    public static CardEventDTO from(CardStateChangedEvent event) {
+        CardViewDTO card = event.getCard();
+        return new CardEventDTO(
+                event.getTransition().name(),
+                event.getCardId(),
+                card.getStatus() != null ? card.getStatus().name() : null,
+                card.getWorkshopName(),
+                card.getWorkCenterName(),
+                card.getShift() != null ? card.getShift().getDisplayName() : null,
+                card.getShortDescription(),
+                card.getDetailedDescription(),
+                card.getResolutionDurationMinutes(),
+                card.getCreatedByName(),
+                card.getExtendedByName());
+    }
+}
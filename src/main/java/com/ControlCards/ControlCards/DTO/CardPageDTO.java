@@ -0,0 +1,25 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardPageDTO {
+
+    private List<CardViewDTO> cards;
+    private int size;
+    private boolean hasNext;
+    private LocalDateTime nextCreatedAt;
+    private UUID nextId;
+
+    public static CardPageDTO empty(int size) {
+        return new CardPageDTO(List.of(), size, false, null, null);
+    }
+}
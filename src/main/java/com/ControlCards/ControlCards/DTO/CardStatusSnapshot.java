@@ -0,0 +1,16 @@
+package com.ControlCards.ControlCards.DTO;
+
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import lombok.Value;
+
+import java.util.UUID;
+
+// Текущият статус на карта, прочетен със заключване преди масова смяна на статуса
+@Value
+public class CardStatusSnapshot {
+
+    UUID id;
+    CardStatus status;
+    String shortDescription;
+    UUID workshopId;
+}
@@ -1,5 +1,7 @@
 package com.ControlCards.ControlCards.DTO;
 
+import com.ControlCards.ControlCards.Model.Card;
+import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Util.Enums.CardStatus;
 import com.ControlCards.ControlCards.Util.Enums.Shift;
 import lombok.Data;
@@ -13,6 +15,7 @@ import java.util.UUID;
 public class CardViewDTO {
     
     private UUID id;
+    private UUID workshopId;
     private String workshopName;
     private String workCenterName;
     private Shift shift;
@@ -30,5 +33,83 @@ public class CardViewDTO {
     private LocalDateTime updatedAt;
     private LocalDateTime extendedAt;
     private LocalDateTime closedAt;
+
+    // Използва се от JPQL constructor expression заявките в CardRepository
+    public CardViewDTO(UUID id, UUID workshopId, String workshopName, String workCenterName, Shift shift,
+                       String shortDescription, String detailedDescription, Integer resolutionDurationMinutes,
+                       CardStatus status,
+                       String createdByUsername, String createdByFirstName, String createdByLastName,
+                       String updatedByUsername,
+                       String extendedByUsername, String extendedByFirstName, String extendedByLastName,
+                       String closedByUsername,
+                       LocalDateTime createdAt, LocalDateTime updatedAt,
+                       LocalDateTime extendedAt, LocalDateTime closedAt) {
+        this.id = id;
+        this.workshopId = workshopId;
+        this.workshopName = workshopName;
+        this.workCenterName = workCenterName;
+        this.shift = shift;
+        this.shortDescription = shortDescription;
+        this.detailedDescription = detailedDescription;
+        this.resolutionDurationMinutes = resolutionDurationMinutes;
+        this.status = status;
+        this.createdByUsername = createdByUsername;
+        this.createdByName = displayName(createdByUsername, createdByFirstName, createdByLastName);
+        this.updatedByUsername = updatedByUsername;
+        this.extendedByUsername = extendedByUsername;
+        this.extendedByName = displayName(extendedByUsername, extendedByFirstName, extendedByLastName);
+        this.closedByUsername = closedByUsername;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.extendedAt = extendedAt;
+        this.closedAt = closedAt;
+    }
+
+    // Използва се от заявките в ArchivedCardRepository - архивиралият се показва като "разширил",
+    // а датата на архивиране като дата на затваряне
+    public CardViewDTO(UUID id, String workshopName, String workCenterName, Shift shift,
+                       String shortDescription, String detailedDescription, Integer resolutionDurationMinutes,
+                       String createdByUsername, String createdByFirstName, String createdByLastName,
+                       String updatedByUsername,
+                       String archivedByUsername, String archivedByFirstName, String archivedByLastName,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime archivedAt) {
+        this(id, null, workshopName, workCenterName, shift, shortDescription, detailedDescription,
+                resolutionDurationMinutes, CardStatus.CLOSED,
+                createdByUsername, createdByFirstName, createdByLastName,
+                updatedByUsername,
+                archivedByUsername, archivedByFirstName, archivedByLastName,
+                null,
+                createdAt, updatedAt, updatedAt, archivedAt);
+    }
+
+    // От заредена карта (в рамките на транзакцията) - за събитията към /cards/stream
+    public static CardViewDTO from(Card card) {
+        User createdBy = card.getCreatedBy();
+        User extendedBy = card.getExtendedBy();
+        return new CardViewDTO(card.getId(),
+                card.getWorkshop() != null ? card.getWorkshop().getId() : null,
+                card.getWorkshop() != null ? card.getWorkshop().getName() : null,
+                card.getWorkCenter() != null ? card.getWorkCenter().getNumber() : null,
+                card.getShift(), card.getShortDescription(), card.getDetailedDescription(),
+                card.getResolutionDurationMinutes(), card.getStatus(),
+                createdBy != null ? createdBy.getUsername() : null,
+                createdBy != null ? createdBy.getFirstName() : null,
+                createdBy != null ? createdBy.getLastName() : null,
+                card.getUpdatedBy() != null ? card.getUpdatedBy().getUsername() : null,
+                extendedBy != null ? extendedBy.getUsername() : null,
+                extendedBy != null ? extendedBy.getFirstName() : null,
+                extendedBy != null ? extendedBy.getLastName() : null,
+                card.getClosedBy() != null ? card.getClosedBy().getUsername() : null,
+                card.getCreatedAt(), card.getUpdatedAt(), card.getExtendedAt(), card.getClosedAt());
+    }
+
+    // Име и фамилия, а ако липсват - потребителското име
+    public static String displayName(String username, String firstName, String lastName) {
+        if (username == null) {
+            return null;
+        }
+        String name = (firstName != null ? firstName : "") + (lastName != null ? " " + lastName : "");
+        return name.trim().isEmpty() ? username : name.trim();
+    }
 }
 
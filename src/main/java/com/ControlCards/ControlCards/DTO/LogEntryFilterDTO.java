@@ -0,0 +1,60 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogEntryFilterDTO {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private UUID userId;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateTo;
+    private String text;
+
+    private Integer page;
+    private Integer size;
+
+    public int getPageNumber() {
+        return page == null || page < 0 ? 0 : page;
+    }
+
+    public int getPageSize() {
+        if (size == null || size < 1) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return dateFrom != null ? dateFrom.atStartOfDay() : null;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return dateTo != null ? dateTo.plusDays(1).atStartOfDay() : null;
+    }
+
+    // Шаблон за LIKE - без разлика малки/главни букви, с екранирани % и _
+    public String getTextPattern() {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String escaped = text.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
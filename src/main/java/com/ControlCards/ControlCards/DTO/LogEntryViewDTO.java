@@ -0,0 +1,19 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogEntryViewDTO {
+
+    private UUID id;
+    private String username;
+    private String description;
+    private LocalDateTime createdAt;
+}
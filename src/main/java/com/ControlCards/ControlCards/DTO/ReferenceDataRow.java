@@ -0,0 +1,24 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// Ред от заявката за справочните данни - цех и един негов работен център (или null при цех без центрове)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferenceDataRow {
+
+    private UUID workshopId;
+    private String workshopName;
+    private String workshopDescription;
+    private Boolean workshopActive;
+    private UUID workCenterId;
+    private String workCenterNumber;
+    private String workCenterDescription;
+    private String workCenterMachineType;
+    private Boolean workCenterActive;
+}
@@ -0,0 +1,42 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulePageDTO {
+
+    private List<WorkScheduleDTO> schedules;
+    private int page;
+    private int size;
+    private long totalElements;
+
+    public boolean isHasNext() {
+        return (long) (page + 1) * size < totalElements;
+    }
+
+    // За сървис без филтриране: един проход през целия списък - филтрира, брои и взима страницата
+    public static SchedulePageDTO filter(List<WorkScheduleDTO> all, ScheduleQueryDTO query) {
+        int page = query.getPageNumber();
+        int size = query.getPageSize();
+        long from = (long) page * size;
+        List<WorkScheduleDTO> content = new ArrayList<>(Math.min(size, all.size()));
+        long matched = 0;
+        for (WorkScheduleDTO schedule : all) {
+            if (!query.matches(schedule)) {
+                continue;
+            }
+            if (matched >= from && content.size() < size) {
+                content.add(schedule);
+            }
+            matched++;
+        }
+        return new SchedulePageDTO(List.copyOf(content), page, size, matched);
+    }
+}
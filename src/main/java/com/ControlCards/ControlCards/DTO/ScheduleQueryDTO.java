@@ -0,0 +1,65 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Филтрите за търсене на графици. Изпращат се към WorkScheduleService като параметри на заявката;
+// matches() е същото условие, приложено локално, когато сървисът не поддържа филтрирането.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleQueryDTO {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private LocalDate date;
+    // Период (включително двете дати) - използва се, когато няма конкретна дата
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+    private Integer shift;
+    private String workCenter;
+
+    private Integer page;
+    private Integer size;
+
+    public int getPageNumber() {
+        return page == null || page < 0 ? 0 : page;
+    }
+
+    public int getPageSize() {
+        if (size == null || size < 1) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public boolean isFirstPage() {
+        return getPageNumber() == 0;
+    }
+
+    // Копие с изчислени страница и размер - използва се като ключ в кеша
+    public ScheduleQueryDTO normalized() {
+        return new ScheduleQueryDTO(date, dateFrom, dateTo, shift, workCenter, getPageNumber(), getPageSize());
+    }
+
+    public boolean matches(WorkScheduleDTO schedule) {
+        LocalDate scheduleDate = schedule.getDate();
+        if (date != null && !date.equals(scheduleDate)) {
+            return false;
+        }
+        if (dateFrom != null && (scheduleDate == null || scheduleDate.isBefore(dateFrom))) {
+            return false;
+        }
+        if (dateTo != null && (scheduleDate == null || scheduleDate.isAfter(dateTo))) {
+            return false;
+        }
+        if (shift != null && !shift.equals(schedule.getShift())) {
+            return false;
+        }
+        return workCenter == null || workCenter.equals(schedule.getWorkCenter());
+    }
+}
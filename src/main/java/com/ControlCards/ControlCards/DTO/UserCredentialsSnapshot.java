@@ -0,0 +1,16 @@
+package com.ControlCards.ControlCards.DTO;
+
+import com.ControlCards.ControlCards.Util.Enums.Role;
+import lombok.Value;
+
+// Непроменимите данни за вход на потребител (хеш на паролата, роля, активност) -
+// това се кешира вместо UserDetails, защото Spring Security изтрива паролата от
+// UserDetails обекта след успешен вход
+@Value
+public class UserCredentialsSnapshot {
+
+    String username;
+    String passwordHash;
+    Role role;
+    boolean active;
+}
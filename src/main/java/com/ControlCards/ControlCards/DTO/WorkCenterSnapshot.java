@@ -0,0 +1,18 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+// Непроменим изглед на работен център - цехът е само като ID и име
+@Value
+public class WorkCenterSnapshot {
+
+    UUID id;
+    String number;
+    String description;
+    String machineType;
+    boolean active;
+    UUID workshopId;
+    String workshopName;
+}
@@ -0,0 +1,15 @@
+package com.ControlCards.ControlCards.DTO;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+// Непроменим изглед на цех за падащи менюта и списъци - без JPA асоциации
+@Value
+public class WorkshopSnapshot {
+
+    UUID id;
+    String name;
+    String description;
+    boolean active;
+}
@@ -0,0 +1,24 @@
+package com.ControlCards.ControlCards.Event;
+
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import lombok.Value;
+
+import java.util.UUID;
+
+// Публикува се от CardServiceImpl при всяка промяна на статуса на карта.
+// Слушателите получават го след успешен commit (@TransactionalEventListener).
+@Value
+public class CardStateChangedEvent {
+
+    public enum Transition {
+        CREATED,
+        EXTENDED,
+        CLOSED,
+        ARCHIVED
+    }
+
+    Transition transition;
+    UUID cardId;
+    UUID workshopId;
+    CardViewDTO card;
+}
@@ -0,0 +1,14 @@
+package com.ControlCards.ControlCards.Exception;
+
+// Картата е променена междувременно (от друг потребител или в друг таб) и вече не е в статуса,
+// който операцията очаква. Наследява InvalidCardStatusException, но се връща като 409.
+public class CardStateConflictException extends InvalidCardStatusException {
+
+    public CardStateConflictException(String message) {
+        super(message);
+    }
+
+    public CardStateConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
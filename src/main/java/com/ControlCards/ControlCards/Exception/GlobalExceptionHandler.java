@@ -1,6 +1,7 @@
 package com.ControlCards.ControlCards.Exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
 import org.springframework.validation.FieldError;
@@ -96,6 +97,43 @@ public class GlobalExceptionHandler {
         return "error";
     }
 
+    @ExceptionHandler(ScheduleServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleScheduleServiceUnavailableException(ScheduleServiceUnavailableException ex, Model model) {
+        log.error("Schedule service unavailable: {}", ex.getMessage());
+        model.addAttribute("errorMessage", "Сървисът за графици в момента е недостъпен. Моля, опитайте отново след малко.");
+        model.addAttribute("errorTitle", "Графиците са недостъпни");
+        return "error";
+    }
+
+    @ExceptionHandler(PageLoadTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handlePageLoadTimeoutException(PageLoadTimeoutException ex, Model model) {
+        log.error("Page load timed out: {}", ex.getMessage());
+        model.addAttribute("errorMessage", "Данните за страницата не се заредиха навреме. Моля, опитайте отново след малко.");
+        model.addAttribute("errorTitle", "Страницата не е заредена");
+        return "error";
+    }
+
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handlePasswordHashingOverloadedException(PasswordHashingOverloadedException ex, Model model) {
+        log.warn("Password hashing overloaded: {}", ex.getMessage());
+        model.addAttribute("errorMessage", "Системата е натоварена в момента. Моля, опитайте отново след няколко секунди.");
+        model.addAttribute("errorTitle", "Услугата е временно недостъпна");
+        return "error";
+    }
+
+    // Преди InvalidCardStatusException - по-конкретното изключение има предимство
+    @ExceptionHandler({CardStateConflictException.class, OptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleCardStateConflictException(RuntimeException ex, Model model) {
+        log.warn("Card state conflict: {}", ex.getMessage());
+        model.addAttribute("errorMessage", "Картата междувременно е променена от друг потребител. Обновете страницата и опитайте отново.");
+        model.addAttribute("errorTitle", "Конфликт при промяна на работна карта");
+        return "error";
+    }
+
     @ExceptionHandler(InvalidCardStatusException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public String handleInvalidCardStatusException(InvalidCardStatusException ex, Model model) {
@@ -0,0 +1,12 @@
+package com.ControlCards.ControlCards.Exception;
+
+public class PageLoadTimeoutException extends RuntimeException {
+    
+    public PageLoadTimeoutException(String message) {
+        super(message);
+    }
+    
+    public PageLoadTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ControlCards.ControlCards.Exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// AuthenticationServiceException - при вход стига до failure handler-а, а не до общия обработчик
+public class PasswordHashingOverloadedException extends AuthenticationServiceException {
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
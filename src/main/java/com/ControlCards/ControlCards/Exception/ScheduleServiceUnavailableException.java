@@ -0,0 +1,12 @@
+package com.ControlCards.ControlCards.Exception;
+
+public class ScheduleServiceUnavailableException extends RuntimeException {
+    
+    public ScheduleServiceUnavailableException(String message) {
+        super(message);
+    }
+    
+    public ScheduleServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -9,7 +9,10 @@ import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "archived_cards")
+@Table(name = "archived_cards", indexes = {
+        @Index(name = "idx_archived_cards_workshop_archived", columnList = "workshop_id, archived_at"),
+        @Index(name = "idx_archived_cards_archived", columnList = "archived_at")
+})
 @Getter
 @Setter
 @ToString
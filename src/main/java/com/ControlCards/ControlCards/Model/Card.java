@@ -10,12 +10,23 @@ import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cards")
+@Table(name = "cards", indexes = {
+        @Index(name = "idx_cards_status_workshop_created", columnList = "status, workshop_id, created_at"),
+        @Index(name = "idx_cards_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_cards_workshop_created", columnList = "workshop_id, created_at"),
+        @Index(name = "idx_cards_created", columnList = "created_at"),
+        @Index(name = "idx_cards_status_closed", columnList = "status, closed_at")
+})
 @Getter
 @Setter
 @ToString
 public class Card extends BaseEntity {
 
+    // Увеличава се при всяка промяна, включително от условните UPDATE заявки в CardRepository
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_user_id", nullable = false)
     private User createdBy;
@@ -0,0 +1,68 @@
+package com.ControlCards.ControlCards.Model;
+
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Промяна по карта, записана в същата транзакция като самата карта (transactional outbox).
+// CardOutboxRelay я публикува след commit. Ключът е нарастващо число, а не UUID като при
+// останалите таблици - по него се пази редът на промените за всяка карта.
+@Entity
+@Table(name = "card_outbox", indexes = {
+        @Index(name = "idx_card_outbox_pending", columnList = "published_at, id")
+})
+@Getter
+@Setter
+@ToString(exclude = "payload")
+public class CardOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private UUID cardId;
+
+    @Column(name = "workshop_id")
+    private UUID workshopId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transition", nullable = false, length = 20)
+    private CardStateChangedEvent.Transition transition;
+
+    // CardViewDTO като JSON - състоянието на картата в момента на промяната. Без ограничение на
+    // дължината: подробното описание (до 2000 знака), имената и екранирането в JSON могат да
+    // надхвърлят всеки VARCHAR, а отказан запис тук отменя и самата промяна по картата
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public CardOutboxEvent() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public CardOutboxEvent(CardStateChangedEvent.Transition transition, UUID cardId, UUID workshopId, String payload) {
+        this();
+        this.transition = transition;
+        this.cardId = cardId;
+        this.workshopId = workshopId;
+        this.payload = payload;
+    }
+}
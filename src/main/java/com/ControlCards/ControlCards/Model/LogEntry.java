@@ -8,7 +8,10 @@ import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "log_entries")
+@Table(name = "log_entries", indexes = {
+        @Index(name = "idx_log_entries_created", columnList = "created_at"),
+        @Index(name = "idx_log_entries_user_created", columnList = "user_id, created_at")
+})
 @Getter
 @Setter
 @ToString
@@ -1,18 +1,79 @@
 package com.ControlCards.ControlCards.Repository;
 
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
 import com.ControlCards.ControlCards.Model.ArchivedCard;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import com.ControlCards.ControlCards.Util.Enums.Shift;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ArchivedCardRepository extends JpaRepository<ArchivedCard, UUID> {
-    
+
     @EntityGraph(attributePaths = {"workshop", "workCenter", "createdBy", "updatedBy", "archivedBy"})
     @Override
     List<ArchivedCard> findAll();
-}
 
+    String ARCHIVED_VIEW_SELECT = "SELECT new com.ControlCards.ControlCards.DTO.CardViewDTO(" +
+            "a.id, w.name, wc.number, a.shift, a.shortDescription, a.detailedDescription, " +
+            "a.resolutionDurationMinutes, " +
+            "cb.username, cb.firstName, cb.lastName, " +
+            "ub.username, " +
+            "ab.username, ab.firstName, ab.lastName, " +
+            "a.createdAt, a.updatedAt, a.archivedAt) " +
+            "FROM ArchivedCard a JOIN a.workshop w JOIN a.workCenter wc " +
+            "LEFT JOIN a.createdBy cb LEFT JOIN a.updatedBy ub LEFT JOIN a.archivedBy ab ";
+
+    // Незадължителни филтри - период на архивиране [archivedFrom, archivedBefore) и смяна
+    String FILTERS = "(:shift IS NULL OR a.shift = :shift) " +
+            "AND (:archivedFrom IS NULL OR a.archivedAt >= :archivedFrom) " +
+            "AND (:archivedBefore IS NULL OR a.archivedAt < :archivedBefore) ";
+
+    // Keyset (seek) страниране по (archivedAt, id) - от най-новите към най-старите
+    String AFTER_CURSOR = "(:afterArchivedAt IS NULL OR a.archivedAt < :afterArchivedAt " +
+            "OR (a.archivedAt = :afterArchivedAt AND a.id < :afterId)) ";
+
+    String ORDER_BY_NEWEST = "ORDER BY a.archivedAt DESC, a.id DESC";
+
+    @Query(ARCHIVED_VIEW_SELECT + "WHERE " + FILTERS + "AND " + AFTER_CURSOR + ORDER_BY_NEWEST)
+    List<CardViewDTO> findPage(@Param("shift") Shift shift,
+                               @Param("archivedFrom") LocalDateTime archivedFrom,
+                               @Param("archivedBefore") LocalDateTime archivedBefore,
+                               @Param("afterArchivedAt") LocalDateTime afterArchivedAt,
+                               @Param("afterId") UUID afterId,
+                               Limit limit);
+
+    @Query(ARCHIVED_VIEW_SELECT + "WHERE w.id IN :workshopIds AND " + FILTERS + "AND " + AFTER_CURSOR + ORDER_BY_NEWEST)
+    List<CardViewDTO> findPageByWorkshopIds(@Param("workshopIds") Collection<UUID> workshopIds,
+                                            @Param("shift") Shift shift,
+                                            @Param("archivedFrom") LocalDateTime archivedFrom,
+                                            @Param("archivedBefore") LocalDateTime archivedBefore,
+                                            @Param("afterArchivedAt") LocalDateTime afterArchivedAt,
+                                            @Param("afterId") UUID afterId,
+                                            Limit limit);
+
+    // INSERT ... SELECT от cards - картите се копират в архива с един оператор, без да се зареждат
+    // заедно със свързаните потребители, цех и работен център. Архивната карта запазва id-то на
+    // оригиналната, затова повторно копиране на същата карта гърми на първичния ключ.
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO ArchivedCard (id, createdBy, updatedBy, createdAt, updatedAt, workshop, workCenter, " +
+            "shift, shortDescription, detailedDescription, resolutionDurationMinutes, archivedAt, archivedBy) " +
+            "SELECT c.id, c.createdBy, c.updatedBy, c.createdAt, c.updatedAt, c.workshop, c.workCenter, " +
+            "c.shift, c.shortDescription, c.detailedDescription, c.resolutionDurationMinutes, :archivedAt, :archivedBy " +
+            "FROM Card c WHERE c.id IN :ids AND c.status = :status")
+    int copyFromCards(@Param("ids") Collection<UUID> ids,
+                      @Param("status") CardStatus status,
+                      @Param("archivedBy") User archivedBy,
+                      @Param("archivedAt") LocalDateTime archivedAt);
+}
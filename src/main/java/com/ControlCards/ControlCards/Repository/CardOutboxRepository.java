@@ -0,0 +1,30 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.Model.CardOutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CardOutboxRepository extends JpaRepository<CardOutboxEvent, Long> {
+
+    // Заключва партидата до края на транзакцията - при няколко инстанции само една я публикува
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM CardOutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id ASC")
+    List<CardOutboxEvent> findPending(Limit limit);
+
+    @Query("SELECT COUNT(e) FROM CardOutboxEvent e WHERE e.publishedAt IS NULL")
+    long countPending();
+
+    @Modifying
+    @Query("DELETE FROM CardOutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,28 +1,141 @@
 package com.ControlCards.ControlCards.Repository;
 
+import com.ControlCards.ControlCards.DTO.CardStatusSnapshot;
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
 import com.ControlCards.ControlCards.Model.Card;
-import com.ControlCards.ControlCards.Model.Workshop;
+import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, UUID> {
-    
+
     @EntityGraph(attributePaths = {"workshop", "workCenter", "createdBy", "updatedBy", "extendedBy", "closedBy"})
     @Override
     List<Card> findAll();
-    
-    @EntityGraph(attributePaths = {"workshop", "workCenter", "createdBy", "updatedBy", "extendedBy", "closedBy"})
-    List<Card> findByStatus(CardStatus status);
-    
-    @EntityGraph(attributePaths = {"workshop", "workCenter", "createdBy", "updatedBy", "extendedBy", "closedBy"})
-    List<Card> findByStatusAndWorkshopIn(CardStatus status, List<Workshop> workshops);
-    
-    @EntityGraph(attributePaths = {"workshop", "workCenter", "createdBy", "updatedBy", "extendedBy", "closedBy"})
-    List<Card> findByWorkshopIn(List<Workshop> workshops);
+
+    // Проекция директно към CardViewDTO - без зареждане на пълните User/Workshop обекти
+    String CARD_VIEW_SELECT = "SELECT new com.ControlCards.ControlCards.DTO.CardViewDTO(" +
+            "c.id, w.id, w.name, wc.number, c.shift, c.shortDescription, c.detailedDescription, " +
+            "c.resolutionDurationMinutes, c.status, " +
+            "cb.username, cb.firstName, cb.lastName, " +
+            "ub.username, " +
+            "eb.username, eb.firstName, eb.lastName, " +
+            "clb.username, " +
+            "c.createdAt, c.updatedAt, c.extendedAt, c.closedAt) " +
+            "FROM Card c JOIN c.workshop w JOIN c.workCenter wc " +
+            "LEFT JOIN c.createdBy cb LEFT JOIN c.updatedBy ub " +
+            "LEFT JOIN c.extendedBy eb LEFT JOIN c.closedBy clb ";
+
+    // Keyset (seek) страниране по (createdAt, id) - от най-новите към най-старите
+    String AFTER_CURSOR = "(:afterCreatedAt IS NULL OR c.createdAt < :afterCreatedAt " +
+            "OR (c.createdAt = :afterCreatedAt AND c.id < :afterId)) ";
+
+    String ORDER_BY_NEWEST = "ORDER BY c.createdAt DESC, c.id DESC";
+
+    @Query(CARD_VIEW_SELECT + "WHERE c.status = :status AND " + AFTER_CURSOR + ORDER_BY_NEWEST)
+    List<CardViewDTO> findPageByStatus(@Param("status") CardStatus status,
+                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") UUID afterId,
+                                       Limit limit);
+
+    @Query(CARD_VIEW_SELECT + "WHERE c.status = :status AND w.id IN :workshopIds AND " + AFTER_CURSOR + ORDER_BY_NEWEST)
+    List<CardViewDTO> findPageByStatusAndWorkshopIds(@Param("status") CardStatus status,
+                                                     @Param("workshopIds") Collection<UUID> workshopIds,
+                                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                     @Param("afterId") UUID afterId,
+                                                     Limit limit);
+
+    @Query(CARD_VIEW_SELECT + "WHERE " + AFTER_CURSOR + ORDER_BY_NEWEST)
+    List<CardViewDTO> findPage(@Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                               @Param("afterId") UUID afterId,
+                               Limit limit);
+
+    @Query(CARD_VIEW_SELECT + "WHERE w.id IN :workshopIds AND " + AFTER_CURSOR + ORDER_BY_NEWEST)
+    List<CardViewDTO> findPageByWorkshopIds(@Param("workshopIds") Collection<UUID> workshopIds,
+                                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                            @Param("afterId") UUID afterId,
+                                            Limit limit);
+
+    // Най-старите затворени карти първи - за автоматичното архивиране (CardArchiveScheduler)
+    @Query("SELECT c.id FROM Card c WHERE c.status = :status AND c.closedAt < :closedBefore ORDER BY c.closedAt ASC, c.id ASC")
+    List<UUID> findIdsByStatusAndClosedAtBefore(@Param("status") CardStatus status,
+                                                @Param("closedBefore") LocalDateTime closedBefore,
+                                                Limit limit);
+
+    long countByStatusAndClosedAtBefore(CardStatus status, LocalDateTime closedBefore);
+
+    @Query(CARD_VIEW_SELECT + "WHERE c.id = :id")
+    Optional<CardViewDTO> findViewById(@Param("id") UUID id);
+
+    // SELECT ... FOR UPDATE само върху cards - при масова смяна на статуса картите остават
+    // заключени до края на транзакцията, затова следващият UPDATE променя точно прочетените
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.ControlCards.ControlCards.DTO.CardStatusSnapshot(c.id, c.status, c.shortDescription, c.workshop.id) " +
+            "FROM Card c WHERE c.id IN :ids")
+    List<CardStatusSnapshot> lockStatusesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(CARD_VIEW_SELECT + "WHERE c.id IN :ids AND c.status = :status")
+    List<CardViewDTO> findViewsByIdInAndStatus(@Param("ids") Collection<UUID> ids,
+                                               @Param("status") CardStatus status);
+
+    // Смяната на статуса е един условен UPDATE - проверката и записът са атомарни, затова двама
+    // потребители не могат да разширят/затворят една и съща карта. Връща броя променени редове:
+    // 0 означава, че картата липсва или вече не е в очаквания статус.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Card c SET c.status = :newStatus, c.extendedBy = :user, c.extendedAt = :now, " +
+            "c.updatedBy = :user, c.updatedAt = :now, " +
+            "c.detailedDescription = COALESCE(:detailedDescription, c.detailedDescription), " +
+            "c.resolutionDurationMinutes = COALESCE(:resolutionDurationMinutes, c.resolutionDurationMinutes), " +
+            "c.version = c.version + 1 " +
+            "WHERE c.id = :id AND c.status = :expectedStatus")
+    int extendIfStatus(@Param("id") UUID id,
+                       @Param("expectedStatus") CardStatus expectedStatus,
+                       @Param("newStatus") CardStatus newStatus,
+                       @Param("detailedDescription") String detailedDescription,
+                       @Param("resolutionDurationMinutes") Integer resolutionDurationMinutes,
+                       @Param("user") User user,
+                       @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Card c SET c.status = :newStatus, c.closedBy = :user, c.closedAt = :now, " +
+            "c.version = c.version + 1 " +
+            "WHERE c.id = :id AND c.status IN :expectedStatuses")
+    int closeIfStatusIn(@Param("id") UUID id,
+                        @Param("expectedStatuses") Collection<CardStatus> expectedStatuses,
+                        @Param("newStatus") CardStatus newStatus,
+                        @Param("user") User user,
+                        @Param("now") LocalDateTime now);
+
+    // Като closeIfStatusIn, но за група карти с един UPDATE
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Card c SET c.status = :newStatus, c.closedBy = :user, c.closedAt = :now, " +
+            "c.version = c.version + 1 " +
+            "WHERE c.id IN :ids AND c.status IN :expectedStatuses")
+    int closeAllIfStatusIn(@Param("ids") Collection<UUID> ids,
+                           @Param("expectedStatuses") Collection<CardStatus> expectedStatuses,
+                           @Param("newStatus") CardStatus newStatus,
+                           @Param("user") User user,
+                           @Param("now") LocalDateTime now);
+
+    // Вторият оператор на преместването в архива (първият е ArchivedCardRepository.copyFromCards) -
+    // един DELETE за цялата група, без зареждане на картите
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Card c WHERE c.id IN :ids AND c.status = :status")
+    int deleteByIdInAndStatus(@Param("ids") Collection<UUID> ids,
+                              @Param("status") CardStatus status);
 }
@@ -0,0 +1,14 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Заявката за CSV експорта - отделно от LogEntryRepository, защото fetch size идва от настройките
+public interface LogEntryExportRepository {
+
+    Stream<LogEntryViewDTO> streamAll(UUID userId, LocalDateTime createdFrom, LocalDateTime createdBefore,
+                                      String textPattern);
+}
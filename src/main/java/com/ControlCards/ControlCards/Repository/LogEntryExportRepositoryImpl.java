@@ -0,0 +1,42 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Редовете се четат на порции, без да се зареждат всички в паметта. Fetch size е само за тази
+// заявка (log.export.fetch-size) - за MySQL Integer.MIN_VALUE дава поточен резултат, без да се
+// включва useCursorFetch (сървърни prepared statements) за всички заявки в приложението.
+// Потокът трябва да се изчете и затвори в транзакция - връзката е заета, докато е отворен.
+public class LogEntryExportRepositoryImpl implements LogEntryExportRepository {
+
+    private final EntityManager entityManager;
+    private final int fetchSize;
+
+    @Autowired
+    public LogEntryExportRepositoryImpl(EntityManager entityManager,
+                                        @Value("${log.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<LogEntryViewDTO> streamAll(UUID userId, LocalDateTime createdFrom, LocalDateTime createdBefore,
+                                             String textPattern) {
+        return entityManager.createQuery(LogEntryRepository.LOG_VIEW_SELECT + LogEntryRepository.FILTERS
+                        + "ORDER BY l.createdAt DESC, l.id DESC", LogEntryViewDTO.class)
+                .setParameter("userId", userId)
+                .setParameter("createdFrom", createdFrom)
+                .setParameter("createdBefore", createdBefore)
+                .setParameter("textPattern", textPattern)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
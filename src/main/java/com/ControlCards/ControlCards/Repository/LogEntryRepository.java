@@ -1,6 +1,10 @@
 package com.ControlCards.ControlCards.Repository;
 
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
 import com.ControlCards.ControlCards.Model.LogEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,15 +12,38 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface LogEntryRepository extends JpaRepository<LogEntry, UUID> {
-    
-    @Modifying
-    @Query("DELETE FROM LogEntry l WHERE l.createdAt < :cutoffDate")
-    int deleteByCreatedAtBefore(@Param("cutoffDate") LocalDateTime cutoffDate);
-    
+public interface LogEntryRepository extends JpaRepository<LogEntry, UUID>, LogEntryExportRepository {
+
+    String LOG_VIEW_SELECT = "SELECT new com.ControlCards.ControlCards.DTO.LogEntryViewDTO(" +
+            "l.id, u.username, l.description, l.createdAt) FROM LogEntry l JOIN l.user u ";
+
+    // Незадължителни филтри - потребител, период [createdFrom, createdBefore) и текст в описанието
+    String FILTERS = "WHERE (:userId IS NULL OR u.id = :userId) " +
+            "AND (:createdFrom IS NULL OR l.createdAt >= :createdFrom) " +
+            "AND (:createdBefore IS NULL OR l.createdAt < :createdBefore) " +
+            "AND (:textPattern IS NULL OR LOWER(l.description) LIKE :textPattern ESCAPE '\\') ";
+
     @Query("SELECT COUNT(l) FROM LogEntry l WHERE l.createdAt < :cutoffDate")
     long countByCreatedAtBefore(@Param("cutoffDate") LocalDateTime cutoffDate);
+
+    // Най-старите записи първо - по индекса idx_log_entries_created
+    @Query("SELECT l.id FROM LogEntry l WHERE l.createdAt < :cutoffDate ORDER BY l.createdAt ASC, l.id ASC")
+    List<UUID> findIdsCreatedBefore(@Param("cutoffDate") LocalDateTime cutoffDate, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM LogEntry l WHERE l.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(value = LOG_VIEW_SELECT + FILTERS + "ORDER BY l.createdAt DESC, l.id DESC",
+           countQuery = "SELECT COUNT(l) FROM LogEntry l JOIN l.user u " + FILTERS)
+    Page<LogEntryViewDTO> search(@Param("userId") UUID userId,
+                                 @Param("createdFrom") LocalDateTime createdFrom,
+                                 @Param("createdBefore") LocalDateTime createdBefore,
+                                 @Param("textPattern") String textPattern,
+                                 Pageable pageable);
 }
@@ -14,4 +14,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     @EntityGraph(attributePaths = {"workshops"})
     Optional<User> findWithWorkshopsByUsername(String username);
+
+    @EntityGraph(attributePaths = {"workshops"})
+    Optional<User> findWithWorkshopsById(UUID id);
 }
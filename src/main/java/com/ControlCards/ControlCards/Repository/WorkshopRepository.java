@@ -1,7 +1,9 @@
 package com.ControlCards.ControlCards.Repository;
 
+import com.ControlCards.ControlCards.DTO.ReferenceDataRow;
 import com.ControlCards.ControlCards.Model.Workshop;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +12,11 @@ import java.util.UUID;
 @Repository
 public interface WorkshopRepository extends JpaRepository<Workshop, UUID> {
     List<Workshop> findByActiveTrue();
+
+    // Всички цехове с техните работни центрове в една заявка - за ReferenceDataRegistry
+    @Query("SELECT new com.ControlCards.ControlCards.DTO.ReferenceDataRow(" +
+            "w.id, w.name, w.description, w.active, wc.id, wc.number, wc.description, wc.machineType, wc.active) " +
+            "FROM Workshop w LEFT JOIN w.workCenters wc " +
+            "ORDER BY w.name, wc.number")
+    List<ReferenceDataRow> findReferenceData();
 }
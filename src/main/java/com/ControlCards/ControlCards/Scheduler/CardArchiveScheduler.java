@@ -0,0 +1,166 @@
+package com.ControlCards.ControlCards.Scheduler;
+
+import com.ControlCards.ControlCards.DTO.CardBulkResultDTO;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Service.CardService;
+import com.ControlCards.ControlCards.Service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Премества затворените преди повече от days-after-close дни карти в archived_cards, за да остава
+// таблицата cards малка. Работи на порции (всяка в отделна транзакция през CardService.archiveExpiredCards)
+// с пауза между тях и спира при изчерпване на max-runtime - остатъкът се архивира при следващото
+// изпълнение. Архивирането се приписва на системния потребител system-username.
+@Component
+@Slf4j
+public class CardArchiveScheduler {
+
+    private final CardService cardService;
+    private final UserService userService;
+    private final int daysAfterClose;
+    private final int batchSize;
+    private final long pauseMs;
+    private final Duration maxRuntime;
+    private final String systemUsername;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastRunArchived = new AtomicLong();
+    private final AtomicLong remainingBacklog = new AtomicLong();
+    private final Counter archivedCounter;
+    private final Counter batchCounter;
+    private final Counter yieldedCounter;
+    private final Timer runTimer;
+
+    @Autowired
+    public CardArchiveScheduler(CardService cardService,
+                                UserService userService,
+                                MeterRegistry meterRegistry,
+                                @Value("${cards.archive.auto.days-after-close:30}") int daysAfterClose,
+                                @Value("${cards.archive.auto.batch-size:200}") int batchSize,
+                                @Value("${cards.archive.auto.pause-ms:200}") long pauseMs,
+                                @Value("${cards.archive.auto.max-runtime-minutes:30}") long maxRuntimeMinutes,
+                                @Value("${cards.archive.auto.system-username:system}") String systemUsername) {
+        this.cardService = cardService;
+        this.userService = userService;
+        this.daysAfterClose = daysAfterClose;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMs = Math.max(0, pauseMs);
+        this.maxRuntime = Duration.ofMinutes(maxRuntimeMinutes);
+        this.systemUsername = systemUsername;
+
+        this.archivedCounter = Counter.builder("cards.archive.auto.archived")
+                .description("Автоматично архивирани затворени карти")
+                .register(meterRegistry);
+        this.batchCounter = Counter.builder("cards.archive.auto.batches")
+                .description("Изпълнени порции при автоматичното архивиране")
+                .register(meterRegistry);
+        this.yieldedCounter = Counter.builder("cards.archive.auto.yielded")
+                .description("Изпълнения, прекъснати поради изчерпано време")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("cards.archive.auto.duration")
+                .description("Продължителност на автоматичното архивиране")
+                .register(meterRegistry);
+        Gauge.builder("cards.archive.auto.last.archived", lastRunArchived, AtomicLong::get)
+                .description("Архивирани карти при последното изпълнение")
+                .register(meterRegistry);
+        Gauge.builder("cards.archive.auto.backlog", remainingBacklog, AtomicLong::get)
+                .description("Оставащи за архивиране карти след последното изпълнение")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cards.archive.auto.cron:0 30 1 * * ?}")
+    public void archiveClosedCards() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Card auto-archiving is already running, skipping this trigger");
+            return;
+        }
+        try {
+            runTimer.record(this::archive);
+        } catch (Exception e) {
+            log.error("Error during card auto-archiving", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // От най-старите към по-новите. Пропуснатите карти (напр. архивирани ръчно междувременно) не се
+    // броят, затова цикълът спира по броя на намерените, а не на архивираните.
+    private void archive() {
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysAfterClose);
+        long deadline = System.nanoTime() + maxRuntime.toNanos();
+        log.info("Starting auto-archiving of cards closed before {} (batch size {})", cutoffDate, batchSize);
+
+        User systemUser = null;
+        long totalArchived = 0;
+        boolean yielded = false;
+        lastRunArchived.set(0);
+        while (true) {
+            List<UUID> cardIds = cardService.findClosedCardIdsBefore(cutoffDate, batchSize);
+            if (cardIds.isEmpty()) {
+                break;
+            }
+            if (systemUser == null) {
+                systemUser = userService.findOrCreateSystemUser(systemUsername);
+            }
+            CardBulkResultDTO result = cardService.archiveExpiredCards(cardIds, systemUser);
+            totalArchived += result.getSucceededCount();
+            lastRunArchived.set(totalArchived);
+            batchCounter.increment();
+            archivedCounter.increment(result.getSucceededCount());
+            if (cardIds.size() < batchSize) {
+                break;
+            }
+            if (result.getSucceededCount() == 0) {
+                log.warn("No card of the last batch could be archived, stopping to avoid a loop");
+                break;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                yielded = true;
+                break;
+            }
+            if (!pause()) {
+                yielded = true;
+                break;
+            }
+        }
+
+        if (yielded) {
+            yieldedCounter.increment();
+            long remaining = cardService.countClosedCardsBefore(cutoffDate);
+            remainingBacklog.set(remaining);
+            log.warn("Card auto-archiving stopped at its runtime budget of {}. Archived {}, the remaining {} will be archived on the next run",
+                    maxRuntime, totalArchived, remaining);
+        } else {
+            remainingBacklog.set(0);
+            log.info("Card auto-archiving completed. Archived {} closed cards", totalArchived);
+        }
+    }
+
+    private boolean pause() {
+        if (pauseMs == 0) {
+            return true;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,36 +1,170 @@
 package com.ControlCards.ControlCards.Scheduler;
 
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
+import com.ControlCards.ControlCards.Service.Impl.LogPartitionManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Component
 @Slf4j
 public class LogCleanupScheduler {
 
     private final LogEntryService logEntryService;
+    private final LogPartitionManager logPartitionManager;
+    private final int daysToKeep;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final Duration maxRuntime;
 
-    @Value("${log.cleanup.days-to-keep:90}")
-    private int daysToKeep;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastRunDeleted = new AtomicLong();
+    private final AtomicLong remainingBacklog = new AtomicLong();
+    private final Counter deletedCounter;
+    private final Counter chunkCounter;
+    private final Counter yieldedCounter;
+    private final Counter droppedPartitionCounter;
+    private final Timer runTimer;
 
     @Autowired
-    public LogCleanupScheduler(LogEntryService logEntryService) {
+    public LogCleanupScheduler(LogEntryService logEntryService,
+                               LogPartitionManager logPartitionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${log.cleanup.days-to-keep:90}") int daysToKeep,
+                               @Value("${log.cleanup.chunk-size:5000}") int chunkSize,
+                               @Value("${log.cleanup.pause-ms:200}") long pauseMs,
+                               @Value("${log.cleanup.max-runtime-minutes:180}") long maxRuntimeMinutes) {
         this.logEntryService = logEntryService;
+        this.logPartitionManager = logPartitionManager;
+        this.daysToKeep = daysToKeep;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMs = Math.max(0, pauseMs);
+        this.maxRuntime = Duration.ofMinutes(maxRuntimeMinutes);
+
+        this.deletedCounter = Counter.builder("log.cleanup.deleted")
+                .description("Изтрити стари лог записи")
+                .register(meterRegistry);
+        this.chunkCounter = Counter.builder("log.cleanup.chunks")
+                .description("Изпълнени порции при почистването на логовете")
+                .register(meterRegistry);
+        this.yieldedCounter = Counter.builder("log.cleanup.yielded")
+                .description("Изпълнения, прекъснати поради изчерпано време")
+                .register(meterRegistry);
+        this.droppedPartitionCounter = Counter.builder("log.cleanup.partitions.dropped")
+                .description("Премахнати дялове на таблицата с логове")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("log.cleanup.duration")
+                .description("Продължителност на почистването на логовете")
+                .register(meterRegistry);
+        Gauge.builder("log.cleanup.last.deleted", lastRunDeleted, AtomicLong::get)
+                .description("Изтрити записи при последното изпълнение")
+                .register(meterRegistry);
+        Gauge.builder("log.cleanup.backlog", remainingBacklog, AtomicLong::get)
+                .description("Оставащи за изтриване записи след последното изпълнение")
+                .register(meterRegistry);
     }
 
-    @Scheduled(cron = "0 0 2 * * ?")
+    @Scheduled(cron = "${log.cleanup.cron:0 0 2 * * ?}")
     public void cleanupOldLogs() {
-        log.info("Starting scheduled cleanup of old log entries (keeping logs for {} days)", daysToKeep);
-        
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Log cleanup is already running, skipping this trigger");
+            return;
+        }
         try {
-            int deletedCount = logEntryService.deleteOldLogs(daysToKeep);
-            log.info("Log cleanup completed. Deleted {} old log entries", deletedCount);
+            runTimer.record(() -> {
+                if (logPartitionManager.isPartitioned()) {
+                    rollPartitions();
+                } else {
+                    purge();
+                }
+            });
         } catch (Exception e) {
             log.error("Error during log cleanup", e);
+        } finally {
+            running.set(false);
         }
     }
-}
 
+    // При таблица с дялове остарелите записи се премахват заедно с целия месечен дял.
+    // Записите в дяла, който съдържа границата, остават до изтичането на целия месец.
+    private void rollPartitions() {
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
+        log.info("Starting partition maintenance of log entries (keeping logs for {} days)", daysToKeep);
+
+        int created = logPartitionManager.createFuturePartitions(LocalDate.now());
+        int dropped = logPartitionManager.dropExpiredPartitions(cutoffDate);
+        droppedPartitionCounter.increment(dropped);
+        remainingBacklog.set(0);
+        log.info("Log partition maintenance completed. Created {}, dropped {} partitions", created, dropped);
+    }
+
+    // Изтрива на порции от най-старите към по-новите. Всяка порция е в отделна транзакция,
+    // така че прекъснато изпълнение продължава оттам, докъдето е стигнало, при следващото.
+    private void purge() {
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
+        long deadline = System.nanoTime() + maxRuntime.toNanos();
+        log.info("Starting scheduled cleanup of old log entries (keeping logs for {} days, chunk size {})",
+                daysToKeep, chunkSize);
+
+        long totalDeleted = 0;
+        boolean yielded = false;
+        lastRunDeleted.set(0);
+        while (true) {
+            int deleted = logEntryService.deleteOldLogsChunk(cutoffDate, chunkSize);
+            totalDeleted += deleted;
+            lastRunDeleted.set(totalDeleted);
+            if (deleted > 0) {
+                chunkCounter.increment();
+                deletedCounter.increment(deleted);
+            }
+            if (deleted < chunkSize) {
+                break;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                yielded = true;
+                break;
+            }
+            if (!pause()) {
+                yielded = true;
+                break;
+            }
+        }
+
+        if (yielded) {
+            yieldedCounter.increment();
+            long remaining = logEntryService.countOldLogs(cutoffDate);
+            remainingBacklog.set(remaining);
+            log.warn("Log cleanup stopped at its runtime budget of {}. Deleted {}, the remaining {} will be deleted on the next run",
+                    maxRuntime, totalDeleted, remaining);
+        } else {
+            remainingBacklog.set(0);
+            log.info("Log cleanup completed. Deleted {} old log entries", totalDeleted);
+        }
+    }
+
+    private boolean pause() {
+        if (pauseMs == 0) {
+            return true;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
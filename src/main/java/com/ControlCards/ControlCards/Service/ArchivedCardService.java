@@ -1,11 +1,19 @@
 package com.ControlCards.ControlCards.Service;
 
+import com.ControlCards.ControlCards.DTO.ArchivedCardFilterDTO;
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
 import com.ControlCards.ControlCards.Model.ArchivedCard;
+import com.ControlCards.ControlCards.Model.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public interface ArchivedCardService {
     ArchivedCard save(ArchivedCard archivedCard);
     List<ArchivedCard> findAll();
+    List<CardViewDTO> findPage(ArchivedCardFilterDTO filter, int limit);
+    List<CardViewDTO> findPageByWorkshopIds(Collection<UUID> workshopIds, ArchivedCardFilterDTO filter, int limit);
+    int copyClosedCards(Collection<UUID> cardIds, User archivedBy, LocalDateTime archivedAt);
 }
-
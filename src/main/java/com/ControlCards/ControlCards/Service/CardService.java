@@ -1,28 +1,38 @@
 package com.ControlCards.ControlCards.Service;
 
+import com.ControlCards.ControlCards.DTO.ArchivedCardFilterDTO;
+import com.ControlCards.ControlCards.DTO.ArchivedCardPageDTO;
+import com.ControlCards.ControlCards.DTO.CardBulkResultDTO;
 import com.ControlCards.ControlCards.DTO.CardCreateDTO;
+import com.ControlCards.ControlCards.DTO.CardCursorDTO;
 import com.ControlCards.ControlCards.DTO.CardExtendDTO;
-import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.DTO.CardPageDTO;
 import com.ControlCards.ControlCards.Model.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface CardService {
 
     void createCard(CardCreateDTO cardCreateDTO, User currentUser);
-    List<CardViewDTO> getCreatedCards(User currentUser);
-    List<CardViewDTO> getExtendedCards(User currentUser);
-    List<CardViewDTO> getClosedCards(User currentUser);
-    List<CardViewDTO> getArchivedCards(User currentUser);
-    List<CardViewDTO> getAllCards(User currentUser);
+    CardPageDTO getCreatedCards(User currentUser, CardCursorDTO cursor);
+    CardPageDTO getExtendedCards(User currentUser, CardCursorDTO cursor);
+    CardPageDTO getClosedCards(User currentUser, CardCursorDTO cursor);
+    ArchivedCardPageDTO getArchivedCards(User currentUser, ArchivedCardFilterDTO filter);
+    CardPageDTO getAllCards(User currentUser, CardCursorDTO cursor);
     void extendCard(UUID cardId, CardExtendDTO cardExtendDTO, User currentUser);
     void closeCard(UUID cardId, User currentUser);
     void archiveCard(UUID cardId, User currentUser);
-    
+    CardBulkResultDTO closeCards(Collection<UUID> cardIds, User currentUser);
+    CardBulkResultDTO archiveCards(Collection<UUID> cardIds, User currentUser);
+    CardBulkResultDTO archiveExpiredCards(Collection<UUID> cardIds, User systemUser); // For the scheduler - all workshops
+    List<UUID> findClosedCardIdsBefore(LocalDateTime closedBefore, int limit);
+    long countClosedCardsBefore(LocalDateTime closedBefore);
+
     boolean cardExists(UUID cardId);
     boolean canExtendCard(UUID cardId, User currentUser);
     boolean canCloseCard(UUID cardId);
     boolean canArchiveCard(UUID cardId);
 }
-
@@ -1,13 +1,16 @@
 package com.ControlCards.ControlCards.Service;
 
+import com.ControlCards.ControlCards.DTO.UserCredentialsSnapshot;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Repository.UserRepository;
+import com.ControlCards.ControlCards.Service.Impl.UserCredentialsCache;
 import com.ControlCards.ControlCards.Util.Enums.Role;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -17,41 +20,66 @@ import java.util.List;
 
 @Service
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserCredentialsCache userCredentialsCache;
 
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserCredentialsCache userCredentialsCache) {
         this.userRepository = userRepository;
+        this.userCredentialsCache = userCredentialsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("Loading user by username: {}", username);
+        log.debug("Loading user by username: {}", username);
         
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.warn("User not found: {}", username);
-                    return new UsernameNotFoundException("User not found: " + username);
-                });
+        UserCredentialsSnapshot credentials = userCredentialsCache.get(username, () -> loadCredentials(username));
 
-        if (user.getRole() != Role.ADMIN) {
-            if (user.getActive() == null || !user.getActive()) {
+        if (credentials.getRole() != Role.ADMIN) {
+            if (!credentials.isActive()) {
                 log.warn("User {} is not active, denying access", username);
                 throw new UsernameNotFoundException("User account is deactivated: " + username);
             }
         }
 
-        log.info("User found: {} with role: {}", username, user.getRole());
+        log.debug("User found: {} with role: {}", username, credentials.getRole());
         
+        // Нов обект при всеки вход - кешираният снимок не се споделя със сесията
         return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                getAuthorities(user.getRole())
+                credentials.getUsername(),
+                credentials.getPasswordHash(),
+                getAuthorities(credentials.getRole())
         );
     }
 
+    private UserCredentialsSnapshot loadCredentials(String username) {
+        log.info("Loading credentials of user {} from the database", username);
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    log.warn("User not found: {}", username);
+                    return new UsernameNotFoundException("User not found: " + username);
+                });
+        return new UserCredentialsSnapshot(user.getUsername(), user.getPassword(),
+                user.getRole(), Boolean.TRUE.equals(user.getActive()));
+    }
+
+    // Извиква се от DaoAuthenticationProvider след успешен вход, ако хешът е с различна цена
+    // от настроената - записва новия хеш без одит запис, защото потребителят не е променян
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        log.info("Re-hashing password of user {} with the configured BCrypt strength", userDetails.getUsername());
+        userRepository.findByUsername(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+        });
+        userCredentialsCache.evict(userDetails.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+
     private Collection<? extends GrantedAuthority> getAuthorities(Role role) {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
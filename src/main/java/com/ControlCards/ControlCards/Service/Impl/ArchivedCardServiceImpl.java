@@ -1,12 +1,22 @@
 package com.ControlCards.ControlCards.Service.Impl;
 
+import com.ControlCards.ControlCards.DTO.ArchivedCardFilterDTO;
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
 import com.ControlCards.ControlCards.Model.ArchivedCard;
+import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Repository.ArchivedCardRepository;
 import com.ControlCards.ControlCards.Service.ArchivedCardService;
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 public class ArchivedCardServiceImpl implements ArchivedCardService {
@@ -27,5 +37,34 @@ public class ArchivedCardServiceImpl implements ArchivedCardService {
     public List<ArchivedCard> findAll() {
         return archivedCardRepository.findAll();
     }
+
+    @Override
+    public List<CardViewDTO> findPage(ArchivedCardFilterDTO filter, int limit) {
+        return archivedCardRepository.findPage(filter.getShift(),
+                filter.getArchivedFrom(), filter.getArchivedBefore(),
+                afterArchivedAt(filter), afterId(filter), Limit.of(limit));
+    }
+
+    @Override
+    public List<CardViewDTO> findPageByWorkshopIds(Collection<UUID> workshopIds, ArchivedCardFilterDTO filter, int limit) {
+        return archivedCardRepository.findPageByWorkshopIds(workshopIds, filter.getShift(),
+                filter.getArchivedFrom(), filter.getArchivedBefore(),
+                afterArchivedAt(filter), afterId(filter), Limit.of(limit));
+    }
+
+    // Само в транзакцията на извикващия - копието има смисъл единствено заедно с изтриването от cards
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int copyClosedCards(Collection<UUID> cardIds, User archivedBy, LocalDateTime archivedAt) {
+        return archivedCardRepository.copyFromCards(cardIds, CardStatus.CLOSED, archivedBy, archivedAt);
+    }
+
+    private LocalDateTime afterArchivedAt(ArchivedCardFilterDTO filter) {
+        return filter.isFirstPage() ? null : filter.getAfterArchivedAt();
+    }
+
+    private UUID afterId(ArchivedCardFilterDTO filter) {
+        return filter.isFirstPage() ? null : filter.getAfterId();
+    }
 }
 
@@ -0,0 +1,204 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Model.LogEntry;
+import com.ControlCards.ControlCards.Repository.LogEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Асинхронен запис на лог записите - събира ги в ограничена опашка и ги записва на партиди
+// от отделна нишка, извън нишката на заявката
+@Component
+@Slf4j
+public class AuditLogWriter implements SmartLifecycle {
+
+    public enum OverflowPolicy {
+        // При пълна опашка записът се прави синхронно в нишката на извикващия
+        CALLER_RUNS,
+        // При пълна опашка записът се изпуска (само се брои и логва)
+        DROP
+    }
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final LogEntryRepository logEntryRepository;
+    private final boolean asyncEnabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<LogEntry> queue;
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread flusherThread;
+
+    @Autowired
+    public AuditLogWriter(LogEntryRepository logEntryRepository,
+                          @Value("${audit.log.async.enabled:true}") boolean asyncEnabled,
+                          @Value("${audit.log.queue-capacity:10000}") int queueCapacity,
+                          @Value("${audit.log.batch-size:100}") int batchSize,
+                          @Value("${audit.log.flush-interval-ms:500}") long flushIntervalMs,
+                          @Value("${audit.log.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                          @Value("${audit.log.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy) {
+        this.logEntryRepository = logEntryRepository;
+        this.asyncEnabled = asyncEnabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    public void write(LogEntry logEntry) {
+        if (!asyncEnabled || !running) {
+            saveNow(logEntry);
+            return;
+        }
+        if (queue.offer(logEntry)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            log.warn("Опашката с лог записи е пълна ({}), записът се прави синхронно", queue.size());
+            saveNow(logEntry);
+        } else {
+            droppedCount.incrementAndGet();
+            log.warn("Опашката с лог записи е пълна, изпуснат лог запис: {}", logEntry.getDescription());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!asyncEnabled || running) {
+            return;
+        }
+        running = true;
+        flusherThread = new Thread(this::runFlusher, "audit-log-writer");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+        log.info("Асинхронният запис на лог записи е стартиран (партида: {}, интервал: {} ms, опашка: {})",
+                batchSize, flushIntervalMs, queue.remainingCapacity());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        // Нишката не се прекъсва - иначе текущата партида може да не се запише.
+        // Тя сама забелязва спирането до IDLE_POLL_MS и записва събраното до момента.
+        running = false;
+        try {
+            flusherThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Записите, останали след спирането на нишката, се записват синхронно
+        int remaining = flushAll();
+        log.info("Асинхронният запис на лог записи е спрян, записани при спиране: {}", remaining);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Спира се след уеб сървъра, за да се запишат и последните заявки
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    // Партидата се записва, когато събере batchSize записа или изтече flushIntervalMs от първия
+    private void runFlusher() {
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LogEntry first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (running && batch.size() < batchSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    LogEntry next = queue.poll(Math.min(remaining, IDLE_POLL_MS), TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                        queue.drainTo(batch, batchSize - batch.size());
+                    }
+                }
+                saveBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                saveBatch(batch);
+                break;
+            } catch (Exception e) {
+                log.error("Грешка в нишката за запис на лог записи", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private int flushAll() {
+        int total = 0;
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            total += batch.size();
+            saveBatch(batch);
+            batch.clear();
+        }
+        return total;
+    }
+
+    private void saveBatch(List<LogEntry> batch) {
+        try {
+            // saveAll е в една транзакция - при hibernate.jdbc.batch_size INSERT-ите отиват на партиди
+            logEntryRepository.saveAll(batch);
+            writtenCount.addAndGet(batch.size());
+            log.debug("Записани {} лог записа", batch.size());
+        } catch (Exception e) {
+            failedCount.addAndGet(batch.size());
+            log.error("Неуспешен запис на партида от {} лог записа: {}", batch.size(), e.getMessage());
+            batch.forEach(entry -> log.error("Незаписан лог запис [{}]: {}",
+                    entry.getCreatedAt(), entry.getDescription()));
+        }
+    }
+
+    private void saveNow(LogEntry logEntry) {
+        logEntryRepository.save(logEntry);
+        writtenCount.incrementAndGet();
+    }
+}
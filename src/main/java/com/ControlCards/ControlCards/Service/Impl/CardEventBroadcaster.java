@@ -0,0 +1,205 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.CardEventDTO;
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Model.Workshop;
+import com.ControlCards.ControlCards.Util.Enums.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Изпраща промените по картите (създадена, разширена, затворена, архивирана) към отворените
+// таблици през Server-Sent Events (/cards/stream). Събитията идват от card_outbox през
+// CardOutboxRelay, затова браузърът никога не вижда промяна, която е била отменена.
+// Всеки абонат получава само картите от своите цехове (ADMIN - всички). Слушателят работи
+// синхронно в транзакцията на релето: ако събитието не може да се приеме (пълна опашка,
+// грешка при JSON), изключението стига до релето и записът остава за повторен опит.
+// Самото изпращане е в отделна нишка, за да не се бави релето от бавни абонати.
+@Service
+@Slf4j
+public class CardEventBroadcaster {
+
+    static final String EVENT_NAME = "card";
+    static final String DISPATCH_THREAD = "card-events";
+
+    private final Map<SseEmitter, Subscription> subscribers = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final Executor dispatcher;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public CardEventBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${cards.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${cards.stream.queue-capacity:1000}") int queueCapacity) {
+        this(objectMapper, meterRegistry, timeoutMs, new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, DISPATCH_THREAD);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    CardEventBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry, long timeoutMs, Executor dispatcher) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.dispatcher = dispatcher;
+        Gauge.builder("cards.stream.subscribers", subscribers, Map::size)
+                .description("Отворени таблици с карти, абонирани за промени")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("cards.stream.rejected")
+                .description("Промени по карти, върнати на релето поради пълна опашка")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(User user) {
+        SseEmitter emitter = createEmitter();
+        Subscription subscription = Subscription.of(user);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> {
+            subscribers.remove(emitter);
+            emitter.complete();
+        });
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.put(emitter, subscription);
+        log.debug("User {} subscribed to card changes ({} subscribers)", user.getUsername(), subscribers.size());
+        return emitter;
+    }
+
+    // Без абонати няма на кого да се изпрати - събитието се счита за доставено
+    @EventListener
+    public void onCardStateChanged(CardStateChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        // JSON се прави веднъж за събитие, а не за всеки абонат
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(CardEventDTO.from(event));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            dispatcher.execute(() -> broadcast(event, json));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Card event queue is full, {} of card {} goes back to the outbox",
+                    event.getTransition(), event.getCardId());
+            throw e;
+        }
+    }
+
+    // Коментар на всеки heartbeat-ms - проксито не затваря връзката, а прекъснатите абонати се откриват
+    @Scheduled(fixedDelayString = "${cards.stream.heartbeat-ms:25000}", initialDelayString = "${cards.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                for (SseEmitter emitter : subscribers.keySet()) {
+                    send(emitter, SseEmitter.event().comment("ping"));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Card event queue is full, skipping heartbeat");
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (SseEmitter emitter : subscribers.keySet()) {
+            emitter.complete();
+        }
+        subscribers.clear();
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void broadcast(CardStateChangedEvent event, String json) {
+        int sent = 0;
+        for (Map.Entry<SseEmitter, Subscription> entry : subscribers.entrySet()) {
+            if (entry.getValue().sees(event.getWorkshopId())
+                    && send(entry.getKey(), SseEmitter.event().name(EVENT_NAME).data(json))) {
+                sent++;
+            }
+        }
+        log.debug("Pushed {} of card {} to {} subscribers", event.getTransition(), event.getCardId(), sent);
+    }
+
+    // Затворен таб или прекъсната връзка - абонатът се премахва
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder builder) {
+        try {
+            emitter.send(builder);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+            log.debug("Dropped card stream subscriber: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static final class Subscription {
+
+        private final boolean allWorkshops;
+        private final Set<UUID> workshopIds;
+
+        private Subscription(boolean allWorkshops, Set<UUID> workshopIds) {
+            this.allWorkshops = allWorkshops;
+            this.workshopIds = workshopIds;
+        }
+
+        private static Subscription of(User user) {
+            if (user.getRole() == Role.ADMIN) {
+                return new Subscription(true, Set.of());
+            }
+            List<Workshop> workshops = user.getWorkshops();
+            Set<UUID> ids = workshops == null ? Set.of() : workshops.stream()
+                    .map(Workshop::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+            return new Subscription(false, ids);
+        }
+
+        private boolean sees(UUID workshopId) {
+            return allWorkshops || (workshopId != null && workshopIds.contains(workshopId));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import com.ControlCards.ControlCards.Model.CardOutboxEvent;
+import com.ControlCards.ControlCards.Repository.CardOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Публикува записите от card_outbox като CardStateChangedEvent към слушателите в приложението
+// (напр. CardEventBroadcaster). Работи в отделна нишка - след всеки commit с промяна по карта
+// или най-късно на poll-ms. Слушателите трябва да са синхронни (@EventListener): записът се
+// счита за публикуван само ако никой от тях не е хвърлил изключение. @TransactionalEventListener
+// тук не става - той се изпълнява след commit, когато записът вече е маркиран.
+// - поне веднъж: записът се маркира като публикуван в същата транзакция, в която е изпратен,
+//   затова при срив между двете събитието се изпраща отново - слушателите трябва да го понасят;
+// - редът за всяка карта се пази: партидата е по id, а след грешка останалите промени на
+//   същата карта изчакват следващия опит.
+// След max-attempts неуспешни опита записът се маркира като публикуван с грешката в last_error.
+@Component
+@Slf4j
+public class CardOutboxRelay implements SmartLifecycle {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final CardOutboxRepository cardOutboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollMs;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter abandonedCounter;
+
+    private volatile boolean running;
+    private Thread relayThread;
+
+    @Autowired
+    public CardOutboxRelay(CardOutboxRepository cardOutboxRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${cards.outbox.relay.enabled:true}") boolean enabled,
+                           @Value("${cards.outbox.batch-size:100}") int batchSize,
+                           @Value("${cards.outbox.poll-ms:1000}") long pollMs,
+                           @Value("${cards.outbox.max-attempts:10}") int maxAttempts,
+                           @Value("${cards.outbox.retention-hours:24}") long retentionHours) {
+        this.cardOutboxRepository = cardOutboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.pollMs = Math.max(1, pollMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retention = Duration.ofHours(retentionHours);
+
+        this.publishedCounter = Counter.builder("cards.outbox.published")
+                .description("Публикувани промени по карти")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("cards.outbox.failed")
+                .description("Неуспешни опити за публикуване (ще бъдат повторени)")
+                .register(meterRegistry);
+        this.abandonedCounter = Counter.builder("cards.outbox.abandoned")
+                .description("Промени, изоставени след max-attempts неуспешни опита")
+                .register(meterRegistry);
+    }
+
+    public void wakeUp() {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    // Публикува всичко чакащо; връща броя публикувани записи
+    public int relayPending() {
+        // Картите с неуспешен запис се пропускат до следващото изпълнение - и в следващите партиди
+        Set<UUID> blockedCards = new HashSet<>();
+        int total = 0;
+        while (true) {
+            BatchResult result = transactionTemplate.execute(status -> relayBatch(blockedCards));
+            if (result == null) {
+                return total;
+            }
+            total += result.published;
+            if (result.fetched < batchSize || result.published == 0) {
+                return total;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${cards.outbox.cleanup.cron:0 30 2 * * ?}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> cardOutboxRepository.deletePublishedBefore(cutoff));
+        log.info("Purged {} published card outbox entries older than {}", deleted, cutoff);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        relayThread = new Thread(this::runRelay, "card-outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+        log.info("Card outbox relay started (batch: {}, poll: {} ms)", batchSize, pollMs);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUp();
+        try {
+            relayThread.join(pollMs * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Card outbox relay stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runRelay() {
+        while (running) {
+            try {
+                relayPending();
+            } catch (Exception e) {
+                log.error("Card outbox relay failed, retrying in {} ms", pollMs, e);
+            }
+            try {
+                wakeUp.tryAcquire(pollMs, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private BatchResult relayBatch(Set<UUID> blockedCards) {
+        List<CardOutboxEvent> pending = cardOutboxRepository.findPending(Limit.of(batchSize));
+        int published = 0;
+        for (CardOutboxEvent entry : pending) {
+            if (blockedCards.contains(entry.getCardId())) {
+                continue;
+            }
+            try {
+                CardViewDTO card = objectMapper.readValue(entry.getPayload(), CardViewDTO.class);
+                eventPublisher.publishEvent(new CardStateChangedEvent(entry.getTransition(), entry.getCardId(),
+                        entry.getWorkshopId(), card));
+                entry.setPublishedAt(LocalDateTime.now());
+                publishedCounter.increment();
+                published++;
+            } catch (Exception e) {
+                onFailure(entry, e, blockedCards);
+            }
+        }
+        return new BatchResult(pending.size(), published);
+    }
+
+    private void onFailure(CardOutboxEvent entry, Exception e, Set<UUID> blockedCards) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        entry.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (entry.getAttempts() >= maxAttempts) {
+            entry.setPublishedAt(LocalDateTime.now());
+            abandonedCounter.increment();
+            log.error("Abandoning card outbox entry {} ({} of card {}) after {} attempts",
+                    entry.getId(), entry.getTransition(), entry.getCardId(), entry.getAttempts(), e);
+            return;
+        }
+        failedCounter.increment();
+        blockedCards.add(entry.getCardId());
+        log.warn("Could not publish card outbox entry {} ({} of card {}), attempt {}: {}",
+                entry.getId(), entry.getTransition(), entry.getCardId(), entry.getAttempts(), message);
+    }
+
+    private static final class BatchResult {
+
+        private final int fetched;
+        private final int published;
+
+        private BatchResult(int fetched, int published) {
+            this.fetched = fetched;
+            this.published = published;
+        }
+    }
+}
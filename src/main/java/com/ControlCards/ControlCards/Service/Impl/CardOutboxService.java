@@ -0,0 +1,56 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import com.ControlCards.ControlCards.Model.CardOutboxEvent;
+import com.ControlCards.ControlCards.Repository.CardOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+// Записва промените по картите в card_outbox в транзакцията на самата промяна - или се
+// записват и двете, или нито едно. Публикуването е работа на CardOutboxRelay.
+@Service
+@Slf4j
+public class CardOutboxService {
+
+    private final CardOutboxRepository cardOutboxRepository;
+    private final CardOutboxRelay cardOutboxRelay;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CardOutboxService(CardOutboxRepository cardOutboxRepository, CardOutboxRelay cardOutboxRelay,
+                             ObjectMapper objectMapper) {
+        this.cardOutboxRepository = cardOutboxRepository;
+        this.cardOutboxRelay = cardOutboxRelay;
+        this.objectMapper = objectMapper;
+    }
+
+    // MANDATORY - извикване без транзакция би нарушило гаранцията, затова е грешка
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(CardStateChangedEvent.Transition transition, CardViewDTO card) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(card);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize card " + card.getId(), e);
+        }
+        cardOutboxRepository.save(new CardOutboxEvent(transition, card.getId(), card.getWorkshopId(), payload));
+        log.debug("Recorded {} of card {} in outbox", transition, card.getId());
+
+        // Релето се събужда веднага след commit, вместо да чака следващата проверка
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cardOutboxRelay.wakeUp();
+            }
+        });
+    }
+}
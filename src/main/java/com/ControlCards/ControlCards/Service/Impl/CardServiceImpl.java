@@ -1,13 +1,20 @@
 package com.ControlCards.ControlCards.Service.Impl;
 
+import com.ControlCards.ControlCards.DTO.ArchivedCardFilterDTO;
+import com.ControlCards.ControlCards.DTO.ArchivedCardPageDTO;
+import com.ControlCards.ControlCards.DTO.CardBulkResultDTO;
 import com.ControlCards.ControlCards.DTO.CardCreateDTO;
+import com.ControlCards.ControlCards.DTO.CardCursorDTO;
 import com.ControlCards.ControlCards.DTO.CardExtendDTO;
+import com.ControlCards.ControlCards.DTO.CardPageDTO;
+import com.ControlCards.ControlCards.DTO.CardStatusSnapshot;
 import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
 import com.ControlCards.ControlCards.Exception.CardNotFoundException;
+import com.ControlCards.ControlCards.Exception.CardStateConflictException;
 import com.ControlCards.ControlCards.Exception.InvalidCardStatusException;
 import com.ControlCards.ControlCards.Exception.WorkshopNotFoundException;
 import com.ControlCards.ControlCards.Exception.WorkCenterNotFoundException;
-import com.ControlCards.ControlCards.Model.ArchivedCard;
 import com.ControlCards.ControlCards.Model.Card;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Model.WorkCenter;
@@ -21,35 +28,50 @@ import com.ControlCards.ControlCards.Util.Enums.CardStatus;
 import com.ControlCards.ControlCards.Util.Enums.Role;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class CardServiceImpl implements CardService {
 
+    static final int BULK_CHUNK_SIZE = 50;
+    // Дължината на колоната log_entries.description
+    static final int MAX_LOG_LENGTH = 1000;
+
     private final CardRepository cardRepository;
     private final ArchivedCardService archivedCardService;
     private final LogEntryService logEntryService;
     private final WorkshopService workshopService;
     private final WorkCenterService workCenterService;
+    private final CardOutboxService cardOutboxService;
 
     @Autowired
     public CardServiceImpl(CardRepository cardRepository, ArchivedCardService archivedCardService, 
                           LogEntryService logEntryService, WorkshopService workshopService,
-                          WorkCenterService workCenterService) {
+                          WorkCenterService workCenterService, CardOutboxService cardOutboxService) {
         this.cardRepository = cardRepository;
         this.archivedCardService = archivedCardService;
         this.logEntryService = logEntryService;
         this.workshopService = workshopService;
         this.workCenterService = workCenterService;
+        this.cardOutboxService = cardOutboxService;
     }
 
     @Override
+    @Transactional
     public void createCard(CardCreateDTO cardCreateDTO, User currentUser) {
         log.info("Creating new card for user: {}", currentUser.getUsername());
         
@@ -72,185 +94,362 @@ public class CardServiceImpl implements CardService {
         
         log.info("Card created successfully with ID: {}", card.getId());
         logEntryService.createLog(currentUser, "Създадена нова карта: " + card.getShortDescription());
+        cardOutboxService.record(CardStateChangedEvent.Transition.CREATED, CardViewDTO.from(card));
     }
 
     @Override
-    public List<CardViewDTO> getCreatedCards(User currentUser) {
+    public CardPageDTO getCreatedCards(User currentUser, CardCursorDTO cursor) {
         log.debug("Retrieving created cards for user: {}", currentUser.getUsername());
-        List<Card> cards;
-        
-        if (currentUser.getRole() == Role.ADMIN) {
-            cards = cardRepository.findByStatus(CardStatus.CREATED);
-        } else {
-            List<Workshop> userWorkshops = currentUser.getWorkshops();
-            if (userWorkshops == null || userWorkshops.isEmpty()) {
-                log.debug("User {} has no workshops, returning empty list", currentUser.getUsername());
-                return List.of();
-            }
-            cards = cardRepository.findByStatusAndWorkshopIn(CardStatus.CREATED, userWorkshops);
-        }
-        
-        return cards.stream()
-                .map(this::convertToViewDTO)
-                .collect(Collectors.toList());
+        return getCardsPageByStatus(CardStatus.CREATED, currentUser, cursor);
     }
 
     @Override
-    public List<CardViewDTO> getExtendedCards(User currentUser) {
+    public CardPageDTO getExtendedCards(User currentUser, CardCursorDTO cursor) {
         log.debug("Retrieving extended cards for user: {}", currentUser.getUsername());
-        List<Card> cards;
-        
-        if (currentUser.getRole() == Role.ADMIN) {
-            cards = cardRepository.findByStatus(CardStatus.EXTENDED);
-        } else {
-            List<Workshop> userWorkshops = currentUser.getWorkshops();
-            if (userWorkshops == null || userWorkshops.isEmpty()) {
-                log.debug("User {} has no workshops, returning empty list", currentUser.getUsername());
-                return List.of();
-            }
-            cards = cardRepository.findByStatusAndWorkshopIn(CardStatus.EXTENDED, userWorkshops);
-        }
-        
-        return cards.stream()
-                .map(this::convertToViewDTO)
-                .collect(Collectors.toList());
+        return getCardsPageByStatus(CardStatus.EXTENDED, currentUser, cursor);
     }
 
     @Override
-    public List<CardViewDTO> getClosedCards(User currentUser) {
+    public CardPageDTO getClosedCards(User currentUser, CardCursorDTO cursor) {
         log.debug("Retrieving closed cards for user: {}", currentUser.getUsername());
-        List<Card> cards;
+        return getCardsPageByStatus(CardStatus.CLOSED, currentUser, cursor);
+    }
+
+    @Override
+    public CardPageDTO getAllCards(User currentUser, CardCursorDTO cursor) {
+        log.debug("Retrieving all cards for user: {}", currentUser.getUsername());
+        CardCursorDTO page = cursor != null ? cursor : CardCursorDTO.firstPage();
+        int size = page.getPageSize();
+        LocalDateTime afterCreatedAt = page.isFirstPage() ? null : page.getAfterCreatedAt();
+        UUID afterId = page.isFirstPage() ? null : page.getAfterId();
+        List<CardViewDTO> cards;
         
         if (currentUser.getRole() == Role.ADMIN) {
-            cards = cardRepository.findByStatus(CardStatus.CLOSED);
+            cards = cardRepository.findPage(afterCreatedAt, afterId, Limit.of(size + 1));
         } else {
-            List<Workshop> userWorkshops = currentUser.getWorkshops();
-            if (userWorkshops == null || userWorkshops.isEmpty()) {
-                log.debug("User {} has no workshops, returning empty list", currentUser.getUsername());
-                return List.of();
+            List<UUID> workshopIds = getWorkshopIds(currentUser);
+            if (workshopIds.isEmpty()) {
+                log.debug("User {} has no workshops, returning empty page", currentUser.getUsername());
+                return CardPageDTO.empty(size);
             }
-            cards = cardRepository.findByStatusAndWorkshopIn(CardStatus.CLOSED, userWorkshops);
+            cards = cardRepository.findPageByWorkshopIds(workshopIds, afterCreatedAt, afterId, Limit.of(size + 1));
         }
         
-        return cards.stream()
-                .map(this::convertToViewDTO)
-                .collect(Collectors.toList());
+        return toCardPage(cards, size);
     }
 
-    @Override
-    public List<CardViewDTO> getAllCards(User currentUser) {
-        log.debug("Retrieving all cards for user: {}", currentUser.getUsername());
-        List<Card> cards;
+    private CardPageDTO getCardsPageByStatus(CardStatus status, User currentUser, CardCursorDTO cursor) {
+        CardCursorDTO page = cursor != null ? cursor : CardCursorDTO.firstPage();
+        int size = page.getPageSize();
+        LocalDateTime afterCreatedAt = page.isFirstPage() ? null : page.getAfterCreatedAt();
+        UUID afterId = page.isFirstPage() ? null : page.getAfterId();
+        List<CardViewDTO> cards;
         
         if (currentUser.getRole() == Role.ADMIN) {
-            cards = cardRepository.findAll();
+            cards = cardRepository.findPageByStatus(status, afterCreatedAt, afterId, Limit.of(size + 1));
         } else {
-            List<Workshop> userWorkshops = currentUser.getWorkshops();
-            if (userWorkshops == null || userWorkshops.isEmpty()) {
-                log.debug("User {} has no workshops, returning empty list", currentUser.getUsername());
-                return List.of();
+            List<UUID> workshopIds = getWorkshopIds(currentUser);
+            if (workshopIds.isEmpty()) {
+                log.debug("User {} has no workshops, returning empty page", currentUser.getUsername());
+                return CardPageDTO.empty(size);
             }
-            cards = cardRepository.findByWorkshopIn(userWorkshops);
+            cards = cardRepository.findPageByStatusAndWorkshopIds(status, workshopIds, afterCreatedAt, afterId, Limit.of(size + 1));
         }
         
-        return cards.stream()
-                .map(this::convertToViewDTO)
-                .collect(Collectors.toList());
+        return toCardPage(cards, size);
+    }
+
+    private List<UUID> getWorkshopIds(User currentUser) {
+        List<Workshop> userWorkshops = currentUser.getWorkshops();
+        if (userWorkshops == null || userWorkshops.isEmpty()) {
+            return List.of();
+        }
+        return userWorkshops.stream()
+                .map(Workshop::getId)
+                .toList();
+    }
+
+    // Заявките връщат size + 1 реда - допълнителният показва, че има следваща страница
+    private CardPageDTO toCardPage(List<CardViewDTO> cards, int size) {
+        boolean hasNext = cards.size() > size;
+        List<CardViewDTO> pageCards = hasNext ? cards.subList(0, size) : cards;
+        
+        if (!hasNext) {
+            return new CardPageDTO(pageCards, size, false, null, null);
+        }
+        CardViewDTO last = pageCards.get(pageCards.size() - 1);
+        return new CardPageDTO(pageCards, size, true, last.getCreatedAt(), last.getId());
     }
 
     @Override
+    @Transactional
     public void extendCard(UUID cardId, CardExtendDTO cardExtendDTO, User currentUser) {
         log.info("Extending card ID: {} by user: {}", cardId, currentUser.getUsername());
         
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new CardNotFoundException("Card not found: " + cardId));
-        
-        if (card.getStatus() != CardStatus.CREATED) {
-            throw new InvalidCardStatusException("Card is not in CREATED status");
+        String detailedDescription = cardExtendDTO.getDetailedDescription() != null
+                && !cardExtendDTO.getDetailedDescription().trim().isEmpty()
+                ? cardExtendDTO.getDetailedDescription() : null;
+        int updated = cardRepository.extendIfStatus(cardId, CardStatus.CREATED, CardStatus.EXTENDED,
+                detailedDescription, cardExtendDTO.getResolutionDurationMinutes(), currentUser, LocalDateTime.now());
+        if (updated == 0) {
+            throw transitionFailed(cardId, "Card is not in CREATED status");
         }
-        
-        if (cardExtendDTO.getDetailedDescription() != null && !cardExtendDTO.getDetailedDescription().trim().isEmpty()) {
-            card.setDetailedDescription(cardExtendDTO.getDetailedDescription());
-        }
-        if (cardExtendDTO.getResolutionDurationMinutes() != null) {
-            card.setResolutionDurationMinutes(cardExtendDTO.getResolutionDurationMinutes());
-        }
-        
-        card.extend(currentUser);
-        card.setUpdatedBy(currentUser);
-        card.setUpdatedAt(LocalDateTime.now());
-        cardRepository.save(card);
+        CardViewDTO card = findView(cardId);
         
         log.info("Card extended successfully");
         logEntryService.createLog(currentUser, "Разширена карта ID: " + cardId + " - " + card.getShortDescription());
+        cardOutboxService.record(CardStateChangedEvent.Transition.EXTENDED, card);
     }
 
     @Override
+    @Transactional
     public void closeCard(UUID cardId, User currentUser) {
         log.info("Closing card ID: {} by user: {}", cardId, currentUser.getUsername());
         
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new CardNotFoundException("Card not found: " + cardId));
-        
-        if (currentUser.getRole() != Role.ADMIN) {
-            if (card.getStatus() != CardStatus.EXTENDED) {
-                throw new InvalidCardStatusException("Card is not in EXTENDED status");
-            }
-        } else {
-            if (card.getStatus() != CardStatus.EXTENDED && card.getStatus() != CardStatus.CREATED) {
-                throw new InvalidCardStatusException("Card is not in CREATED or EXTENDED status");
-            }
+        boolean admin = currentUser.getRole() == Role.ADMIN;
+        List<CardStatus> allowed = closableStatuses(currentUser);
+        int updated = cardRepository.closeIfStatusIn(cardId, allowed, CardStatus.CLOSED, currentUser, LocalDateTime.now());
+        if (updated == 0) {
+            throw transitionFailed(cardId, admin ? "Card is not in CREATED or EXTENDED status" : "Card is not in EXTENDED status");
         }
-        
-        card.close(currentUser);
-        cardRepository.save(card);
+        CardViewDTO card = findView(cardId);
         
         log.info("Card closed successfully");
         logEntryService.createLog(currentUser, "Затворена карта ID: " + cardId + " - " + card.getShortDescription());
+        cardOutboxService.record(CardStateChangedEvent.Transition.CLOSED, card);
     }
 
+    // Масово затваряне със същите правила за статуса като closeCard. Картите извън цеховете
+    // на потребителя (освен за ADMIN) се пропускат, както и в списъците, от които са избрани
     @Override
-    public List<CardViewDTO> getArchivedCards(User currentUser) {
+    @Transactional
+    public CardBulkResultDTO closeCards(Collection<UUID> cardIds, User currentUser) {
+        log.info("Bulk closing {} cards by user: {}", cardIds.size(), currentUser.getUsername());
+        
+        List<CardStatus> allowed = closableStatuses(currentUser);
+        Set<UUID> workshopIds = bulkWorkshopScope(currentUser);
+        LocalDateTime now = LocalDateTime.now();
+        List<CardBulkResultDTO.Item> items = new ArrayList<>();
+        for (List<UUID> chunk : chunks(cardIds)) {
+            Map<UUID, CardStatusSnapshot> locked = lockStatuses(chunk);
+            List<UUID> closable = eligible(chunk, locked, allowed, workshopIds);
+            if (!closable.isEmpty()) {
+                int updated = cardRepository.closeAllIfStatusIn(closable, allowed, CardStatus.CLOSED, currentUser, now);
+                if (updated != closable.size()) {
+                    log.warn("Cards changed while being closed: expected {}, updated {}", closable.size(), updated);
+                    throw new CardStateConflictException("Cards changed while being closed");
+                }
+                for (CardViewDTO card : cardRepository.findViewsByIdInAndStatus(closable, CardStatus.CLOSED)) {
+                    cardOutboxService.record(CardStateChangedEvent.Transition.CLOSED, card);
+                }
+            }
+            report(items, chunk, locked, allowed, workshopIds, CardBulkResultDTO.Outcome.CLOSED);
+        }
+        return finishBulk(currentUser, CardBulkResultDTO.Outcome.CLOSED, items, "Масово затворени карти");
+    }
+
+    private List<CardStatus> closableStatuses(User currentUser) {
+        return currentUser.getRole() == Role.ADMIN
+                ? List.of(CardStatus.CREATED, CardStatus.EXTENDED)
+                : List.of(CardStatus.EXTENDED);
+    }
+
+    // Масовите операции вървят на порции от BULK_CHUNK_SIZE карти - за всяка порция едно заключване,
+    // един UPDATE (или INSERT ... SELECT + DELETE) и едно четене за outbox, независимо колко са картите
+    private List<List<UUID>> chunks(Collection<UUID> cardIds) {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(cardIds));
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    private Map<UUID, CardStatusSnapshot> lockStatuses(List<UUID> chunk) {
+        return cardRepository.lockStatusesByIdIn(chunk).stream()
+                .collect(Collectors.toMap(CardStatusSnapshot::getId, Function.identity()));
+    }
+
+    // null - без ограничение по цех (ADMIN и автоматичното архивиране)
+    private Set<UUID> bulkWorkshopScope(User currentUser) {
+        return currentUser.getRole() == Role.ADMIN ? null : Set.copyOf(getWorkshopIds(currentUser));
+    }
+
+    private boolean inScope(CardStatusSnapshot card, Set<UUID> workshopIds) {
+        return workshopIds == null || (card.getWorkshopId() != null && workshopIds.contains(card.getWorkshopId()));
+    }
+
+    private List<UUID> eligible(List<UUID> chunk, Map<UUID, CardStatusSnapshot> locked, List<CardStatus> allowed,
+                                Set<UUID> workshopIds) {
+        return chunk.stream()
+                .filter(id -> locked.containsKey(id) && inScope(locked.get(id), workshopIds)
+                        && allowed.contains(locked.get(id).getStatus()))
+                .toList();
+    }
+
+    // Карта от чужд цех се отчита без описание и статус - потребителят не бива да ги вижда
+    private void report(List<CardBulkResultDTO.Item> items, List<UUID> chunk, Map<UUID, CardStatusSnapshot> locked,
+                        List<CardStatus> allowed, Set<UUID> workshopIds, CardBulkResultDTO.Outcome success) {
+        for (UUID id : chunk) {
+            CardStatusSnapshot card = locked.get(id);
+            if (card == null) {
+                items.add(new CardBulkResultDTO.Item(id, null, CardBulkResultDTO.Outcome.NOT_FOUND, null));
+            } else if (!inScope(card, workshopIds)) {
+                items.add(new CardBulkResultDTO.Item(id, null, CardBulkResultDTO.Outcome.OTHER_WORKSHOP, null));
+            } else if (allowed.contains(card.getStatus())) {
+                items.add(new CardBulkResultDTO.Item(id, card.getShortDescription(), success, null));
+            } else {
+                items.add(new CardBulkResultDTO.Item(id, card.getShortDescription(),
+                        CardBulkResultDTO.Outcome.INVALID_STATUS, card.getStatus()));
+            }
+        }
+    }
+
+    // Един лог запис за цялата група вместо по един за карта, с id-тата на обработените карти.
+    // Ако не се събират в едно описание (MAX_LOG_LENGTH), остатъкът продължава в следващи записи.
+    private CardBulkResultDTO finishBulk(User currentUser, CardBulkResultDTO.Outcome action,
+                                         List<CardBulkResultDTO.Item> items, String description) {
+        CardBulkResultDTO result = new CardBulkResultDTO(action, items);
+        log.info("Bulk {}: {} of {} cards, {} skipped", action, result.getSucceededCount(), items.size(), result.getSkippedCount());
+        if (result.getSucceededCount() == 0) {
+            return result;
+        }
+        StringBuilder entry = new StringBuilder(description + ": " + result.getSucceededCount() + " от " + items.size() + " - ID:");
+        boolean first = true;
+        for (CardBulkResultDTO.Item item : items) {
+            if (item.getOutcome() != action) {
+                continue;
+            }
+            String id = (first ? " " : ", ") + item.getCardId();
+            if (entry.length() + id.length() > MAX_LOG_LENGTH) {
+                logEntryService.createLog(currentUser, entry.toString());
+                entry = new StringBuilder(description + " (продължение) - ID:");
+                id = " " + item.getCardId();
+            }
+            entry.append(id);
+            first = false;
+        }
+        logEntryService.createLog(currentUser, entry.toString());
+        return result;
+    }
+
+    // Условният UPDATE не е променил ред - или картата липсва, или статусът ѝ е друг
+    private RuntimeException transitionFailed(UUID cardId, String message) {
+        if (!cardRepository.existsById(cardId)) {
+            return new CardNotFoundException("Card not found: " + cardId);
+        }
+        log.warn("Card {} changed concurrently: {}", cardId, message);
+        return new CardStateConflictException(message);
+    }
+
+    private CardViewDTO findView(UUID cardId) {
+        return cardRepository.findViewById(cardId)
+                .orElseThrow(() -> new CardNotFoundException("Card not found: " + cardId));
+    }
+
+    @Override
+    public ArchivedCardPageDTO getArchivedCards(User currentUser, ArchivedCardFilterDTO filter) {
         log.debug("Retrieving archived cards for user: {}", currentUser.getUsername());
-        List<ArchivedCard> archivedCards = archivedCardService.findAll();
+        ArchivedCardFilterDTO page = filter != null ? filter : ArchivedCardFilterDTO.firstPage();
+        int size = page.getPageSize();
+        List<CardViewDTO> cards;
         
-        if (currentUser.getRole() != Role.ADMIN) {
-            List<Workshop> userWorkshops = currentUser.getWorkshops();
-            if (userWorkshops == null || userWorkshops.isEmpty()) {
-                log.debug("User {} has no workshops, returning empty list", currentUser.getUsername());
-                return List.of();
+        if (currentUser.getRole() == Role.ADMIN) {
+            cards = archivedCardService.findPage(page, size + 1);
+        } else {
+            List<UUID> workshopIds = getWorkshopIds(currentUser);
+            if (workshopIds.isEmpty()) {
+                log.debug("User {} has no workshops, returning empty page", currentUser.getUsername());
+                return ArchivedCardPageDTO.empty(size);
             }
-            List<UUID> workshopIds = userWorkshops.stream()
-                    .map(Workshop::getId)
-                    .toList();
-            archivedCards = archivedCards.stream()
-                    .filter(card -> card.getWorkshop() != null && workshopIds.contains(card.getWorkshop().getId()))
-                    .toList();
+            cards = archivedCardService.findPageByWorkshopIds(workshopIds, page, size + 1);
         }
         
-        return archivedCards.stream()
-                .map(this::convertArchivedToViewDTO)
-                .collect(Collectors.toList());
+        boolean hasNext = cards.size() > size;
+        List<CardViewDTO> pageCards = hasNext ? cards.subList(0, size) : cards;
+        if (!hasNext) {
+            return new ArchivedCardPageDTO(pageCards, size, false, null, null);
+        }
+        CardViewDTO last = pageCards.get(pageCards.size() - 1);
+        // closedAt на архивна карта е датата на архивиране
+        return new ArchivedCardPageDTO(pageCards, size, true, last.getClosedAt(), last.getId());
     }
 
     @Override
+    @Transactional
     public void archiveCard(UUID cardId, User currentUser) {
         log.info("Archiving card ID: {} by user: {}", cardId, currentUser.getUsername());
         
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new CardNotFoundException("Card not found: " + cardId));
-        
-        if (card.getStatus() != CardStatus.CLOSED) {
+        List<CardViewDTO> cards = cardRepository.findViewsByIdInAndStatus(List.of(cardId), CardStatus.CLOSED);
+        if (cards.isEmpty()) {
+            if (!cardRepository.existsById(cardId)) {
+                throw new CardNotFoundException("Card not found: " + cardId);
+            }
             throw new InvalidCardStatusException("Card is not in CLOSED status");
         }
         
-        ArchivedCard archivedCard = new ArchivedCard(card, currentUser);
-        archivedCardService.save(archivedCard);
-        
-        cardRepository.deleteById(cardId);
+        moveToArchive(cards, currentUser);
         
         log.info("Card archived successfully");
-        logEntryService.createLog(currentUser, "Архивирана карта ID: " + cardId + " - " + card.getShortDescription());
+        logEntryService.createLog(currentUser, "Архивирана карта ID: " + cardId + " - " + cards.get(0).getShortDescription());
+    }
+
+    // Масово архивиране - карти, които липсват, не са затворени или са от чужд цех, се пропускат
+    @Override
+    @Transactional
+    public CardBulkResultDTO archiveCards(Collection<UUID> cardIds, User currentUser) {
+        log.info("Bulk archiving {} cards by user: {}", cardIds.size(), currentUser.getUsername());
+        return archive(cardIds, currentUser, bulkWorkshopScope(currentUser));
+    }
+
+    // Автоматичното архивиране обхваща всички цехове - системният потребител няма цехове
+    @Override
+    @Transactional
+    public CardBulkResultDTO archiveExpiredCards(Collection<UUID> cardIds, User systemUser) {
+        log.debug("Auto-archiving {} cards as user: {}", cardIds.size(), systemUser.getUsername());
+        return archive(cardIds, systemUser, null);
+    }
+
+    private CardBulkResultDTO archive(Collection<UUID> cardIds, User currentUser, Set<UUID> workshopIds) {
+        List<CardStatus> allowed = List.of(CardStatus.CLOSED);
+        List<CardBulkResultDTO.Item> items = new ArrayList<>();
+        for (List<UUID> chunk : chunks(cardIds)) {
+            Map<UUID, CardStatusSnapshot> locked = lockStatuses(chunk);
+            List<UUID> archivable = eligible(chunk, locked, allowed, workshopIds);
+            if (!archivable.isEmpty()) {
+                moveToArchive(cardRepository.findViewsByIdInAndStatus(archivable, CardStatus.CLOSED), currentUser);
+            }
+            report(items, chunk, locked, allowed, workshopIds, CardBulkResultDTO.Outcome.ARCHIVED);
+        }
+        return finishBulk(currentUser, CardBulkResultDTO.Outcome.ARCHIVED, items, "Масово архивирани карти");
+    }
+
+    @Override
+    public List<UUID> findClosedCardIdsBefore(LocalDateTime closedBefore, int limit) {
+        return cardRepository.findIdsByStatusAndClosedAtBefore(CardStatus.CLOSED, closedBefore, Limit.of(limit));
+    }
+
+    @Override
+    public long countClosedCardsBefore(LocalDateTime closedBefore) {
+        return cardRepository.countByStatusAndClosedAtBefore(CardStatus.CLOSED, closedBefore);
+    }
+
+    // Преместването са два оператора независимо от броя карти - INSERT ... SELECT в archived_cards и
+    // DELETE от cards. Ако междувременно карта е архивирана или изтрита, броят на редовете не съвпада
+    // и цялата транзакция се отменя.
+    private void moveToArchive(List<CardViewDTO> cards, User currentUser) {
+        List<UUID> ids = cards.stream()
+                .map(CardViewDTO::getId)
+                .toList();
+        int copied = archivedCardService.copyClosedCards(ids, currentUser, LocalDateTime.now());
+        int deleted = cardRepository.deleteByIdInAndStatus(ids, CardStatus.CLOSED);
+        if (copied != ids.size() || deleted != copied) {
+            log.warn("Cards changed while being archived: expected {}, copied {}, deleted {}", ids.size(), copied, deleted);
+            throw new CardStateConflictException("Cards changed while being archived");
+        }
+        for (CardViewDTO card : cards) {
+            cardOutboxService.record(CardStateChangedEvent.Transition.ARCHIVED, card);
+        }
     }
 
     @Override
@@ -278,78 +477,4 @@ public class CardServiceImpl implements CardService {
         Card card = cardRepository.findById(cardId).orElse(null);
         return card != null && card.getStatus() == CardStatus.CLOSED;
     }
-
-    private CardViewDTO convertToViewDTO(Card card) {
-        CardViewDTO dto = new CardViewDTO();
-        dto.setId(card.getId());
-        dto.setWorkshopName(card.getWorkshop() != null ? card.getWorkshop().getName() : null);
-        dto.setWorkCenterName(card.getWorkCenter() != null ? card.getWorkCenter().getNumber() : null);
-        dto.setShift(card.getShift());
-        dto.setShortDescription(card.getShortDescription());
-        dto.setDetailedDescription(card.getDetailedDescription());
-        dto.setResolutionDurationMinutes(card.getResolutionDurationMinutes());
-        dto.setStatus(card.getStatus());
-        
-        if (card.getCreatedBy() != null) {
-            dto.setCreatedByUsername(card.getCreatedBy().getUsername());
-            String createdByName = (card.getCreatedBy().getFirstName() != null ? card.getCreatedBy().getFirstName() : "") +
-                    (card.getCreatedBy().getLastName() != null ? " " + card.getCreatedBy().getLastName() : "");
-            dto.setCreatedByName(createdByName.trim().isEmpty() ? card.getCreatedBy().getUsername() : createdByName.trim());
-        }
-        if (card.getUpdatedBy() != null) {
-            dto.setUpdatedByUsername(card.getUpdatedBy().getUsername());
-        }
-        if (card.getExtendedBy() != null) {
-            dto.setExtendedByUsername(card.getExtendedBy().getUsername());
-            String extendedByName = (card.getExtendedBy().getFirstName() != null ? card.getExtendedBy().getFirstName() : "") +
-                    (card.getExtendedBy().getLastName() != null ? " " + card.getExtendedBy().getLastName() : "");
-            dto.setExtendedByName(extendedByName.trim().isEmpty() ? card.getExtendedBy().getUsername() : extendedByName.trim());
-        }
-        if (card.getClosedBy() != null) {
-            dto.setClosedByUsername(card.getClosedBy().getUsername());
-        }
-        
-        dto.setCreatedAt(card.getCreatedAt());
-        dto.setUpdatedAt(card.getUpdatedAt());
-        dto.setExtendedAt(card.getExtendedAt());
-        dto.setClosedAt(card.getClosedAt());
-        
-        return dto;
-    }
-
-    private CardViewDTO convertArchivedToViewDTO(ArchivedCard archivedCard) {
-        CardViewDTO dto = new CardViewDTO();
-        dto.setId(archivedCard.getId());
-        dto.setWorkshopName(archivedCard.getWorkshop() != null ? archivedCard.getWorkshop().getName() : null);
-        dto.setWorkCenterName(archivedCard.getWorkCenter() != null ? archivedCard.getWorkCenter().getNumber() : null);
-        dto.setShift(archivedCard.getShift());
-        dto.setShortDescription(archivedCard.getShortDescription());
-        dto.setDetailedDescription(archivedCard.getDetailedDescription());
-        dto.setResolutionDurationMinutes(archivedCard.getResolutionDurationMinutes());
-        dto.setStatus(CardStatus.CLOSED);
-        
-        if (archivedCard.getCreatedBy() != null) {
-            dto.setCreatedByUsername(archivedCard.getCreatedBy().getUsername());
-            String createdByName = (archivedCard.getCreatedBy().getFirstName() != null ? archivedCard.getCreatedBy().getFirstName() : "") +
-                    (archivedCard.getCreatedBy().getLastName() != null ? " " + archivedCard.getCreatedBy().getLastName() : "");
-            dto.setCreatedByName(createdByName.trim().isEmpty() ? archivedCard.getCreatedBy().getUsername() : createdByName.trim());
-        }
-        if (archivedCard.getUpdatedBy() != null) {
-            dto.setUpdatedByUsername(archivedCard.getUpdatedBy().getUsername());
-        }
-        if (archivedCard.getArchivedBy() != null) {
-            dto.setExtendedByUsername(archivedCard.getArchivedBy().getUsername());
-            String archivedByName = (archivedCard.getArchivedBy().getFirstName() != null ? archivedCard.getArchivedBy().getFirstName() : "") +
-                    (archivedCard.getArchivedBy().getLastName() != null ? " " + archivedCard.getArchivedBy().getLastName() : "");
-            dto.setExtendedByName(archivedByName.trim().isEmpty() ? archivedCard.getArchivedBy().getUsername() : archivedByName.trim());
-        }
-        
-        dto.setCreatedAt(archivedCard.getCreatedAt());
-        dto.setUpdatedAt(archivedCard.getUpdatedAt());
-        dto.setExtendedAt(archivedCard.getUpdatedAt());
-        dto.setClosedAt(archivedCard.getArchivedAt());
-        
-        return dto;
-    }
 }
-
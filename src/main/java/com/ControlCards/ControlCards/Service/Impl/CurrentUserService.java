@@ -0,0 +1,68 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Exception.UserNotFoundException;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+// Текущият потребител се зарежда веднъж на заявка и се пази в атрибутите на заявката,
+// така че контролерите, услугите и одитът не правят отделна заявка към базата всеки.
+// Извън HTTP заявка (планирани задачи, фонови нишки) всяко извикване го търси наново.
+@Service
+@Slf4j
+public class CurrentUserService {
+
+    static final String REQUEST_ATTRIBUTE = CurrentUserService.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    @Autowired
+    public CurrentUserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Optional<User> findCurrentUser() {
+        String username = currentUsername();
+        if (username == null) {
+            return Optional.empty();
+        }
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && username.equals(user.getUsername())) {
+            return Optional.of(user);
+        }
+
+        Optional<User> user = userRepository.findByUsername(username);
+        if (requestAttributes != null) {
+            user.ifPresent(u -> requestAttributes.setAttribute(REQUEST_ATTRIBUTE, u, RequestAttributes.SCOPE_REQUEST));
+        }
+        return user;
+    }
+
+    public User getCurrentUser() {
+        return findCurrentUser()
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + currentUsername()));
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof UserDetails userDetails) {
+            return userDetails.getUsername();
+        }
+        return null;
+    }
+}
@@ -1,34 +1,46 @@
 package com.ControlCards.ControlCards.Service.Impl;
 
+import com.ControlCards.ControlCards.DTO.LogEntryFilterDTO;
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
 import com.ControlCards.ControlCards.Model.LogEntry;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Repository.LogEntryRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class LogEntryService {
 
     private final LogEntryRepository logEntryRepository;
+    private final AuditLogWriter auditLogWriter;
 
     @Autowired
-    public LogEntryService(LogEntryRepository logEntryRepository) {
+    public LogEntryService(LogEntryRepository logEntryRepository, AuditLogWriter auditLogWriter) {
         this.logEntryRepository = logEntryRepository;
+        this.auditLogWriter = auditLogWriter;
     }
 
     public LogEntry createLog(User user, String action) {
         log.info("Създаване на лог запис за потребител: {} с действие: {}", user.getUsername(), action);
         
         LogEntry logEntry = new LogEntry(user, action);
-        logEntryRepository.save(logEntry);
+        auditLogWriter.write(logEntry);
         
-        log.info("Лог записът е създаден успешно с ID: {}", logEntry.getId());
+        log.debug("Лог записът е подаден за запис");
         return logEntry;
     }
 
@@ -41,22 +53,59 @@ public class LogEntryService {
         log.debug("Търсене на всички лог записи");
         return logEntryRepository.findAll();
     }
+
+    public Page<LogEntryViewDTO> search(LogEntryFilterDTO filter) {
+        log.debug("Търсене на лог записи по филтър: {}", filter);
+        return logEntryRepository.search(filter.getUserId(), filter.getCreatedFrom(), filter.getCreatedBefore(),
+                filter.getTextPattern(), PageRequest.of(filter.getPageNumber(), filter.getPageSize()));
+    }
+
+    // Транзакцията държи отворен резултата, докато редовете се пишат към изхода
+    @Transactional(readOnly = true)
+    public long exportCsv(LogEntryFilterDTO filter, Writer writer) throws IOException {
+        log.info("Експорт на лог записи по филтър: {}", filter);
+        long count = 0;
+        writer.write("id,username,description,created_at\n");
+        try (Stream<LogEntryViewDTO> logs = logEntryRepository.streamAll(filter.getUserId(),
+                filter.getCreatedFrom(), filter.getCreatedBefore(), filter.getTextPattern())) {
+            Iterator<LogEntryViewDTO> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                LogEntryViewDTO entry = iterator.next();
+                writer.write(csvValue(String.valueOf(entry.getId())) + ","
+                        + csvValue(entry.getUsername()) + ","
+                        + csvValue(entry.getDescription()) + ","
+                        + csvValue(String.valueOf(entry.getCreatedAt())) + "\n");
+                count++;
+            }
+        }
+        writer.flush();
+        log.info("Експортирани {} лог записа", count);
+        return count;
+    }
+
+    private String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Стойности, започващи с =, +, - или @, се изпълняват като формули в Excel
+        String safe = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        return "\"" + safe.replace("\"", "\"\"") + "\"";
+    }
     
+    // Изтрива една порция от най-старите записи преди cutoffDate в отделна транзакция,
+    // така че заключванията и undo логът са ограничени до chunkSize реда
     @Transactional
-    public int deleteOldLogs(int daysToKeep) {
-        log.info("Изтриване на лог записи по-стари от {} дни", daysToKeep);
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        
-        long countBefore = logEntryRepository.countByCreatedAtBefore(cutoffDate);
-        log.info("Намерени {} лог записа за изтриване (по-стари от {})", countBefore, cutoffDate);
-        
-        if (countBefore > 0) {
-            int deletedCount = logEntryRepository.deleteByCreatedAtBefore(cutoffDate);
-            log.info("Успешно изтрити {} стари лог записа", deletedCount);
-            return deletedCount;
+    public int deleteOldLogsChunk(LocalDateTime cutoffDate, int chunkSize) {
+        List<UUID> ids = logEntryRepository.findIdsCreatedBefore(cutoffDate, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
         }
-        
-        log.debug("Няма стари лог записи за изтриване");
-        return 0;
+        int deletedCount = logEntryRepository.deleteByIdIn(ids);
+        log.debug("Изтрита порция от {} лог записа (по-стари от {})", deletedCount, cutoffDate);
+        return deletedCount;
+    }
+
+    public long countOldLogs(LocalDateTime cutoffDate) {
+        return logEntryRepository.countByCreatedAtBefore(cutoffDate);
     }
 }
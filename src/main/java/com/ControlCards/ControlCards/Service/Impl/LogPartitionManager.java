@@ -0,0 +1,126 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Месечни RANGE COLUMNS(created_at) дялове на log_entries (MySQL).
+// Дял pYYYYMM съдържа записите преди първо число на следващия месец, pmax - всичко останало.
+// Ако таблицата не е разделена на дялове (или базата не е MySQL, напр. H2 в тестовете),
+// isPartitioned() връща false и почистването се прави с изтриване на порции.
+@Component
+@Slf4j
+public class LogPartitionManager {
+
+    static final String TABLE_NAME = "log_entries";
+    static final String MAX_PARTITION = "pmax";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    @Autowired
+    public LogPartitionManager(JdbcTemplate jdbcTemplate,
+                               @Value("${log.partition.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    public boolean isPartitioned() {
+        if (!isMySql()) {
+            return false;
+        }
+        return listPartitions().contains(MAX_PARTITION);
+    }
+
+    // Разделя pmax на месечни дялове до monthsAhead месеца напред
+    public int createFuturePartitions(LocalDate today) {
+        List<YearMonth> months = missingMonths(listPartitions(), YearMonth.from(today), monthsAhead);
+        if (months.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE " + TABLE_NAME + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (");
+        for (YearMonth month : months) {
+            sql.append("PARTITION ").append(month.format(PARTITION_NAME))
+                    .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        sql.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(sql.toString());
+        log.info("Created log partitions {} to {}", months.get(0).format(PARTITION_NAME),
+                months.get(months.size() - 1).format(PARTITION_NAME));
+        return months.size();
+    }
+
+    // Премахва дяловете, чиито записи са изцяло по-стари от cutoffDate - без изтриване ред по ред
+    public int dropExpiredPartitions(LocalDateTime cutoffDate) {
+        List<String> expired = expiredPartitions(listPartitions(), cutoffDate);
+        for (String partition : expired) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " DROP PARTITION " + partition);
+            log.info("Dropped log partition {}", partition);
+        }
+        return expired.size();
+    }
+
+    List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, TABLE_NAME);
+    }
+
+    static List<String> expiredPartitions(List<String> partitions, LocalDateTime cutoffDate) {
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            parseMonth(partition)
+                    .filter(month -> !month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoffDate))
+                    .ifPresent(month -> expired.add(partition));
+        }
+        return expired;
+    }
+
+    // Месеците след последния съществуващ дял до current + monthsAhead (без пропуски -
+    // REORGANIZE на pmax може само да добавя диапазони над последния дял)
+    static List<YearMonth> missingMonths(List<String> partitions, YearMonth current, int monthsAhead) {
+        YearMonth last = partitions.stream()
+                .map(LogPartitionManager::parseMonth)
+                .flatMap(Optional::stream)
+                .max(YearMonth::compareTo)
+                .orElse(current.minusMonths(1));
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    private static Optional<YearMonth> parseMonth(String partition) {
+        if (partition == null || MAX_PARTITION.equalsIgnoreCase(partition)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partition.toLowerCase(), PARTITION_NAME));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+}
@@ -0,0 +1,208 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Config.PageLoadConfig;
+import com.ControlCards.ControlCards.Exception.PageLoadTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Паралелно зареждане на независимите данни за една страница - времето е колкото на най-бавното,
+// а не сумата. Използване:
+//
+//   try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+//       Supplier<Page<LogEntryViewDTO>> logs = scope.fork("logs", () -> logEntryService.search(filter));
+//       Supplier<List<User>> users = scope.fork("users", userService::findAll);
+//       scope.join();
+//       ... logs.get(), users.get()
+//   }
+//
+// Всяка задача има срок (по подразбиране page.load.timeout-ms). При грешка или изтекъл срок на една
+// задача останалите се прекъсват, а join() хвърля оригиналната грешка или PageLoadTimeoutException.
+// Задачите виждат SecurityContext на заявката, но не и нейната Hibernate сесия - трябва да връщат
+// DTO или напълно заредени обекти.
+@Service
+@Slf4j
+public class PageDataLoader {
+
+    private final TaskExecutor executor;
+    private final Duration defaultTimeout;
+
+    @Autowired
+    public PageDataLoader(@Qualifier(PageLoadConfig.PAGE_LOAD_EXECUTOR) TaskExecutor executor,
+                          @Value("${page.load.timeout-ms:5000}") long defaultTimeoutMs) {
+        this.executor = executor;
+        this.defaultTimeout = Duration.ofMillis(defaultTimeoutMs);
+    }
+
+    public Scope open() {
+        return new Scope();
+    }
+
+    public final class Scope implements AutoCloseable {
+
+        private final List<Task<?>> tasks = new ArrayList<>();
+        private final AtomicReference<Task<?>> firstFailure = new AtomicReference<>();
+        private boolean joined;
+
+        private Scope() {
+        }
+
+        public <T> Supplier<T> fork(String name, Callable<T> loader) {
+            return fork(name, defaultTimeout, loader);
+        }
+
+        public <T> Supplier<T> fork(String name, Duration timeout, Callable<T> loader) {
+            if (joined) {
+                throw new IllegalStateException("Scope already joined");
+            }
+            Task<T> task = new Task<>(this, name, System.nanoTime() + timeout.toNanos(), timeout, withContext(loader));
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (TaskRejectedException e) {
+                // Пълен пул - задачата се изпълнява в нишката на заявката, вместо страницата да гърми
+                log.debug("Page load executor is saturated, loading '{}' inline", name);
+                task.run();
+            }
+            return task;
+        }
+
+        public void join() {
+            joined = true;
+            try {
+                for (Task<?> task : tasks) {
+                    task.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new PageLoadTimeoutException("Interrupted while loading page data", e);
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw new PageLoadTimeoutException(e.getMessage(), e);
+            } catch (ExecutionException | CancellationException e) {
+                cancelAll();
+                Task<?> failed = firstFailure.get();
+                throw propagate(failed != null ? failed.failure() : e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!joined) {
+                cancelAll();
+            }
+        }
+
+        private void onFailure(Task<?> task) {
+            if (firstFailure.compareAndSet(null, task)) {
+                cancelAll();
+            }
+        }
+
+        private void cancelAll() {
+            for (Task<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private static final class Task<T> extends FutureTask<T> implements Supplier<T> {
+
+        private final Scope scope;
+        private final String name;
+        private final long deadline;
+        private final Duration timeout;
+
+        private Task(Scope scope, String name, long deadline, Duration timeout, Callable<T> loader) {
+            super(loader);
+            this.scope = scope;
+            this.name = name;
+            this.deadline = deadline;
+            this.timeout = timeout;
+        }
+
+        private void await() throws InterruptedException, ExecutionException, TimeoutException {
+            try {
+                get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Page data '{}' was not loaded within {} ms", name, timeout.toMillis());
+                throw new TimeoutException("Page data '" + name + "' was not loaded within " + timeout.toMillis() + " ms");
+            }
+        }
+
+        private Throwable failure() {
+            try {
+                get(0, TimeUnit.NANOSECONDS);
+                return null;
+            } catch (ExecutionException e) {
+                return e.getCause();
+            } catch (Exception e) {
+                return e;
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled() && failure() != null) {
+                scope.onFailure(this);
+            }
+        }
+
+        @Override
+        public T get() {
+            if (!isDone() || isCancelled()) {
+                throw new IllegalStateException("Page data '" + name + "' is not loaded - call join() first");
+            }
+            try {
+                return super.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw propagate(e.getCause());
+            }
+        }
+    }
+
+    private static RuntimeException propagate(Throwable failure) {
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(failure);
+    }
+
+    private static <T> Callable<T> withContext(Callable<T> loader) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        return () -> {
+            SecurityContext previous = SecurityContextHolder.getContext();
+            SecurityContextHolder.setContext(securityContext);
+            try {
+                return loader.call();
+            } finally {
+                SecurityContextHolder.setContext(previous);
+            }
+        };
+    }
+}
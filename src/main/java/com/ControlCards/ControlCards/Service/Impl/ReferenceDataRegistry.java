@@ -0,0 +1,137 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.ReferenceDataRow;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
+import com.ControlCards.ControlCards.DTO.WorkshopSnapshot;
+import com.ControlCards.ControlCards.Repository.WorkshopRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Справочни данни (цехове и работни центрове) в паметта като непроменими снимки.
+// Снимката се изгражда с една заявка и се подменя изцяло при всяка промяна на цех или
+// работен център, така че четенията не стигат до базата и не зареждат lazy асоциации.
+@Component
+@Slf4j
+public class ReferenceDataRegistry {
+
+    private final WorkshopRepository workshopRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Lock, а не synchronized - заявката към базата вътре иначе блокира носещата нишка на виртуалните нишки
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @Autowired
+    public ReferenceDataRegistry(WorkshopRepository workshopRepository) {
+        this.workshopRepository = workshopRepository;
+    }
+
+    public List<WorkshopSnapshot> getWorkshops() {
+        return current().workshops;
+    }
+
+    public List<WorkshopSnapshot> getActiveWorkshops() {
+        return current().activeWorkshops;
+    }
+
+    public Optional<WorkshopSnapshot> findWorkshop(UUID id) {
+        return Optional.ofNullable(current().workshopsById.get(id));
+    }
+
+    public List<WorkCenterSnapshot> getWorkCenters() {
+        return current().workCenters;
+    }
+
+    public List<WorkCenterSnapshot> getActiveWorkCenters() {
+        return current().activeWorkCenters;
+    }
+
+    public Optional<WorkCenterSnapshot> findWorkCenter(UUID id) {
+        return Optional.ofNullable(current().workCentersById.get(id));
+    }
+
+    // Активните работни центрове на дадените цехове, в реда на цеховете
+    public List<WorkCenterSnapshot> getActiveWorkCentersByWorkshopIds(Collection<UUID> workshopIds) {
+        if (workshopIds == null || workshopIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, List<WorkCenterSnapshot>> byWorkshop = current().activeWorkCentersByWorkshopId;
+        return new LinkedHashSet<>(workshopIds).stream()
+                .flatMap(workshopId -> byWorkshop.getOrDefault(workshopId, List.of()).stream())
+                .collect(Collectors.toList());
+    }
+
+    // Извиква се след всеки запис на цех или работен център
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            snapshot.set(load());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            // При едновременно първо зареждане печели първата снимка - останалите са еднакви
+            snapshot.compareAndSet(null, load());
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        List<ReferenceDataRow> rows = workshopRepository.findReferenceData();
+        Map<UUID, WorkshopSnapshot> workshops = new LinkedHashMap<>();
+        List<WorkCenterSnapshot> workCenters = new ArrayList<>();
+        for (ReferenceDataRow row : rows) {
+            workshops.computeIfAbsent(row.getWorkshopId(), id -> new WorkshopSnapshot(id, row.getWorkshopName(),
+                    row.getWorkshopDescription(), Boolean.TRUE.equals(row.getWorkshopActive())));
+            if (row.getWorkCenterId() != null) {
+                workCenters.add(new WorkCenterSnapshot(row.getWorkCenterId(), row.getWorkCenterNumber(),
+                        row.getWorkCenterDescription(), row.getWorkCenterMachineType(),
+                        Boolean.TRUE.equals(row.getWorkCenterActive()), row.getWorkshopId(), row.getWorkshopName()));
+            }
+        }
+        Snapshot loaded = new Snapshot(List.copyOf(workshops.values()), workCenters);
+        log.info("Reference data loaded: {} workshops, {} work centers", loaded.workshops.size(), loaded.workCenters.size());
+        return loaded;
+    }
+
+    private static final class Snapshot {
+
+        private final List<WorkshopSnapshot> workshops;
+        private final List<WorkshopSnapshot> activeWorkshops;
+        private final Map<UUID, WorkshopSnapshot> workshopsById;
+        private final List<WorkCenterSnapshot> workCenters;
+        private final List<WorkCenterSnapshot> activeWorkCenters;
+        private final Map<UUID, WorkCenterSnapshot> workCentersById;
+        private final Map<UUID, List<WorkCenterSnapshot>> activeWorkCentersByWorkshopId;
+
+        private Snapshot(List<WorkshopSnapshot> workshops, List<WorkCenterSnapshot> workCenters) {
+            this.workshops = workshops;
+            this.activeWorkshops = workshops.stream().filter(WorkshopSnapshot::isActive).toList();
+            this.workshopsById = workshops.stream()
+                    .collect(Collectors.toUnmodifiableMap(WorkshopSnapshot::getId, w -> w));
+            this.workCenters = List.copyOf(workCenters);
+            this.activeWorkCenters = workCenters.stream().filter(WorkCenterSnapshot::isActive).toList();
+            this.workCentersById = workCenters.stream()
+                    .collect(Collectors.toUnmodifiableMap(WorkCenterSnapshot::getId, wc -> wc));
+            this.activeWorkCentersByWorkshopId = Map.copyOf(activeWorkCenters.stream()
+                    .collect(Collectors.groupingBy(WorkCenterSnapshot::getWorkshopId,
+                            Collectors.toUnmodifiableList())));
+        }
+    }
+}
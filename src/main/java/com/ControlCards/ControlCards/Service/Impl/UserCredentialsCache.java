@@ -0,0 +1,56 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.UserCredentialsSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Кеш на данните за вход по потребителско име, за да не се чете базата при всеки вход.
+// Записите се премахват от UserServiceImpl при всяка промяна на потребител.
+// Зареждането е атомарно (get с loader): evict по време на зареждане изчаква то да приключи
+// и след това премахва записа, така че стар снимок не може да се запише след премахването.
+@Component
+@Slf4j
+public class UserCredentialsCache {
+
+    public static final String CACHE_NAME = "userCredentials";
+
+    private final Cache cache;
+
+    @Autowired
+    public UserCredentialsCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public Optional<UserCredentialsSnapshot> get(String username) {
+        return Optional.ofNullable(cache.get(username, UserCredentialsSnapshot.class));
+    }
+
+    // Грешката на loader-а (напр. UsernameNotFoundException) се хвърля без обвивка и нищо не се кешира
+    public UserCredentialsSnapshot get(String username, Supplier<UserCredentialsSnapshot> loader) {
+        try {
+            return cache.get(username, loader::get);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    public void evict(String username) {
+        log.debug("Evicting cached credentials of user {}", username);
+        cache.evict(username);
+    }
+
+    // При редакция потребителското име може да е сменено, а старото не е известно
+    public void clear() {
+        log.debug("Clearing all cached user credentials");
+        cache.clear();
+    }
+}
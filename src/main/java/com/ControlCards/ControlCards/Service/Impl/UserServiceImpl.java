@@ -5,10 +5,10 @@ import com.ControlCards.ControlCards.Repository.UserRepository;
 import com.ControlCards.ControlCards.Service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import com.ControlCards.ControlCards.Util.Enums.Role;
+
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,13 +17,20 @@ import java.util.UUID;
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final String SYSTEM_PASSWORD = "!";
+
     private final UserRepository userRepository;
     private final LogEntryService logEntryService;
+    private final CurrentUserService currentUserService;
+    private final UserCredentialsCache userCredentialsCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, LogEntryService logEntryService) {
+    public UserServiceImpl(UserRepository userRepository, LogEntryService logEntryService,
+                           CurrentUserService currentUserService, UserCredentialsCache userCredentialsCache) {
         this.userRepository = userRepository;
         this.logEntryService = logEntryService;
+        this.currentUserService = currentUserService;
+        this.userCredentialsCache = userCredentialsCache;
     }
 
     @Override
@@ -47,14 +54,24 @@ public class UserServiceImpl implements UserService {
         return userRepository.findWithWorkshopsByUsername(username);
     }
 
+    @Override
+    public Optional<User> findByIdWithWorkshops(UUID id) {
+        return userRepository.findWithWorkshopsById(id);
+    }
+
     @Override
     public User save(User user) {
         log.info("Saving user: {}", user.getUsername());
         boolean isNew = user.getId() == null;
         User savedUser = userRepository.save(user);
+        if (isNew) {
+            userCredentialsCache.evict(savedUser.getUsername());
+        } else {
+            userCredentialsCache.clear();
+        }
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 if (isNew) {
                     logEntryService.createLog(currentUser, "Създаден нов потребител: " + savedUser.getUsername());
@@ -68,18 +85,6 @@ public class UserServiceImpl implements UserService {
         
         return savedUser;
     }
-    
-    private User getCurrentUser() {
-        try {
-            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            if (principal instanceof UserDetails userDetails) {
-                return findByUsername(userDetails.getUsername()).orElse(null);
-            }
-        } catch (Exception e) {
-            log.debug("Cannot extract current user: {}", e.getMessage());
-        }
-        return null;
-    }
 
     @Override
     public boolean existsById(UUID id) {
@@ -99,10 +104,11 @@ public class UserServiceImpl implements UserService {
         
         user.setActive(false);
         userRepository.save(user);
+        userCredentialsCache.evict(user.getUsername());
         log.info("User {} deactivated", user.getUsername());
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 logEntryService.createLog(currentUser, "Деактивиран потребител: " + user.getUsername());
             }
@@ -118,10 +124,11 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + id));
         user.setActive(true);
         userRepository.save(user);
+        userCredentialsCache.evict(user.getUsername());
         log.info("User {} activated", user.getUsername());
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 logEntryService.createLog(currentUser, "Активиран потребител: " + user.getUsername());
             }
@@ -129,4 +136,37 @@ public class UserServiceImpl implements UserService {
             log.warn("Failed to log action: {}", e.getMessage());
         }
     }
+
+    // Потребител, на когото се приписват автоматичните действия (напр. нощното архивиране).
+    // Неактивен е и паролата му не е BCrypt хеш, затова с него не може да се влезе.
+    // Съществуващ реален акаунт със същото име не се използва - действията не бива да се
+    // приписват на човек, затова се хвърля грешка и архивирането спира.
+    @Override
+    public User findOrCreateSystemUser(String username) {
+        return userRepository.findByUsername(username).map(this::requireSystemUser).orElseGet(() -> {
+            User systemUser = new User();
+            systemUser.setUsername(username);
+            systemUser.setPassword(SYSTEM_PASSWORD);
+            systemUser.setFirstName("Система");
+            systemUser.setLastName("ControlCards");
+            systemUser.setRole(Role.PRODUCTION_MANAGER);
+            systemUser.setActive(false);
+            try {
+                User saved = userRepository.save(systemUser);
+                log.info("Created system user: {}", username);
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                // Създаден междувременно от друга инстанция
+                return userRepository.findByUsername(username).map(this::requireSystemUser).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    private User requireSystemUser(User user) {
+        if (Boolean.TRUE.equals(user.getActive()) || !SYSTEM_PASSWORD.equals(user.getPassword())) {
+            log.error("User {} exists but is not the system account (active or has a password)", user.getUsername());
+            throw new IllegalStateException("User " + user.getUsername() + " is not a system account");
+        }
+        return user;
+    }
 }
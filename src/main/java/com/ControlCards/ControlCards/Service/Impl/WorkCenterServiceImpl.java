@@ -1,22 +1,18 @@
 package com.ControlCards.ControlCards.Service.Impl;
 
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Model.WorkCenter;
 import com.ControlCards.ControlCards.Repository.WorkCenterRepository;
-import com.ControlCards.ControlCards.Service.UserService;
 import com.ControlCards.ControlCards.Service.WorkCenterService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -24,45 +20,38 @@ public class WorkCenterServiceImpl implements WorkCenterService {
 
     private final WorkCenterRepository workCenterRepository;
     private final LogEntryService logEntryService;
-    private final UserService userService;
+    private final CurrentUserService currentUserService;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public WorkCenterServiceImpl(WorkCenterRepository workCenterRepository, LogEntryService logEntryService, UserService userService) {
+    public WorkCenterServiceImpl(WorkCenterRepository workCenterRepository, LogEntryService logEntryService,
+                                 CurrentUserService currentUserService, ReferenceDataRegistry referenceDataRegistry) {
         this.workCenterRepository = workCenterRepository;
         this.logEntryService = logEntryService;
-        this.userService = userService;
+        this.currentUserService = currentUserService;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @Override
-    @Cacheable("workCenters")
     public List<WorkCenter> findAll() {
-        log.debug("Finding all work centers - cache miss, fetching from database");
+        log.debug("Finding all work centers");
         return workCenterRepository.findAll();
     }
 
-    @Override
-    @Cacheable("activeWorkCenters")
-    public List<WorkCenter> findAllActive() {
-        log.debug("Finding all active work centers - cache miss, fetching from database");
-        return workCenterRepository.findAll().stream()
-                .filter(wc -> wc.getActive() != null && wc.getActive())
-                .collect(Collectors.toList());
-    }
-
     @Override
     public Optional<WorkCenter> findById(UUID id) {
         return workCenterRepository.findById(id);
     }
 
     @Override
-    @CacheEvict(value = {"workCenters", "activeWorkCenters"}, allEntries = true)
     public WorkCenter save(WorkCenter workCenter) {
-        log.info("Saving work center: {} - evicting cache", workCenter.getNumber());
+        log.info("Saving work center: {} - refreshing reference data", workCenter.getNumber());
         boolean isNew = workCenter.getId() == null;
         WorkCenter savedWorkCenter = workCenterRepository.save(workCenter);
+        referenceDataRegistry.refresh();
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 if (isNew) {
                     logEntryService.createLog(currentUser, "Създаден нов работен център: " + savedWorkCenter.getNumber());
@@ -95,17 +84,37 @@ public class WorkCenterServiceImpl implements WorkCenterService {
     }
 
     @Override
-    @CacheEvict(value = {"workCenters", "activeWorkCenters"}, allEntries = true)
+    public List<WorkCenterSnapshot> findAllSnapshots() {
+        return referenceDataRegistry.getWorkCenters();
+    }
+
+    @Override
+    public List<WorkCenterSnapshot> findActiveSnapshots() {
+        return referenceDataRegistry.getActiveWorkCenters();
+    }
+
+    @Override
+    public Optional<WorkCenterSnapshot> findSnapshotById(UUID id) {
+        return referenceDataRegistry.findWorkCenter(id);
+    }
+
+    @Override
+    public List<WorkCenterSnapshot> findActiveByWorkshopIds(Collection<UUID> workshopIds) {
+        return referenceDataRegistry.getActiveWorkCentersByWorkshopIds(workshopIds);
+    }
+
+    @Override
     public void deactivate(UUID id) {
-        log.info("Deactivating work center with ID: {} - evicting cache", id);
+        log.info("Deactivating work center with ID: {} - refreshing reference data", id);
         WorkCenter workCenter = workCenterRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Work center not found: " + id));
         workCenter.setActive(false);
         workCenterRepository.save(workCenter);
+        referenceDataRegistry.refresh();
         log.info("Work center {} deactivated", workCenter.getNumber());
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 logEntryService.createLog(currentUser, "Деактивиран работен център: " + workCenter.getNumber());
             }
@@ -115,17 +124,17 @@ public class WorkCenterServiceImpl implements WorkCenterService {
     }
 
     @Override
-    @CacheEvict(value = {"workCenters", "activeWorkCenters"}, allEntries = true)
     public void activate(UUID id) {
-        log.info("Activating work center with ID: {} - evicting cache", id);
+        log.info("Activating work center with ID: {} - refreshing reference data", id);
         WorkCenter workCenter = workCenterRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Work center not found: " + id));
         workCenter.setActive(true);
         workCenterRepository.save(workCenter);
+        referenceDataRegistry.refresh();
         log.info("Work center {} activated", workCenter.getNumber());
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 logEntryService.createLog(currentUser, "Активиран работен център: " + workCenter.getNumber());
             }
@@ -133,16 +142,4 @@ public class WorkCenterServiceImpl implements WorkCenterService {
             log.warn("Failed to log action: {}", e.getMessage());
         }
     }
-    
-    private User getCurrentUser() {
-        try {
-            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            if (principal instanceof UserDetails userDetails) {
-                return userService.findByUsername(userDetails.getUsername()).orElse(null);
-            }
-        } catch (Exception e) {
-            log.debug("Cannot extract current user: {}", e.getMessage());
-        }
-        return null;
-    }
 }
@@ -0,0 +1,194 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Client.WorkScheduleClient;
+import com.ControlCards.ControlCards.DTO.SchedulePageDTO;
+import com.ControlCards.ControlCards.DTO.ScheduleQueryDTO;
+import com.ControlCards.ControlCards.DTO.WorkScheduleDTO;
+import com.ControlCards.ControlCards.Exception.ScheduleServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Четене на графиците от WorkScheduleService през кеш с кратък живот:
+// - до ttl записът се връща директно;
+// - след ttl се връща старият запис, а обновяването става във фонов режим (stale-while-revalidate);
+// - ако сървисът е недостъпен, старият запис остава до max-stale.
+// Извикванията минават през прекъсвач - при отворен прекъсвач няма заявки към сървиса
+// и се връщат само кешираните данни. Всяко създаване/промяна/изтриване изчиства кеша.
+@Service
+@Slf4j
+public class WorkScheduleService {
+
+    static final String SEARCH_CACHE = "workSchedules";
+    static final String BY_ID_CACHE = "workScheduleById";
+
+    private final WorkScheduleClient workScheduleClient;
+    private final CircuitBreaker circuitBreaker;
+    private final LoadingCache<ScheduleQueryDTO, SchedulePageDTO> searchCache;
+    private final LoadingCache<UUID, WorkScheduleDTO> byIdCache;
+    private final AtomicBoolean localFilteringReported = new AtomicBoolean();
+
+    @Autowired
+    public WorkScheduleService(WorkScheduleClient workScheduleClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${workschedule.cache.ttl-ms:30000}") long ttlMs,
+                               @Value("${workschedule.cache.max-stale-ms:1800000}") long maxStaleMs,
+                               @Value("${workschedule.cache.maximum-size:500}") long maximumSize,
+                               @Value("${workschedule.circuit.failure-threshold:5}") int failureThreshold,
+                               @Value("${workschedule.circuit.open-ms:30000}") long openMs) {
+        this(workScheduleClient, meterRegistry, Duration.ofMillis(ttlMs), Duration.ofMillis(maxStaleMs), maximumSize,
+                failureThreshold, Duration.ofMillis(openMs), Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    WorkScheduleService(WorkScheduleClient workScheduleClient, MeterRegistry meterRegistry,
+                        Duration ttl, Duration maxStale, long maximumSize,
+                        int failureThreshold, Duration openDuration, Ticker ticker, Executor refreshExecutor) {
+        this.workScheduleClient = workScheduleClient;
+        this.circuitBreaker = new CircuitBreaker("workScheduleService", failureThreshold, openDuration, ticker);
+        Duration expireAfter = maxStale.compareTo(ttl) > 0 ? maxStale : ttl.multipliedBy(2);
+
+        this.searchCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(ttl)
+                .expireAfterWrite(expireAfter)
+                .ticker(ticker)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(this::loadPage);
+        this.byIdCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(ttl)
+                .expireAfterWrite(expireAfter)
+                .ticker(ticker)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(id -> call(() -> workScheduleClient.getScheduleById(id)));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, searchCache, SEARCH_CACHE);
+        CaffeineCacheMetrics.monitor(meterRegistry, byIdCache, BY_ID_CACHE);
+        Gauge.builder("workschedule.circuit.open", circuitBreaker, cb -> cb.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1, когато прекъсвачът към сървиса за графици не е затворен")
+                .register(meterRegistry);
+    }
+
+    public SchedulePageDTO searchSchedules(ScheduleQueryDTO query) {
+        return searchCache.get(query.normalized());
+    }
+
+    // Копие, защото формата за редакция променя обекта (workCenterId), а кешираният се споделя
+    public WorkScheduleDTO getScheduleById(UUID id) {
+        return copyOf(byIdCache.get(id));
+    }
+
+    public WorkScheduleDTO createSchedule(WorkScheduleDTO scheduleDTO) {
+        try {
+            return call(() -> workScheduleClient.createSchedule(scheduleDTO));
+        } finally {
+            searchCache.invalidateAll();
+        }
+    }
+
+    public WorkScheduleDTO updateSchedule(UUID id, WorkScheduleDTO scheduleDTO) {
+        try {
+            return call(() -> workScheduleClient.updateSchedule(id, scheduleDTO));
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    public void deleteSchedule(UUID id) {
+        try {
+            call(() -> {
+                workScheduleClient.deleteSchedule(id);
+                return null;
+            });
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private SchedulePageDTO loadPage(ScheduleQueryDTO query) {
+        ResponseEntity<List<WorkScheduleDTO>> response = call(() -> workScheduleClient.searchSchedules(
+                query.getDate(), query.getDateFrom(), query.getDateTo(), query.getShift(), query.getWorkCenter(),
+                query.getPageNumber(), query.getPageSize()));
+        List<WorkScheduleDTO> body = response.getBody() != null ? response.getBody() : List.of();
+        String totalCount = response.getHeaders().getFirst(WorkScheduleClient.TOTAL_COUNT_HEADER);
+        if (totalCount != null) {
+            return new SchedulePageDTO(List.copyOf(body), query.getPageNumber(), query.getPageSize(),
+                    Long.parseLong(totalCount.trim()));
+        }
+        if (localFilteringReported.compareAndSet(false, true)) {
+            log.warn("Schedule service returned no {} header, filtering {} schedules locally",
+                    WorkScheduleClient.TOTAL_COUNT_HEADER, body.size());
+        }
+        return SchedulePageDTO.filter(body, query);
+    }
+
+    private void invalidate(UUID id) {
+        searchCache.invalidateAll();
+        byIdCache.invalidate(id);
+    }
+
+    // Грешки на клиента (4xx) се подават нагоре непроменени и не отварят прекъсвача
+    private <T> T call(Supplier<T> remoteCall) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new ScheduleServiceUnavailableException("Schedule service circuit is open");
+        }
+        try {
+            T result = remoteCall.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (FeignException e) {
+            if (e instanceof RetryableException || e.status() < 0 || e.status() >= 500) {
+                circuitBreaker.onFailure();
+                throw new ScheduleServiceUnavailableException("Schedule service call failed: " + e.getMessage(), e);
+            }
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw new ScheduleServiceUnavailableException("Schedule service call failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static WorkScheduleDTO copyOf(WorkScheduleDTO source) {
+        if (source == null) {
+            return null;
+        }
+        WorkScheduleDTO copy = new WorkScheduleDTO();
+        copy.setId(source.getId());
+        copy.setDate(source.getDate());
+        copy.setShift(source.getShift());
+        copy.setWorkCenter(source.getWorkCenter());
+        copy.setWorkCenterId(source.getWorkCenterId());
+        copy.setSalesOrder(source.getSalesOrder());
+        copy.setItem(source.getItem());
+        copy.setProductionOrder(source.getProductionOrder());
+        copy.setProduct(source.getProduct());
+        copy.setQuantity(source.getQuantity());
+        copy.setTimeInMinutes(source.getTimeInMinutes());
+        return copy;
+    }
+}
@@ -1,17 +1,13 @@
 package com.ControlCards.ControlCards.Service.Impl;
 
+import com.ControlCards.ControlCards.DTO.WorkshopSnapshot;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Model.Workshop;
 import com.ControlCards.ControlCards.Repository.WorkshopRepository;
-import com.ControlCards.ControlCards.Service.UserService;
 import com.ControlCards.ControlCards.Service.WorkshopService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,43 +19,54 @@ public class WorkshopServiceImpl implements WorkshopService {
 
     private final WorkshopRepository workshopRepository;
     private final LogEntryService logEntryService;
-    private final UserService userService;
+    private final CurrentUserService currentUserService;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public WorkshopServiceImpl(WorkshopRepository workshopRepository, LogEntryService logEntryService, UserService userService) {
+    public WorkshopServiceImpl(WorkshopRepository workshopRepository, LogEntryService logEntryService,
+                               CurrentUserService currentUserService, ReferenceDataRegistry referenceDataRegistry) {
         this.workshopRepository = workshopRepository;
         this.logEntryService = logEntryService;
-        this.userService = userService;
+        this.currentUserService = currentUserService;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @Override
-    @Cacheable("workshops")
     public List<Workshop> findAll() {
-        log.debug("Finding all workshops (including inactive) - cache miss, fetching from database");
+        log.debug("Finding all workshops (including inactive)");
         return workshopRepository.findAll();
     }
 
     @Override
-    @Cacheable("activeWorkshops")
     public List<Workshop> findAllActive() {
-        log.debug("Finding all active workshops - cache miss, fetching from database");
+        log.debug("Finding all active workshops");
         return workshopRepository.findByActiveTrue();
     }
 
+    @Override
+    public List<WorkshopSnapshot> findAllSnapshots() {
+        return referenceDataRegistry.getWorkshops();
+    }
+
+    @Override
+    public List<WorkshopSnapshot> findActiveSnapshots() {
+        return referenceDataRegistry.getActiveWorkshops();
+    }
+
     @Override
     public Optional<Workshop> findById(UUID id) {
         return workshopRepository.findById(id);
     }
 
     @Override
-    @CacheEvict(value = {"workshops", "activeWorkshops"}, allEntries = true)
     public Workshop save(Workshop workshop) {
-        log.info("Saving workshop: {} - evicting cache", workshop.getName());
+        log.info("Saving workshop: {} - refreshing reference data", workshop.getName());
         boolean isNew = workshop.getId() == null;
         Workshop savedWorkshop = workshopRepository.save(workshop);
+        referenceDataRegistry.refresh();
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 if (isNew) {
                     logEntryService.createLog(currentUser, "Създаден нов цех: " + savedWorkshop.getName());
@@ -80,17 +87,17 @@ public class WorkshopServiceImpl implements WorkshopService {
     }
 
     @Override
-    @CacheEvict(value = {"workshops", "activeWorkshops"}, allEntries = true)
     public void deactivate(UUID id) {
-        log.info("Deactivating workshop with ID: {} - evicting cache", id);
+        log.info("Deactivating workshop with ID: {} - refreshing reference data", id);
         Workshop workshop = workshopRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Workshop not found: " + id));
         workshop.setActive(false);
         workshopRepository.save(workshop);
+        referenceDataRegistry.refresh();
         log.info("Workshop {} deactivated", workshop.getName());
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 logEntryService.createLog(currentUser, "Деактивиран цех: " + workshop.getName());
             }
@@ -100,17 +107,17 @@ public class WorkshopServiceImpl implements WorkshopService {
     }
 
     @Override
-    @CacheEvict(value = {"workshops", "activeWorkshops"}, allEntries = true)
     public void activate(UUID id) {
-        log.info("Activating workshop with ID: {} - evicting cache", id);
+        log.info("Activating workshop with ID: {} - refreshing reference data", id);
         Workshop workshop = workshopRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Workshop not found: " + id));
         workshop.setActive(true);
         workshopRepository.save(workshop);
+        referenceDataRegistry.refresh();
         log.info("Workshop {} activated", workshop.getName());
         
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = currentUserService.findCurrentUser().orElse(null);
             if (currentUser != null) {
                 logEntryService.createLog(currentUser, "Активиран цех: " + workshop.getName());
             }
@@ -118,16 +125,4 @@ public class WorkshopServiceImpl implements WorkshopService {
             log.warn("Failed to log action: {}", e.getMessage());
         }
     }
-    
-    private User getCurrentUser() {
-        try {
-            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            if (principal instanceof UserDetails userDetails) {
-                return userService.findByUsername(userDetails.getUsername()).orElse(null);
-            }
-        } catch (Exception e) {
-            log.debug("Cannot extract current user: {}", e.getMessage());
-        }
-        return null;
-    }
 }
@@ -11,9 +11,11 @@ public interface UserService {
     Optional<User> findById(UUID id);
     Optional<User> findByUsername(String username);
     Optional<User> findByUsernameWithWorkshops(String username);
+    Optional<User> findByIdWithWorkshops(UUID id);
     User save(User user);
     void deactivate(UUID id);
     void activate(UUID id);
     boolean existsById(UUID id);
+    User findOrCreateSystemUser(String username);
 }
 
@@ -1,14 +1,15 @@
 package com.ControlCards.ControlCards.Service;
 
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
 import com.ControlCards.ControlCards.Model.WorkCenter;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface WorkCenterService {
     List<WorkCenter> findAll(); // Returns all work centers (including inactive) - for admin
-    List<WorkCenter> findAllActive(); // Returns only active work centers
     Optional<WorkCenter> findById(UUID id);
     WorkCenter save(WorkCenter workCenter);
     void deactivate(UUID id);
@@ -16,5 +17,9 @@ public interface WorkCenterService {
     boolean existsById(UUID id);
     List<WorkCenter> findByWorkshopId(UUID workshopId);
     List<WorkCenter> findByWorkshopIdWithWorkshop(UUID workshopId);
+    List<WorkCenterSnapshot> findAllSnapshots(); // Cached read model - for dropdowns and lists
+    List<WorkCenterSnapshot> findActiveSnapshots();
+    Optional<WorkCenterSnapshot> findSnapshotById(UUID id);
+    List<WorkCenterSnapshot> findActiveByWorkshopIds(Collection<UUID> workshopIds);
 }
 
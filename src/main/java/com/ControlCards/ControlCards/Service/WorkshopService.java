@@ -1,5 +1,6 @@
 package com.ControlCards.ControlCards.Service;
 
+import com.ControlCards.ControlCards.DTO.WorkshopSnapshot;
 import com.ControlCards.ControlCards.Model.Workshop;
 
 import java.util.List;
@@ -9,6 +10,8 @@ import java.util.UUID;
 public interface WorkshopService {
     List<Workshop> findAll(); // Returns all workshops (including inactive) - for admin
     List<Workshop> findAllActive(); // Returns only active workshops
+    List<WorkshopSnapshot> findAllSnapshots(); // Cached read model - for dropdowns and lists
+    List<WorkshopSnapshot> findActiveSnapshots();
     Optional<Workshop> findById(UUID id);
     Workshop save(Workshop workshop);
     void deactivate(UUID id);
@@ -0,0 +1,20 @@
+-- Индекси за списъците с карти, архива и нощното почистване на логовете (MySQL 8).
+-- При spring.jpa.hibernate.ddl-auto=update Hibernate създава липсващите индекси сам;
+-- скриптът е за бази, които се обновяват ръчно. ALGORITHM=INPLACE, LOCK=NONE позволява
+-- изграждане без блокиране на записа в таблиците.
+
+-- cards: status = ? AND workshop_id IN (...) ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_cards_status_workshop_created ON cards (status, workshop_id, created_at) ALGORITHM=INPLACE LOCK=NONE;
+-- cards: status = ? ORDER BY created_at DESC (ADMIN)
+CREATE INDEX idx_cards_status_created ON cards (status, created_at) ALGORITHM=INPLACE LOCK=NONE;
+-- cards: workshop_id IN (...) ORDER BY created_at DESC (всички карти за цеховете на потребителя)
+CREATE INDEX idx_cards_workshop_created ON cards (workshop_id, created_at) ALGORITHM=INPLACE LOCK=NONE;
+-- cards: ORDER BY created_at DESC (всички карти, ADMIN)
+CREATE INDEX idx_cards_created ON cards (created_at) ALGORITHM=INPLACE LOCK=NONE;
+
+-- archived_cards: workshop_id IN (...) AND archived_at BETWEEN ... ORDER BY archived_at DESC
+CREATE INDEX idx_archived_cards_workshop_archived ON archived_cards (workshop_id, archived_at) ALGORITHM=INPLACE LOCK=NONE;
+CREATE INDEX idx_archived_cards_archived ON archived_cards (archived_at) ALGORITHM=INPLACE LOCK=NONE;
+
+-- log_entries: DELETE ... WHERE created_at < ? (LogCleanupScheduler)
+CREATE INDEX idx_log_entries_created ON log_entries (created_at) ALGORITHM=INPLACE LOCK=NONE;
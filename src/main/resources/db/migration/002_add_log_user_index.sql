@@ -0,0 +1,3 @@
+-- Индекс за филтъра по потребител в прегледа на логовете (MySQL 8).
+-- log_entries: user_id = ? AND created_at BETWEEN ... ORDER BY created_at DESC
+CREATE INDEX idx_log_entries_user_created ON log_entries (user_id, created_at) ALGORITHM=INPLACE LOCK=NONE;
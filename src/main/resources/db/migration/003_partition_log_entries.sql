@@ -0,0 +1,52 @@
+-- Месечни дялове на log_entries по created_at (MySQL 8).
+-- След това LogCleanupScheduler премахва цели изтекли дялове (DROP PARTITION) вместо да трие
+-- записи, а LogPartitionManager създава предварително дяловете за следващите месеци.
+-- Без този скрипт почистването продължава с изтриване на порции.
+--
+-- Ограничения на MySQL за таблици с дялове:
+--  * ключът на дяловете трябва да е част от първичния ключ -> PRIMARY KEY (id, created_at);
+--  * външни ключове не се поддържат -> външният ключ user_id се премахва тук, само за тази таблица
+--    и само при разделяне на дялове. Без този скрипт (и в H2) ключът остава. След скрипта
+--    spring.jpa.hibernate.ddl-auto=update ще опитва да добави ключа отново при всяко стартиране и ще
+--    записва предупреждение - това е очаквано, целостта на user_id се пази от приложението
+--    (потребителите не се изтриват, а се деактивират).
+--
+-- Изпълнява се веднъж, в прозорец без натоварване - PARTITION BY копира таблицата.
+-- Дяловете се изчисляват от датата на изпълнение: от месеца на най-стария пазен запис до
+-- @months_ahead месеца напред. Първият дял поема и всички по-стари записи, а pmax остава празен,
+-- така че LogPartitionManager го разделя без копиране на данни.
+-- Стойностите трябва да съвпадат с log.cleanup.days-to-keep и log.partition.months-ahead.
+
+SET @days_to_keep := 90;
+SET @months_ahead := 3;
+
+SET @fk_name := (SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+                 WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'log_entries'
+                   AND COLUMN_NAME = 'user_id' AND REFERENCED_TABLE_NAME IS NOT NULL LIMIT 1);
+SET @drop_fk := IF(@fk_name IS NULL, 'SELECT 1',
+                   CONCAT('ALTER TABLE log_entries DROP FOREIGN KEY ', @fk_name));
+PREPARE stmt FROM @drop_fk;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE log_entries DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+
+-- PARTITION pYYYYMM VALUES LESS THAN ('<първо число на следващия месец>'), ... за всеки месец
+SET SESSION group_concat_max_len = 65535;
+SET @partitions := (
+    WITH RECURSIVE months (month_start) AS (
+        SELECT CAST(DATE_FORMAT(CURDATE() - INTERVAL @days_to_keep DAY, '%Y-%m-01') AS DATE)
+        UNION ALL
+        SELECT month_start + INTERVAL 1 MONTH FROM months
+        WHERE month_start < CAST(DATE_FORMAT(CURDATE() + INTERVAL @months_ahead MONTH, '%Y-%m-01') AS DATE)
+    )
+    SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                               ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, ''')')
+                        ORDER BY month_start SEPARATOR ', ')
+    FROM months
+);
+SET @partition_sql := CONCAT('ALTER TABLE log_entries PARTITION BY RANGE COLUMNS (created_at) (',
+                             @partitions, ', PARTITION pmax VALUES LESS THAN (MAXVALUE))');
+PREPARE stmt FROM @partition_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
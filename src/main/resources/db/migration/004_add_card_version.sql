@@ -0,0 +1,4 @@
+-- Колона за оптимистично заключване на картите (@Version в Card).
+-- При spring.jpa.hibernate.ddl-auto=update Hibernate добавя колоната сам;
+-- скриптът е за бази, които се обновяват ръчно. Съществуващите карти започват от версия 0.
+ALTER TABLE cards ADD COLUMN version BIGINT NOT NULL DEFAULT 0, ALGORITHM=INSTANT;
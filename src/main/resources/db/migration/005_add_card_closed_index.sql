@@ -0,0 +1,6 @@
+-- Индекс за автоматичното архивиране на затворените карти (CardArchiveScheduler, MySQL 8).
+-- При spring.jpa.hibernate.ddl-auto=update Hibernate създава индекса сам;
+-- скриптът е за бази, които се обновяват ръчно.
+
+-- cards: status = 'CLOSED' AND closed_at < ? ORDER BY closed_at
+CREATE INDEX idx_cards_status_closed ON cards (status, closed_at) ALGORITHM=INPLACE LOCK=NONE;
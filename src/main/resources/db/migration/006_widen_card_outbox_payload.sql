@@ -0,0 +1,6 @@
+-- Съдържанието на card_outbox (CardViewDTO като JSON) може да надхвърли 4000 знака, а в strict
+-- режим MySQL отказва записа и отменя промяната по картата (@Lob в CardOutboxEvent, MySQL 8).
+-- spring.jpa.hibernate.ddl-auto=update не сменя типа на съществуваща колона, затова скриптът е
+-- нужен и за бази, в които таблицата вече е създадена от Hibernate. Таблицата е малка - публикуваните
+-- записи се изтриват след cards.outbox.retention-hours.
+ALTER TABLE card_outbox MODIFY COLUMN payload LONGTEXT NOT NULL;
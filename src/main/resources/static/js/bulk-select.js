@@ -0,0 +1,17 @@
+// "Избери всички" за масовите действия над картите. Отметките са в редовете на таблицата
+// и са свързани с формата чрез атрибута form, затова се търсят при всяко натискане -
+// така се хващат и редовете, добавени по-късно от card-board.js.
+(function () {
+    'use strict';
+
+    var toggle = document.getElementById('bulk-select-all');
+    if (!toggle || !toggle.form) {
+        return;
+    }
+    toggle.addEventListener('change', function () {
+        var boxes = document.querySelectorAll('input[name="cardIds"][form="' + toggle.form.id + '"]');
+        for (var i = 0; i < boxes.length; i++) {
+            boxes[i].checked = toggle.checked;
+        }
+    });
+})();
@@ -0,0 +1,175 @@
+// Обновява таблицата с карти (#card-board) при промени, изпратени от /cards/stream,
+// без презареждане на страницата. Редовете са по data-card-id.
+//   created  - нови карти за техника: добавя CREATED, премахва всичко останало
+//   extended - разширени карти: добавя EXTENDED, премахва CLOSED и ARCHIVED
+//   all      - всички карти: добавя CREATED, обновява EXTENDED и CLOSED, премахва ARCHIVED
+// Нови редове се добавят само на първата страница - на следващите би се нарушил редът.
+(function () {
+    'use strict';
+
+    var table = document.getElementById('card-board');
+    var emptyState = document.querySelector('.empty-state');
+    if (!table && !emptyState) {
+        return;
+    }
+    var streamUrl = table ? table.dataset.streamUrl : emptyState.dataset.streamUrl;
+    if (!streamUrl || typeof EventSource === 'undefined') {
+        return;
+    }
+
+    var STATUS_LABELS = {
+        CREATED: ['Създадена', 'status-created'],
+        EXTENDED: ['Разширена', 'status-extended'],
+        CLOSED: ['Затворена', 'status-closed']
+    };
+    var CLOSE_CONFIRM = 'Сигурни ли сте, че искате да затворите тази карта?';
+
+    var board = (table || emptyState).dataset.board;
+    var firstPage = (table || emptyState).dataset.firstPage === 'true';
+
+    function action(type) {
+        if (board === 'created') {
+            return type === 'CREATED' ? 'add' : 'remove';
+        }
+        if (board === 'extended') {
+            return type === 'EXTENDED' ? 'add' : (type === 'CLOSED' || type === 'ARCHIVED' ? 'remove' : null);
+        }
+        if (type === 'CREATED') {
+            return 'add';
+        }
+        return type === 'ARCHIVED' ? 'remove' : 'replace';
+    }
+
+    function cell(row, text, className) {
+        var td = document.createElement('td');
+        if (className) {
+            td.className = className;
+        }
+        td.textContent = text;
+        row.appendChild(td);
+        return td;
+    }
+
+    function closeForm(card) {
+        var form = document.createElement('form');
+        form.method = 'post';
+        form.action = table.dataset.closeUrl + card.cardId;
+        form.style.display = 'inline';
+        var csrf = document.createElement('input');
+        csrf.type = 'hidden';
+        csrf.name = table.dataset.csrfName;
+        csrf.value = table.dataset.csrfToken;
+        form.appendChild(csrf);
+        var button = document.createElement('button');
+        button.type = 'submit';
+        button.className = 'action-btn';
+        button.textContent = 'Затвори';
+        button.addEventListener('click', function (e) {
+            if (!confirm(CLOSE_CONFIRM)) {
+                e.preventDefault();
+            }
+        });
+        form.appendChild(button);
+        return form;
+    }
+
+    // Отметка за масовото затваряне (формата е извън таблицата - атрибут form)
+    function bulkCheckbox(card) {
+        var checkbox = document.createElement('input');
+        checkbox.type = 'checkbox';
+        checkbox.name = 'cardIds';
+        checkbox.value = card.cardId;
+        checkbox.className = 'bulk-select';
+        checkbox.setAttribute('form', 'bulk-form');
+        return checkbox;
+    }
+
+    function createdRow(card) {
+        var row = document.createElement('tr');
+        cell(row, card.workshopName);
+        cell(row, card.workCenterName);
+        cell(row, card.shift);
+        cell(row, card.shortDescription, 'description-cell');
+        cell(row, card.createdBy);
+        var link = document.createElement('a');
+        link.href = table.dataset.extendUrl + card.cardId;
+        link.className = 'action-link';
+        link.textContent = 'Разшири';
+        cell(row, '').appendChild(link);
+        return row;
+    }
+
+    function managerRow(card) {
+        var row = document.createElement('tr');
+        cell(row, card.workshopName);
+        cell(row, card.workCenterName);
+        cell(row, card.shift);
+        cell(row, card.shortDescription, 'description-cell');
+        cell(row, card.detailedDescription != null ? card.detailedDescription : 'Няма', 'detailed-description-cell');
+        cell(row, card.resolutionDurationMinutes != null ? card.resolutionDurationMinutes + ' мин' : 'Няма');
+        cell(row, card.extendedBy ? card.extendedBy : 'Няма');
+        var statusCell = cell(row, '');
+        var label = STATUS_LABELS[card.status];
+        if (label) {
+            var badge = document.createElement('span');
+            badge.className = 'status-badge ' + label[1];
+            badge.textContent = label[0];
+            statusCell.appendChild(badge);
+        }
+        if (table.dataset.canClose === 'true') {
+            var actions = cell(row, '');
+            var closable = card.status === 'EXTENDED'
+                || (card.status === 'CREATED' && table.dataset.canCloseCreated === 'true');
+            if (closable) {
+                if (document.getElementById('bulk-form')) {
+                    actions.appendChild(bulkCheckbox(card));
+                }
+                actions.appendChild(closeForm(card));
+            }
+        }
+        return row;
+    }
+
+    function findRow(cardId) {
+        return table ? table.querySelector('tbody tr[data-card-id="' + cardId + '"]') : null;
+    }
+
+    function apply(card) {
+        var what = action(card.type);
+        var existing = findRow(card.cardId);
+        if (what === 'remove') {
+            if (existing) {
+                existing.parentNode.removeChild(existing);
+            }
+            return;
+        }
+        if (what === null || (what === 'replace' && !existing) || (what === 'add' && !existing && !firstPage)) {
+            return;
+        }
+        if (!table) {
+            // Празна страница без таблица - по-просто е да се зареди наново
+            window.location.reload();
+            return;
+        }
+        var row = board === 'created' ? createdRow(card) : managerRow(card);
+        row.dataset.cardId = card.cardId;
+        if (existing) {
+            existing.parentNode.replaceChild(row, existing);
+        } else {
+            var body = table.tBodies[0];
+            body.insertBefore(row, body.firstChild);
+        }
+    }
+
+    var source = new EventSource(streamUrl);
+    source.addEventListener('card', function (e) {
+        try {
+            apply(JSON.parse(e.data));
+        } catch (err) {
+            console.warn('Неуспешно обновяване на таблицата с карти', err);
+        }
+    });
+    window.addEventListener('beforeunload', function () {
+        source.close();
+    });
+})();
@@ -0,0 +1,126 @@
+package com.ControlCards.ControlCards.Config;
+
+import com.ControlCards.ControlCards.Exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class BoundedBCryptPasswordEncoderTest {
+
+    private MeterRegistry meterRegistry;
+    private BoundedBCryptPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordEncoder = new BoundedBCryptPasswordEncoder(5, 2, 10, 10000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void testEncodeAndMatches() {
+        String encoded = passwordEncoder.encode("secret");
+
+        assertTrue(encoded.startsWith("$2a$05$"));
+        assertTrue(passwordEncoder.matches("secret", encoded));
+        assertFalse(passwordEncoder.matches("wrong", encoded));
+        assertEquals(3, meterRegistry.get("password.hashing.duration").timer().count());
+    }
+
+    @Test
+    void testQueueDepthIsPublished() {
+        assertEquals(0, meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value());
+        assertEquals(0, passwordEncoder.getQueueSize());
+    }
+
+    @Test
+    void testSaturatedPoolRejectsImmediately() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedBCryptPasswordEncoder saturated = new BoundedBCryptPasswordEncoder(12, 1, 1, 10000, registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // Една задача в нишката и една в опашката
+            callers.submit(() -> saturated.encode("first"));
+            awaitUntil(() -> registry.get("executor.active").tag("name", "password.hashing").gauge().value() == 1);
+            callers.submit(() -> saturated.encode("second"));
+            awaitUntil(() -> saturated.getQueueSize() == 1);
+
+            long start = System.nanoTime();
+            assertThrows(PasswordHashingOverloadedException.class, () -> saturated.encode("third"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+            assertEquals(1.0, registry.get("password.hashing.rejected").counter().count());
+        } finally {
+            callers.shutdownNow();
+            saturated.destroy();
+        }
+    }
+
+    @Test
+    void testWaitIsBoundedByTimeout() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedBCryptPasswordEncoder slow = new BoundedBCryptPasswordEncoder(12, 1, 1, 10, registry);
+        try {
+            assertThrows(PasswordHashingOverloadedException.class, () -> slow.encode("secret"));
+            assertEquals(1.0, registry.get("password.hashing.rejected").counter().count());
+        } finally {
+            slow.destroy();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testUpgradeEncodingWhenCostDiffers() {
+        assertTrue(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(passwordEncoder.upgradeEncoding("not-a-bcrypt-hash"));
+        assertFalse(passwordEncoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void testSuccessfulLoginRehashesOldCost() {
+        UserDetails user = User.withUsername("worker")
+                .password(new BCryptPasswordEncoder(4).encode("secret"))
+                .roles("WORKER")
+                .build();
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+        when(passwordService.updatePassword(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(username -> User.withUserDetails(user).build());
+        provider.setUserDetailsPasswordService(passwordService);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("worker", "secret"));
+
+        verify(passwordService).updatePassword(any(UserDetails.class),
+                argThat(newHash -> newHash.startsWith("$2a$05$") && passwordEncoder.matches("secret", newHash)));
+    }
+}
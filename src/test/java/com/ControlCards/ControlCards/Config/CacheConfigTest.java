@@ -0,0 +1,60 @@
+package com.ControlCards.ControlCards.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private final CacheConfig cacheConfig = new CacheConfig();
+
+    @Test
+    void testAllCachesAreRegistered() {
+        CacheManager cacheManager = cacheConfig.cacheManager(new MockEnvironment());
+
+        assertTrue(cacheManager.getCacheNames().containsAll(CacheConfig.CACHE_NAMES));
+    }
+
+    @Test
+    void testPerCacheSpecOverridesDefault() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("cache.spec.default", "maximumSize=100,expireAfterWrite=5m")
+                .withProperty("cache.spec.smallCache", "maximumSize=2,expireAfterWrite=1m");
+
+        CacheManager cacheManager = cacheConfig.cacheManager(environment);
+
+        assertEquals(2, maximumSize(cacheManager, "smallCache"));
+        assertEquals(100, maximumSize(cacheManager, "otherCache"));
+    }
+
+    @Test
+    void testStatisticsAreRecorded() {
+        CacheManager cacheManager = cacheConfig.cacheManager(new MockEnvironment());
+        org.springframework.cache.Cache cache = cacheManager.getCache("statsCache");
+
+        cache.get("missing");
+        cache.put("key", "value");
+        cache.get("key");
+
+        Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+        assertEquals(1, nativeCache.stats().hitCount());
+        assertEquals(1, nativeCache.stats().missCount());
+    }
+
+    @Test
+    void testUnknownCacheIsBoundedToo() {
+        CacheManager cacheManager = cacheConfig.cacheManager(new MockEnvironment()
+                .withProperty("cache.spec.default", "maximumSize=10"));
+
+        assertEquals(10, maximumSize(cacheManager, "someOtherCache"));
+    }
+
+    private long maximumSize(CacheManager cacheManager, String cacheName) {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(cacheName);
+        return cache.getNativeCache().policy().eviction().orElseThrow().getMaximum();
+    }
+}
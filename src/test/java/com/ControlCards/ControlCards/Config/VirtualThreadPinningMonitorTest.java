@@ -0,0 +1,58 @@
+package com.ControlCards.ControlCards.Config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, 20);
+    }
+
+    @Test
+    void testAttributesPinningToApplicationFrame() {
+        List<String> frames = List.of(
+                "java.lang.Object.wait0:-1",
+                "com.mysql.cj.jdbc.ConnectionImpl.execSQL:1024",
+                "com.ControlCards.ControlCards.Service.Impl.ReferenceDataRegistry.load:95",
+                "com.ControlCards.ControlCards.Service.Impl.ReferenceDataRegistry.refresh:78");
+
+        monitor.report(frames, Duration.ofMillis(40));
+        monitor.report(frames, Duration.ofMillis(60));
+
+        Timer timer = meterRegistry.get(VirtualThreadPinningMonitor.METRIC_NAME)
+                .tag("frame", "com.ControlCards.ControlCards.Service.Impl.ReferenceDataRegistry.load:95")
+                .timer();
+        assertEquals(2, timer.count());
+        assertEquals(100, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void testPinningOutsideApplicationCode() {
+        monitor.report(List.of("java.lang.Object.wait0:-1", "org.hibernate.Foo.bar:1"), Duration.ofMillis(25));
+        monitor.report(List.of(), Duration.ofMillis(25));
+
+        assertEquals(2, meterRegistry.get(VirtualThreadPinningMonitor.METRIC_NAME)
+                .tag("frame", VirtualThreadPinningMonitor.OTHER_FRAME)
+                .timer()
+                .count());
+    }
+
+    @Test
+    void testNotRunningUntilStarted() {
+        assertFalse(monitor.isRunning());
+    }
+}
@@ -3,14 +3,19 @@ package com.ControlCards.ControlCards.Controllers;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Model.WorkCenter;
 import com.ControlCards.ControlCards.Model.Workshop;
-import com.ControlCards.ControlCards.Model.LogEntry;
+import com.ControlCards.ControlCards.DTO.LogEntryFilterDTO;
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
+import com.ControlCards.ControlCards.DTO.WorkshopSnapshot;
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
+import com.ControlCards.ControlCards.Service.Impl.PageDataLoader;
 import com.ControlCards.ControlCards.Service.UserService;
 import com.ControlCards.ControlCards.Service.WorkCenterService;
 import com.ControlCards.ControlCards.Service.WorkshopService;
 import com.ControlCards.ControlCards.Util.Enums.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import com.ControlCards.ControlCards.Config.PageLoadConfig;
 import com.ControlCards.ControlCards.Config.SecurityConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -19,7 +24,11 @@ import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.data.domain.PageImpl;
 
+import java.io.Writer;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,12 +38,13 @@ import java.util.UUID;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AdminController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, PageLoadConfig.class, PageDataLoader.class})
 @ActiveProfiles("test")
 class AdminControllerApiTest {
 
@@ -89,7 +99,7 @@ class AdminControllerApiTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void testShowCreateUserForm() throws Exception {
-        when(workshopService.findAll()).thenReturn(new ArrayList<>());
+        when(workshopService.findAllSnapshots()).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get("/admin/users/new"))
                 .andExpect(status().isOk())
@@ -98,15 +108,14 @@ class AdminControllerApiTest {
                 .andExpect(model().attributeExists("roles"))
                 .andExpect(model().attributeExists("allWorkshops"));
 
-        verify(workshopService, times(1)).findAll();
+        verify(workshopService, times(1)).findAllSnapshots();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testShowEditUserForm() throws Exception {
-        when(userService.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(userService.findByUsernameWithWorkshops("testuser")).thenReturn(Optional.of(testUser));
-        when(workshopService.findAll()).thenReturn(new ArrayList<>());
+        when(userService.findByIdWithWorkshops(testUserId)).thenReturn(Optional.of(testUser));
+        when(workshopService.findAllSnapshots()).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get("/admin/users/edit/{id}", testUserId))
                 .andExpect(status().isOk())
@@ -115,21 +124,21 @@ class AdminControllerApiTest {
                 .andExpect(model().attributeExists("roles"))
                 .andExpect(model().attributeExists("allWorkshops"));
 
-        verify(userService, times(1)).findById(testUserId);
-        verify(workshopService, times(1)).findAll();
+        verify(userService, times(1)).findByIdWithWorkshops(testUserId);
+        verify(workshopService, times(1)).findAllSnapshots();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testShowEditUserFormNotFound() throws Exception {
         UUID nonExistentId = UUID.randomUUID();
-        when(userService.findById(nonExistentId)).thenReturn(Optional.empty());
+        when(userService.findByIdWithWorkshops(nonExistentId)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/admin/users/edit/{id}", nonExistentId))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/admin/users"));
 
-        verify(userService, times(1)).findById(nonExistentId);
+        verify(userService, times(1)).findByIdWithWorkshops(nonExistentId);
     }
 
     @Test
@@ -187,21 +196,21 @@ class AdminControllerApiTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void testListWorkCenters() throws Exception {
-        List<WorkCenter> workCenters = new ArrayList<>();
-        when(workCenterService.findAll()).thenReturn(workCenters);
+        List<WorkCenterSnapshot> workCenters = new ArrayList<>();
+        when(workCenterService.findAllSnapshots()).thenReturn(workCenters);
 
         mockMvc.perform(get("/admin/workcenters"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-workcenters"))
                 .andExpect(model().attributeExists("workCenters"));
 
-        verify(workCenterService, times(1)).findAll();
+        verify(workCenterService, times(1)).findAllSnapshots();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testShowCreateWorkCenterForm() throws Exception {
-        when(workshopService.findAllActive()).thenReturn(new ArrayList<>());
+        when(workshopService.findActiveSnapshots()).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get("/admin/workcenters/new"))
                 .andExpect(status().isOk())
@@ -209,7 +218,7 @@ class AdminControllerApiTest {
                 .andExpect(model().attributeExists("workCenter"))
                 .andExpect(model().attributeExists("workshops"));
 
-        verify(workshopService, times(1)).findAllActive();
+        verify(workshopService, times(1)).findActiveSnapshots();
     }
 
     @Test
@@ -241,7 +250,7 @@ class AdminControllerApiTest {
         WorkCenter workCenter = new WorkCenter();
         workCenter.setId(workCenterId);
         when(workCenterService.findById(workCenterId)).thenReturn(Optional.of(workCenter));
-        when(workshopService.findAllActive()).thenReturn(new ArrayList<>());
+        when(workshopService.findActiveSnapshots()).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get("/admin/workcenters/edit/{id}", workCenterId))
                 .andExpect(status().isOk())
@@ -250,7 +259,7 @@ class AdminControllerApiTest {
                 .andExpect(model().attributeExists("workshops"));
 
         verify(workCenterService, times(1)).findById(workCenterId);
-        verify(workshopService, times(1)).findAllActive();
+        verify(workshopService, times(1)).findActiveSnapshots();
     }
 
     @Test
@@ -298,15 +307,15 @@ class AdminControllerApiTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void testListWorkshops() throws Exception {
-        List<Workshop> workshops = new ArrayList<>();
-        when(workshopService.findAll()).thenReturn(workshops);
+        List<WorkshopSnapshot> workshops = new ArrayList<>();
+        when(workshopService.findAllSnapshots()).thenReturn(workshops);
 
         mockMvc.perform(get("/admin/workshops"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-workshops"))
                 .andExpect(model().attributeExists("workshops"));
 
-        verify(workshopService, times(1)).findAll();
+        verify(workshopService, times(1)).findAllSnapshots();
     }
 
     @Test
@@ -395,21 +404,75 @@ class AdminControllerApiTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void testListLogs() throws Exception {
-        List<LogEntry> logs = new ArrayList<>();
+        List<LogEntryViewDTO> logs = new ArrayList<>();
         List<User> users = Arrays.asList(testUser);
-        when(logEntryService.findAll()).thenReturn(logs);
+        when(logEntryService.search(any(LogEntryFilterDTO.class))).thenReturn(new PageImpl<>(logs));
         when(userService.findAll()).thenReturn(users);
 
         mockMvc.perform(get("/admin/logs"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-logs"))
                 .andExpect(model().attributeExists("logs"))
+                .andExpect(model().attributeExists("page"))
                 .andExpect(model().attributeExists("users"));
 
-        verify(logEntryService, times(1)).findAll();
+        verify(logEntryService, never()).findAll();
         verify(userService, times(1)).findAll();
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testListLogsBindsFilter() throws Exception {
+        UUID userId = testUser.getId();
+        when(logEntryService.search(any(LogEntryFilterDTO.class))).thenReturn(new PageImpl<>(new ArrayList<>()));
+        when(userService.findAll()).thenReturn(Arrays.asList(testUser));
+
+        mockMvc.perform(get("/admin/logs")
+                        .param("userId", userId.toString())
+                        .param("dateFrom", "2025-03-01")
+                        .param("dateTo", "2025-03-31")
+                        .param("text", "карта")
+                        .param("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("admin-logs"));
+
+        verify(logEntryService, times(1)).search(argThat(filter ->
+                userId.equals(filter.getUserId())
+                        && LocalDate.of(2025, 3, 1).equals(filter.getDateFrom())
+                        && LocalDate.of(2025, 3, 31).equals(filter.getDateTo())
+                        && "карта".equals(filter.getText())
+                        && filter.getPageNumber() == 2));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testExportLogs() throws Exception {
+        when(logEntryService.exportCsv(any(LogEntryFilterDTO.class), any(Writer.class))).thenAnswer(invocation -> {
+            Writer writer = invocation.getArgument(1);
+            writer.write("id,username,description,created_at\n");
+            writer.flush();
+            return 0L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/admin/logs/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"logs.csv\""))
+                .andExpect(content().string("id,username,description,created_at\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "WORKER")
+    void testExportLogsForbiddenForWorker() throws Exception {
+        mockMvc.perform(get("/admin/logs/export"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(logEntryService);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testCreateUserWithSelectAll() throws Exception {
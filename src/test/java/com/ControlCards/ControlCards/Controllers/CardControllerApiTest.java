@@ -3,10 +3,13 @@ package com.ControlCards.ControlCards.Controllers;
 import com.ControlCards.ControlCards.Config.SecurityConfig;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Model.Workshop;
-import com.ControlCards.ControlCards.Model.WorkCenter;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
 import com.ControlCards.ControlCards.Service.CardService;
+import com.ControlCards.ControlCards.Service.Impl.CardEventBroadcaster;
+import com.ControlCards.ControlCards.Service.Impl.CurrentUserService;
 import com.ControlCards.ControlCards.Service.UserService;
 import com.ControlCards.ControlCards.Service.WorkCenterService;
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
 import com.ControlCards.ControlCards.Util.Enums.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,12 +17,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,8 +34,13 @@ import java.util.UUID;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import com.ControlCards.ControlCards.DTO.ArchivedCardFilterDTO;
+import com.ControlCards.ControlCards.DTO.ArchivedCardPageDTO;
+import com.ControlCards.ControlCards.DTO.CardBulkResultDTO;
 import com.ControlCards.ControlCards.DTO.CardCreateDTO;
+import com.ControlCards.ControlCards.DTO.CardCursorDTO;
 import com.ControlCards.ControlCards.DTO.CardExtendDTO;
+import com.ControlCards.ControlCards.DTO.CardPageDTO;
 import com.ControlCards.ControlCards.Util.Enums.Shift;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -53,6 +65,12 @@ class CardControllerApiTest {
     @MockitoBean
     private WorkCenterService workCenterService;
 
+    @MockitoBean
+    private CurrentUserService currentUserService;
+
+    @MockitoBean
+    private CardEventBroadcaster cardEventBroadcaster;
+
     private User testUser;
 
     @BeforeEach
@@ -89,7 +107,7 @@ class CardControllerApiTest {
     @WithMockUser(roles = "TECHNICIAN")
     void testListCreatedCards() throws Exception {
         when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
-        when(cardService.getCreatedCards(any(User.class))).thenReturn(new ArrayList<>());
+        when(cardService.getCreatedCards(any(User.class), any())).thenReturn(CardPageDTO.empty(CardCursorDTO.DEFAULT_SIZE));
 
         mockMvc.perform(get("/cards/created"))
                 .andExpect(status().isOk())
@@ -97,14 +115,14 @@ class CardControllerApiTest {
                 .andExpect(model().attributeExists("cards"));
 
         verify(userService, times(1)).findByUsernameWithWorkshops("user");
-        verify(cardService, times(1)).getCreatedCards(any(User.class));
+        verify(cardService, times(1)).getCreatedCards(any(User.class), any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testListAllCards() throws Exception {
         when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
-        when(cardService.getAllCards(any(User.class))).thenReturn(new ArrayList<>());
+        when(cardService.getAllCards(any(User.class), any())).thenReturn(CardPageDTO.empty(CardCursorDTO.DEFAULT_SIZE));
 
         mockMvc.perform(get("/cards/all"))
                 .andExpect(status().isOk())
@@ -113,14 +131,58 @@ class CardControllerApiTest {
                 .andExpect(model().attribute("pageTitle", "Всички карти"));
 
         verify(userService, times(1)).findByUsernameWithWorkshops("user");
-        verify(cardService, times(1)).getAllCards(any(User.class));
+        verify(cardService, times(1)).getAllCards(any(User.class), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testListAllCardsNextPage() throws Exception {
+        LocalDateTime afterCreatedAt = LocalDateTime.of(2025, 1, 15, 8, 30, 0);
+        UUID afterId = UUID.randomUUID();
+        CardPageDTO page = new CardPageDTO(new ArrayList<>(), 20, true, afterCreatedAt.minusHours(1), UUID.randomUUID());
+        when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
+        when(cardService.getAllCards(any(User.class), any())).thenReturn(page);
+
+        mockMvc.perform(get("/cards/all")
+                        .param("afterCreatedAt", "2025-01-15T08:30:00")
+                        .param("afterId", afterId.toString())
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("manager-cards"))
+                .andExpect(model().attribute("page", page))
+                .andExpect(model().attribute("pageUrl", "/cards/all"));
+
+        verify(cardService, times(1)).getAllCards(any(User.class),
+                eq(new CardCursorDTO(afterCreatedAt, afterId, 20)));
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    void testListArchivedCardsWithFilter() throws Exception {
+        testUser.setRole(Role.MANAGER);
+        when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
+        when(cardService.getArchivedCards(any(User.class), any())).thenReturn(ArchivedCardPageDTO.empty(50));
+
+        mockMvc.perform(get("/cards/archived")
+                        .param("dateFrom", "2025-01-01")
+                        .param("dateTo", "2025-01-31")
+                        .param("shift", "SECOND"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("archived-cards"))
+                .andExpect(model().attributeExists("cards"))
+                .andExpect(model().attributeExists("page"))
+                .andExpect(model().attributeExists("shifts"));
+
+        verify(cardService, times(1)).getArchivedCards(any(User.class),
+                eq(new ArchivedCardFilterDTO(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31),
+                        Shift.SECOND, null, null, null)));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testListClosedCards() throws Exception {
         when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
-        when(cardService.getClosedCards(any(User.class))).thenReturn(new ArrayList<>());
+        when(cardService.getClosedCards(any(User.class), any())).thenReturn(CardPageDTO.empty(CardCursorDTO.DEFAULT_SIZE));
 
         mockMvc.perform(get("/cards/closed"))
                 .andExpect(status().isOk())
@@ -129,7 +191,7 @@ class CardControllerApiTest {
                 .andExpect(model().attribute("pageTitle", "Затворени карти"));
 
         verify(userService, times(1)).findByUsernameWithWorkshops("user");
-        verify(cardService, times(1)).getClosedCards(any(User.class));
+        verify(cardService, times(1)).getClosedCards(any(User.class), any());
     }
 
     @Test
@@ -138,7 +200,7 @@ class CardControllerApiTest {
         UUID cardId = UUID.randomUUID();
         when(cardService.cardExists(cardId)).thenReturn(true);
         when(cardService.canExtendCard(eq(cardId), any(User.class))).thenReturn(true);
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
 
         mockMvc.perform(get("/cards/extend/{id}", cardId))
                 .andExpect(status().isOk())
@@ -201,7 +263,7 @@ class CardControllerApiTest {
     @WithMockUser(roles = "TECHNICIAN")
     void testExtendCardSuccess() throws Exception {
         UUID cardId = UUID.randomUUID();
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         doNothing().when(cardService).extendCard(eq(cardId), any(CardExtendDTO.class), any(User.class));
 
         mockMvc.perform(post("/cards/extend/{id}", cardId)
@@ -211,7 +273,7 @@ class CardControllerApiTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/cards/created"));
 
-        verify(userService, times(1)).findByUsername("user");
+        verify(currentUserService, times(1)).getCurrentUser();
         verify(cardService, times(1)).extendCard(eq(cardId), any(CardExtendDTO.class), any(User.class));
     }
 
@@ -220,7 +282,7 @@ class CardControllerApiTest {
     void testCloseCardSuccess() throws Exception {
         UUID cardId = UUID.randomUUID();
         testUser.setRole(Role.PRODUCTION_MANAGER);
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         doNothing().when(cardService).closeCard(eq(cardId), any(User.class));
 
         mockMvc.perform(post("/cards/close/{id}", cardId)
@@ -228,7 +290,7 @@ class CardControllerApiTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/cards/extended"));
 
-        verify(userService, times(1)).findByUsername("user");
+        verify(currentUserService, times(1)).getCurrentUser();
         verify(cardService, times(1)).closeCard(eq(cardId), any(User.class));
     }
 
@@ -237,7 +299,7 @@ class CardControllerApiTest {
     void testCloseCardByAdmin() throws Exception {
         UUID cardId = UUID.randomUUID();
         testUser.setRole(Role.ADMIN);
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         doNothing().when(cardService).closeCard(eq(cardId), any(User.class));
 
         mockMvc.perform(post("/cards/close/{id}", cardId)
@@ -245,16 +307,77 @@ class CardControllerApiTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/cards/extended"));
 
-        verify(userService, times(1)).findByUsername("user");
+        verify(currentUserService, times(1)).getCurrentUser();
         verify(cardService, times(1)).closeCard(eq(cardId), any(User.class));
     }
 
+    @Test
+    @WithMockUser(roles = "PRODUCTION_MANAGER")
+    void testBulkCloseRendersReport() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        testUser.setRole(Role.PRODUCTION_MANAGER);
+        when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
+        CardBulkResultDTO result = new CardBulkResultDTO(CardBulkResultDTO.Outcome.CLOSED, List.of(
+                new CardBulkResultDTO.Item(first, "Спряла машина", CardBulkResultDTO.Outcome.CLOSED, null),
+                new CardBulkResultDTO.Item(second, "Теч", CardBulkResultDTO.Outcome.INVALID_STATUS, CardStatus.CREATED)));
+        when(cardService.closeCards(List.of(first, second), testUser)).thenReturn(result);
+
+        mockMvc.perform(post("/cards/bulk/close")
+                        .param("cardIds", first.toString(), second.toString())
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("card-bulk-result"))
+                .andExpect(model().attribute("result", result))
+                .andExpect(model().attribute("backUrl", "/cards/extended"));
+    }
+
+    @Test
+    @WithMockUser(roles = "PRODUCTION_MANAGER")
+    void testBulkCloseWithoutSelectionRedirects() throws Exception {
+        mockMvc.perform(post("/cards/bulk/close")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/cards/extended"));
+
+        verify(cardService, never()).closeCards(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "PRODUCTION_MANAGER")
+    void testBulkArchive() throws Exception {
+        UUID cardId = UUID.randomUUID();
+        testUser.setRole(Role.PRODUCTION_MANAGER);
+        when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
+        when(cardService.archiveCards(List.of(cardId), testUser)).thenReturn(new CardBulkResultDTO(
+                CardBulkResultDTO.Outcome.ARCHIVED, List.of(
+                        new CardBulkResultDTO.Item(cardId, "Теч", CardBulkResultDTO.Outcome.ARCHIVED, null))));
+
+        mockMvc.perform(post("/cards/bulk/archive")
+                        .param("cardIds", cardId.toString())
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("card-bulk-result"))
+                .andExpect(model().attribute("backUrl", "/cards/closed"));
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    void testBulkArchiveForbiddenForManager() throws Exception {
+        mockMvc.perform(post("/cards/bulk/archive")
+                        .param("cardIds", UUID.randomUUID().toString())
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verify(cardService, never()).archiveCards(any(), any());
+    }
+
     @Test
     @WithMockUser(roles = "MANAGER")
     void testListExtendedCards() throws Exception {
         testUser.setRole(Role.MANAGER);
         when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
-        when(cardService.getExtendedCards(any(User.class))).thenReturn(new ArrayList<>());
+        when(cardService.getExtendedCards(any(User.class), any())).thenReturn(CardPageDTO.empty(CardCursorDTO.DEFAULT_SIZE));
 
         mockMvc.perform(get("/cards/extended"))
                 .andExpect(status().isOk())
@@ -263,7 +386,7 @@ class CardControllerApiTest {
                 .andExpect(model().attribute("pageTitle", "Разширени карти"));
 
         verify(userService, times(1)).findByUsernameWithWorkshops("user");
-        verify(cardService, times(1)).getExtendedCards(any(User.class));
+        verify(cardService, times(1)).getExtendedCards(any(User.class), any());
     }
 
     @Test
@@ -294,7 +417,7 @@ class CardControllerApiTest {
     void testExtendCardWithValidationErrors() throws Exception {
         UUID cardId = UUID.randomUUID();
         when(cardService.cardExists(cardId)).thenReturn(true);
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         when(cardService.canExtendCard(eq(cardId), any(User.class))).thenReturn(true);
 
         mockMvc.perform(post("/cards/extend/{id}", cardId)
@@ -314,7 +437,7 @@ class CardControllerApiTest {
     void testShowExtendFormCannotExtend() throws Exception {
         UUID cardId = UUID.randomUUID();
         when(cardService.cardExists(cardId)).thenReturn(true);
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         when(cardService.canExtendCard(eq(cardId), any(User.class))).thenReturn(false);
 
         mockMvc.perform(get("/cards/extend/{id}", cardId))
@@ -329,7 +452,7 @@ class CardControllerApiTest {
     @WithMockUser(roles = "WORKER")
     void testListWorkerCards() throws Exception {
         when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
-        when(cardService.getAllCards(any(User.class))).thenReturn(new ArrayList<>());
+        when(cardService.getAllCards(any(User.class), any())).thenReturn(CardPageDTO.empty(CardCursorDTO.DEFAULT_SIZE));
 
         mockMvc.perform(get("/cards/view"))
                 .andExpect(status().isOk())
@@ -338,7 +461,7 @@ class CardControllerApiTest {
                 .andExpect(model().attribute("pageTitle", "Преглед на карти"));
 
         verify(userService, times(1)).findByUsernameWithWorkshops("user");
-        verify(cardService, times(1)).getAllCards(any(User.class));
+        verify(cardService, times(1)).getAllCards(any(User.class), any());
     }
 
     @Test
@@ -350,13 +473,10 @@ class CardControllerApiTest {
         workshop.setActive(true);
         testUser.setWorkshops(Arrays.asList(workshop));
 
-        WorkCenter workCenter = new WorkCenter();
-        workCenter.setId(UUID.randomUUID());
-        workCenter.setNumber("1001");
-        workCenter.setActive(true);
-        workCenter.setWorkshop(workshop);
+        WorkCenterSnapshot workCenter = new WorkCenterSnapshot(UUID.randomUUID(), "1001", null, null, true,
+                workshop.getId(), workshop.getName());
         when(userService.findByUsernameWithWorkshops("user")).thenReturn(Optional.of(testUser));
-        when(workCenterService.findByWorkshopIdWithWorkshop(workshop.getId()))
+        when(workCenterService.findActiveByWorkshopIds(List.of(workshop.getId())))
                 .thenReturn(Arrays.asList(workCenter));
 
         mockMvc.perform(get("/cards/new"))
@@ -368,7 +488,28 @@ class CardControllerApiTest {
                 .andExpect(model().attributeExists("card"));
 
         verify(userService, times(1)).findByUsernameWithWorkshops("user");
-        verify(workCenterService, times(1)).findByWorkshopIdWithWorkshop(workshop.getId());
+        verify(workCenterService, times(1)).findActiveByWorkshopIds(List.of(workshop.getId()));
+        verify(workCenterService, never()).findByWorkshopIdWithWorkshop(any());
     }
-}
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "TECHNICIAN")
+    void testStreamSubscribesCurrentUser() throws Exception {
+        testUser.setRole(Role.TECHNICIAN);
+        when(userService.findByUsernameWithWorkshops("testuser")).thenReturn(Optional.of(testUser));
+        when(cardEventBroadcaster.subscribe(testUser)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/cards/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(cardEventBroadcaster, times(1)).subscribe(testUser);
+    }
+
+    @Test
+    void testStreamRequiresLogin() throws Exception {
+        mockMvc.perform(get("/cards/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().is3xxRedirection());
+
+        verify(cardEventBroadcaster, never()).subscribe(any());
+    }
+}
@@ -1,12 +1,16 @@
 package com.ControlCards.ControlCards.Controllers;
 
-import com.ControlCards.ControlCards.Client.WorkScheduleClient;
+import com.ControlCards.ControlCards.Config.PageLoadConfig;
 import com.ControlCards.ControlCards.Config.SecurityConfig;
+import com.ControlCards.ControlCards.DTO.SchedulePageDTO;
+import com.ControlCards.ControlCards.DTO.ScheduleQueryDTO;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
 import com.ControlCards.ControlCards.DTO.WorkScheduleDTO;
 import com.ControlCards.ControlCards.Model.User;
-import com.ControlCards.ControlCards.Model.WorkCenter;
+import com.ControlCards.ControlCards.Service.Impl.CurrentUserService;
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
-import com.ControlCards.ControlCards.Service.UserService;
+import com.ControlCards.ControlCards.Service.Impl.PageDataLoader;
+import com.ControlCards.ControlCards.Service.Impl.WorkScheduleService;
 import com.ControlCards.ControlCards.Service.WorkCenterService;
 import com.ControlCards.ControlCards.Util.Enums.Role;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,7 +37,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ScheduleController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, PageLoadConfig.class, PageDataLoader.class})
 @ActiveProfiles("test")
 class ScheduleControllerApiTest {
 
@@ -41,7 +45,7 @@ class ScheduleControllerApiTest {
     private MockMvc mockMvc;
 
     @MockitoBean
-    private WorkScheduleClient workScheduleClient;
+    private WorkScheduleService workScheduleService;
 
     @MockitoBean
     private WorkCenterService workCenterService;
@@ -50,10 +54,10 @@ class ScheduleControllerApiTest {
     private LogEntryService logEntryService;
 
     @MockitoBean
-    private UserService userService;
+    private CurrentUserService currentUserService;
 
     private User testUser;
-    private WorkCenter testWorkCenter;
+    private WorkCenterSnapshot testWorkCenter;
     private WorkScheduleDTO testSchedule;
 
     @BeforeEach
@@ -64,11 +68,8 @@ class ScheduleControllerApiTest {
         testUser.setRole(Role.ADMIN);
         testUser.setActive(true);
 
-        testWorkCenter = new WorkCenter();
-        testWorkCenter.setId(UUID.randomUUID());
-        testWorkCenter.setNumber("1001");
-        testWorkCenter.setDescription("Test Work Center");
-        testWorkCenter.setActive(true);
+        testWorkCenter = new WorkCenterSnapshot(UUID.randomUUID(), "1001", "Test Work Center", null, true,
+                UUID.randomUUID(), "Test Workshop");
 
         testSchedule = new WorkScheduleDTO();
         testSchedule.setId(UUID.randomUUID());
@@ -77,24 +78,28 @@ class ScheduleControllerApiTest {
         testSchedule.setWorkCenter("1001");
     }
 
+    private static SchedulePageDTO schedulePage(WorkScheduleDTO... schedules) {
+        return new SchedulePageDTO(Arrays.asList(schedules), 0, ScheduleQueryDTO.DEFAULT_SIZE, schedules.length);
+    }
+
     @Test
     @WithMockUser
     void testShowSchedulesPage() throws Exception {
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("schedules"))
                 .andExpect(model().attributeExists("workCenters"));
 
-        verify(workCenterService, times(1)).findAllActive();
+        verify(workCenterService, times(1)).findActiveSnapshots();
     }
 
     @Test
     @WithMockUser
     void testSearchSchedulesWithoutFilters() throws Exception {
-        when(workScheduleClient.getSchedules(null, null, null)).thenReturn(Arrays.asList(testSchedule));
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workScheduleService.searchSchedules(new ScheduleQueryDTO(null, null, null, null, null, null, null))).thenReturn(schedulePage(testSchedule));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules/search"))
                 .andExpect(status().isOk())
@@ -102,15 +107,15 @@ class ScheduleControllerApiTest {
                 .andExpect(model().attributeExists("schedules"))
                 .andExpect(model().attributeExists("workCenters"));
 
-        verify(workScheduleClient, times(1)).getSchedules(null, null, null);
+        verify(workScheduleService, times(1)).searchSchedules(new ScheduleQueryDTO(null, null, null, null, null, null, null));
     }
 
     @Test
     @WithMockUser
     void testSearchSchedulesWithWorkCenter() throws Exception {
-        when(workCenterService.findById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
-        when(workScheduleClient.getSchedules(null, null, "1001")).thenReturn(Arrays.asList(testSchedule));
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findSnapshotById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
+        when(workScheduleService.searchSchedules(new ScheduleQueryDTO(null, null, null, null, "1001", null, null))).thenReturn(schedulePage(testSchedule));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules/search")
                         .param("workCenterId", testWorkCenter.getId().toString()))
@@ -118,16 +123,16 @@ class ScheduleControllerApiTest {
                 .andExpect(view().name("schedules"))
                 .andExpect(model().attributeExists("schedules"));
 
-        verify(workCenterService, times(1)).findById(testWorkCenter.getId());
-        verify(workScheduleClient, times(1)).getSchedules(null, null, "1001");
+        verify(workCenterService, times(1)).findSnapshotById(testWorkCenter.getId());
+        verify(workScheduleService, times(1)).searchSchedules(new ScheduleQueryDTO(null, null, null, null, "1001", null, null));
     }
 
     @Test
     @WithMockUser
     void testSearchSchedulesWithDate() throws Exception {
         LocalDate testDate = LocalDate.now();
-        when(workScheduleClient.getSchedules(testDate, null, null)).thenReturn(Arrays.asList(testSchedule));
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workScheduleService.searchSchedules(new ScheduleQueryDTO(testDate, null, null, null, null, null, null))).thenReturn(schedulePage(testSchedule));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules/search")
                         .param("date", testDate.toString()))
@@ -135,14 +140,14 @@ class ScheduleControllerApiTest {
                 .andExpect(view().name("schedules"))
                 .andExpect(model().attributeExists("schedules"));
 
-        verify(workScheduleClient, times(1)).getSchedules(testDate, null, null);
+        verify(workScheduleService, times(1)).searchSchedules(new ScheduleQueryDTO(testDate, null, null, null, null, null, null));
     }
 
     @Test
     @WithMockUser
     void testSearchSchedulesWithShift() throws Exception {
-        when(workScheduleClient.getSchedules(null, 1, null)).thenReturn(Arrays.asList(testSchedule));
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workScheduleService.searchSchedules(new ScheduleQueryDTO(null, null, null, 1, null, null, null))).thenReturn(schedulePage(testSchedule));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules/search")
                         .param("shift", "1"))
@@ -150,13 +155,52 @@ class ScheduleControllerApiTest {
                 .andExpect(view().name("schedules"))
                 .andExpect(model().attributeExists("schedules"));
 
-        verify(workScheduleClient, times(1)).getSchedules(null, 1, null);
+        verify(workScheduleService, times(1)).searchSchedules(new ScheduleQueryDTO(null, null, null, 1, null, null, null));
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchSchedulesWithDateRangeAndPage() throws Exception {
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 3, 31);
+        ScheduleQueryDTO expected = new ScheduleQueryDTO(null, from, to, 2, null, 1, null);
+        when(workScheduleService.searchSchedules(expected))
+                .thenReturn(new SchedulePageDTO(Arrays.asList(testSchedule), 1, ScheduleQueryDTO.DEFAULT_SIZE, 120));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
+
+        mockMvc.perform(get("/schedules/search")
+                        .param("dateFrom", from.toString())
+                        .param("dateTo", to.toString())
+                        .param("shift", "2")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("schedules"))
+                .andExpect(model().attribute("selectedDateFrom", from))
+                .andExpect(model().attributeExists("page"));
+
+        verify(workScheduleService, times(1)).searchSchedules(expected);
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchSchedulesDateTakesPrecedenceOverRange() throws Exception {
+        LocalDate date = LocalDate.of(2025, 3, 10);
+        ScheduleQueryDTO expected = new ScheduleQueryDTO(date, null, null, null, null, null, null);
+        when(workScheduleService.searchSchedules(expected)).thenReturn(schedulePage(testSchedule));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
+
+        mockMvc.perform(get("/schedules/search")
+                        .param("date", date.toString())
+                        .param("dateFrom", "2025-03-01"))
+                .andExpect(status().isOk());
+
+        verify(workScheduleService, times(1)).searchSchedules(expected);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testShowCreateScheduleForm() throws Exception {
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules/new"))
                 .andExpect(status().isOk())
@@ -165,16 +209,16 @@ class ScheduleControllerApiTest {
                 .andExpect(model().attributeExists("schedule"))
                 .andExpect(model().attribute("isEdit", false));
 
-        verify(workCenterService, times(1)).findAllActive();
+        verify(workCenterService, times(1)).findActiveSnapshots();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testCreateScheduleSuccess() throws Exception {
-        when(workCenterService.findById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
-        when(workScheduleClient.createSchedule(any(WorkScheduleDTO.class))).thenReturn(testSchedule);
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(workCenterService.findSnapshotById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
+        when(workScheduleService.createSchedule(any(WorkScheduleDTO.class))).thenReturn(testSchedule);
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         when(logEntryService.createLog(any(User.class), anyString())).thenReturn(null);
 
         mockMvc.perform(post("/schedules/new")
@@ -187,14 +231,14 @@ class ScheduleControllerApiTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/schedules?success=created"));
 
-        verify(workCenterService, times(1)).findById(testWorkCenter.getId());
-        verify(workScheduleClient, times(1)).createSchedule(any(WorkScheduleDTO.class));
+        verify(workCenterService, times(1)).findSnapshotById(testWorkCenter.getId());
+        verify(workScheduleService, times(1)).createSchedule(any(WorkScheduleDTO.class));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testCreateScheduleWithoutWorkCenter() throws Exception {
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(post("/schedules/new")
                         .param("date", LocalDate.now().toString())
@@ -204,14 +248,14 @@ class ScheduleControllerApiTest {
                 .andExpect(view().name("schedule-form"))
                 .andExpect(model().attributeExists("error"));
 
-        verify(workScheduleClient, never()).createSchedule(any());
+        verify(workScheduleService, never()).createSchedule(any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testShowEditScheduleForm() throws Exception {
-        when(workScheduleClient.getScheduleById(testSchedule.getId())).thenReturn(testSchedule);
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workScheduleService.getScheduleById(testSchedule.getId())).thenReturn(testSchedule);
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules/edit/{id}", testSchedule.getId()))
                 .andExpect(status().isOk())
@@ -220,16 +264,16 @@ class ScheduleControllerApiTest {
                 .andExpect(model().attributeExists("schedule"))
                 .andExpect(model().attribute("isEdit", true));
 
-        verify(workScheduleClient, times(1)).getScheduleById(testSchedule.getId());
-        verify(workCenterService, times(2)).findAllActive();
+        verify(workScheduleService, times(1)).getScheduleById(testSchedule.getId());
+        verify(workCenterService, times(1)).findActiveSnapshots();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testUpdateScheduleSuccess() throws Exception {
-        when(workCenterService.findById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
-        when(workScheduleClient.updateSchedule(eq(testSchedule.getId()), any(WorkScheduleDTO.class))).thenReturn(testSchedule);
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(workCenterService.findSnapshotById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
+        when(workScheduleService.updateSchedule(eq(testSchedule.getId()), any(WorkScheduleDTO.class))).thenReturn(testSchedule);
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         when(logEntryService.createLog(any(User.class), anyString())).thenReturn(null);
 
         mockMvc.perform(post("/schedules/edit/{id}", testSchedule.getId())
@@ -241,16 +285,16 @@ class ScheduleControllerApiTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/schedules?success=updated"));
 
-        verify(workCenterService, times(1)).findById(testWorkCenter.getId());
-        verify(workScheduleClient, times(1)).updateSchedule(eq(testSchedule.getId()), any(WorkScheduleDTO.class));
+        verify(workCenterService, times(1)).findSnapshotById(testWorkCenter.getId());
+        verify(workScheduleService, times(1)).updateSchedule(eq(testSchedule.getId()), any(WorkScheduleDTO.class));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testDeleteScheduleSuccess() throws Exception {
-        when(workScheduleClient.getScheduleById(testSchedule.getId())).thenReturn(testSchedule);
-        doNothing().when(workScheduleClient).deleteSchedule(testSchedule.getId());
-        when(userService.findByUsername("user")).thenReturn(Optional.of(testUser));
+        when(workScheduleService.getScheduleById(testSchedule.getId())).thenReturn(testSchedule);
+        doNothing().when(workScheduleService).deleteSchedule(testSchedule.getId());
+        when(currentUserService.getCurrentUser()).thenReturn(testUser);
         when(logEntryService.createLog(any(User.class), anyString())).thenReturn(null);
 
         mockMvc.perform(post("/schedules/delete/{id}", testSchedule.getId())
@@ -258,8 +302,8 @@ class ScheduleControllerApiTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/schedules?success=deleted"));
 
-        verify(workScheduleClient, times(1)).getScheduleById(testSchedule.getId());
-        verify(workScheduleClient, times(1)).deleteSchedule(testSchedule.getId());
+        verify(workScheduleService, times(1)).getScheduleById(testSchedule.getId());
+        verify(workScheduleService, times(1)).deleteSchedule(testSchedule.getId());
     }
 
     @Test
@@ -272,7 +316,7 @@ class ScheduleControllerApiTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void testCreateScheduleWithoutWorkCenterId() throws Exception {
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(post("/schedules/new")
                         .param("date", LocalDate.now().toString())
@@ -284,16 +328,16 @@ class ScheduleControllerApiTest {
                 .andExpect(model().attributeExists("error"))
                 .andExpect(model().attribute("isEdit", false));
 
-        verify(workCenterService, times(1)).findAllActive();
-        verify(workScheduleClient, never()).createSchedule(any());
+        verify(workCenterService, times(1)).findActiveSnapshots();
+        verify(workScheduleService, never()).createSchedule(any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testCreateScheduleWorkCenterNotFound() throws Exception {
         UUID nonExistentWorkCenterId = UUID.randomUUID();
-        when(workCenterService.findById(nonExistentWorkCenterId)).thenReturn(Optional.empty());
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findSnapshotById(nonExistentWorkCenterId)).thenReturn(Optional.empty());
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(post("/schedules/new")
                         .param("workCenterId", nonExistentWorkCenterId.toString())
@@ -304,14 +348,14 @@ class ScheduleControllerApiTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(view().name("error"));
 
-        verify(workCenterService, times(1)).findById(nonExistentWorkCenterId);
-        verify(workScheduleClient, never()).createSchedule(any());
+        verify(workCenterService, times(1)).findSnapshotById(nonExistentWorkCenterId);
+        verify(workScheduleService, never()).createSchedule(any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testShowCreateScheduleFormWithError() throws Exception {
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(get("/schedules/new")
                         .param("error", "test-error"))
@@ -320,15 +364,15 @@ class ScheduleControllerApiTest {
                 .andExpect(model().attributeExists("error"))
                 .andExpect(model().attribute("isEdit", false));
 
-        verify(workCenterService, times(1)).findAllActive();
+        verify(workCenterService, times(1)).findActiveSnapshots();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testUpdateScheduleWorkCenterNotFound() throws Exception {
         UUID nonExistentWorkCenterId = UUID.randomUUID();
-        when(workCenterService.findById(nonExistentWorkCenterId)).thenReturn(Optional.empty());
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findSnapshotById(nonExistentWorkCenterId)).thenReturn(Optional.empty());
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
 
         mockMvc.perform(post("/schedules/edit/{id}", testSchedule.getId())
                         .param("workCenterId", nonExistentWorkCenterId.toString())
@@ -339,16 +383,16 @@ class ScheduleControllerApiTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(view().name("error"));
 
-        verify(workCenterService, times(1)).findById(nonExistentWorkCenterId);
-        verify(workScheduleClient, never()).updateSchedule(any(), any());
+        verify(workCenterService, times(1)).findSnapshotById(nonExistentWorkCenterId);
+        verify(workScheduleService, never()).updateSchedule(any(), any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testSearchSchedulesWithAllFilters() throws Exception {
-        when(workScheduleClient.getSchedules(any(), any(), any())).thenReturn(Arrays.asList(testSchedule));
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
-        when(workCenterService.findById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
+        when(workScheduleService.searchSchedules(any())).thenReturn(schedulePage(testSchedule));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findSnapshotById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
 
         mockMvc.perform(get("/schedules/search")
                         .param("workCenterId", testWorkCenter.getId().toString())
@@ -358,15 +402,15 @@ class ScheduleControllerApiTest {
                 .andExpect(view().name("schedules"))
                 .andExpect(model().attributeExists("schedules"));
 
-        verify(workScheduleClient, times(1)).getSchedules(any(), any(), any());
+        verify(workScheduleService, times(1)).searchSchedules(any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testSearchSchedulesByWorkCenterOnly() throws Exception {
-        when(workScheduleClient.getSchedules(any(), any(), any())).thenReturn(Arrays.asList(testSchedule));
-        when(workCenterService.findAllActive()).thenReturn(Arrays.asList(testWorkCenter));
-        when(workCenterService.findById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
+        when(workScheduleService.searchSchedules(any())).thenReturn(schedulePage(testSchedule));
+        when(workCenterService.findActiveSnapshots()).thenReturn(Arrays.asList(testWorkCenter));
+        when(workCenterService.findSnapshotById(testWorkCenter.getId())).thenReturn(Optional.of(testWorkCenter));
 
         mockMvc.perform(get("/schedules/search")
                         .param("workCenterId", testWorkCenter.getId().toString()))
@@ -374,7 +418,7 @@ class ScheduleControllerApiTest {
                 .andExpect(view().name("schedules"))
                 .andExpect(model().attributeExists("schedules"));
 
-        verify(workScheduleClient, times(1)).getSchedules(any(), any(), any());
+        verify(workScheduleService, times(1)).searchSchedules(any());
     }
 }
 
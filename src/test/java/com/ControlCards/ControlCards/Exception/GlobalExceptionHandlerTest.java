@@ -88,6 +88,26 @@ class GlobalExceptionHandlerTest {
         verify(model, times(1)).addAttribute("errorTitle", "Невалиден статус на работна карта");
     }
 
+    @Test
+    void testHandleCardStateConflictException() {
+        CardStateConflictException ex = new CardStateConflictException("Card is not in CREATED status");
+
+        String result = exceptionHandler.handleCardStateConflictException(ex, model);
+
+        assertEquals("error", result);
+        verify(model, times(1)).addAttribute("errorTitle", "Конфликт при промяна на работна карта");
+    }
+
+    @Test
+    void testHandlePasswordHashingOverloadedException() {
+        PasswordHashingOverloadedException ex = new PasswordHashingOverloadedException("Password hashing is overloaded");
+
+        String result = exceptionHandler.handlePasswordHashingOverloadedException(ex, model);
+
+        assertEquals("error", result);
+        verify(model, times(1)).addAttribute("errorTitle", "Услугата е временно недостъпна");
+    }
+
     @Test
     void testHandleTypeMismatchException() {
         TypeMismatchException ex = new TypeMismatchException("value", String.class);
@@ -0,0 +1,158 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Model.ArchivedCard;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Model.WorkCenter;
+import com.ControlCards.ControlCards.Model.Workshop;
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import com.ControlCards.ControlCards.Util.Enums.Role;
+import com.ControlCards.ControlCards.Util.Enums.Shift;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class ArchivedCardRepositoryIntegrationTest {
+
+    @Autowired
+    private ArchivedCardRepository archivedCardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkshopRepository workshopRepository;
+
+    @Autowired
+    private WorkCenterRepository workCenterRepository;
+
+    private User testUser;
+    private Workshop workshop1;
+    private Workshop workshop2;
+    private WorkCenter workCenter1;
+    private WorkCenter workCenter2;
+    private LocalDateTime baseTime;
+
+    @BeforeEach
+    void setUp() {
+        archivedCardRepository.deleteAll();
+
+        testUser = new User();
+        testUser.setUsername("archiver");
+        testUser.setPassword("encodedPassword");
+        testUser.setFirstName("Archive");
+        testUser.setLastName("Manager");
+        testUser.setRole(Role.MANAGER);
+        testUser.setActive(true);
+        testUser.setCreatedAt(LocalDateTime.now());
+        userRepository.save(testUser);
+
+        workshop1 = saveWorkshop("Workshop 1");
+        workshop2 = saveWorkshop("Workshop 2");
+        workCenter1 = saveWorkCenter("1001", workshop1);
+        workCenter2 = saveWorkCenter("2001", workshop2);
+
+        baseTime = LocalDateTime.of(2025, 3, 10, 12, 0);
+    }
+
+    @Test
+    void testFindPageProjectsArchivedCard() {
+        saveArchivedCard(workshop1, workCenter1, Shift.FIRST, baseTime);
+
+        List<CardViewDTO> result = archivedCardRepository.findPage(null, null, null, null, null, Limit.of(10));
+
+        assertEquals(1, result.size());
+        CardViewDTO view = result.get(0);
+        assertEquals("Workshop 1", view.getWorkshopName());
+        assertEquals("1001", view.getWorkCenterName());
+        assertEquals(CardStatus.CLOSED, view.getStatus());
+        assertEquals("archiver", view.getExtendedByUsername());
+        assertEquals("Archive Manager", view.getExtendedByName());
+        assertEquals(baseTime, view.getClosedAt());
+    }
+
+    @Test
+    void testFindPageByWorkshopIdsFiltersInDatabase() {
+        saveArchivedCard(workshop1, workCenter1, Shift.FIRST, baseTime);
+        saveArchivedCard(workshop2, workCenter2, Shift.FIRST, baseTime.plusMinutes(1));
+
+        List<CardViewDTO> result = archivedCardRepository.findPageByWorkshopIds(List.of(workshop2.getId()),
+                null, null, null, null, null, Limit.of(10));
+
+        assertEquals(1, result.size());
+        assertEquals("Workshop 2", result.get(0).getWorkshopName());
+    }
+
+    @Test
+    void testFindPageFiltersByShiftAndDateRange() {
+        saveArchivedCard(workshop1, workCenter1, Shift.FIRST, baseTime.minusDays(2));
+        saveArchivedCard(workshop1, workCenter1, Shift.SECOND, baseTime);
+        saveArchivedCard(workshop1, workCenter1, Shift.FIRST, baseTime);
+        saveArchivedCard(workshop1, workCenter1, Shift.FIRST, baseTime.plusDays(2));
+
+        List<CardViewDTO> result = archivedCardRepository.findPage(Shift.FIRST,
+                baseTime.toLocalDate().atStartOfDay(), baseTime.toLocalDate().plusDays(1).atStartOfDay(),
+                null, null, Limit.of(10));
+
+        assertEquals(1, result.size());
+        assertEquals(Shift.FIRST, result.get(0).getShift());
+        assertEquals(baseTime, result.get(0).getClosedAt());
+    }
+
+    @Test
+    void testFindPageSeeksPastCursor() {
+        for (int i = 0; i < 3; i++) {
+            saveArchivedCard(workshop1, workCenter1, Shift.FIRST, baseTime.plusMinutes(i));
+        }
+
+        List<CardViewDTO> firstPage = archivedCardRepository.findPage(null, null, null, null, null, Limit.of(2));
+        CardViewDTO last = firstPage.get(1);
+        List<CardViewDTO> secondPage = archivedCardRepository.findPage(null, null, null,
+                last.getClosedAt(), last.getId(), Limit.of(2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(baseTime.plusMinutes(2), firstPage.get(0).getClosedAt());
+        assertEquals(1, secondPage.size());
+        assertEquals(baseTime, secondPage.get(0).getClosedAt());
+    }
+
+    private Workshop saveWorkshop(String name) {
+        Workshop workshop = new Workshop();
+        workshop.setName(name);
+        workshop.setActive(true);
+        return workshopRepository.save(workshop);
+    }
+
+    private WorkCenter saveWorkCenter(String number, Workshop workshop) {
+        WorkCenter workCenter = new WorkCenter();
+        workCenter.setNumber(number);
+        workCenter.setActive(true);
+        workCenter.setWorkshop(workshop);
+        return workCenterRepository.save(workCenter);
+    }
+
+    private ArchivedCard saveArchivedCard(Workshop workshop, WorkCenter workCenter, Shift shift, LocalDateTime archivedAt) {
+        ArchivedCard archivedCard = new ArchivedCard();
+        archivedCard.setCreatedBy(testUser);
+        archivedCard.setArchivedBy(testUser);
+        archivedCard.setWorkshop(workshop);
+        archivedCard.setWorkCenter(workCenter);
+        archivedCard.setShift(shift);
+        archivedCard.setShortDescription("Archived card");
+        archivedCard.setCreatedAt(archivedAt.minusDays(1));
+        archivedCard.setArchivedAt(archivedAt);
+        return archivedCardRepository.save(archivedCard);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import com.ControlCards.ControlCards.Model.CardOutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class CardOutboxRepositoryIntegrationTest {
+
+    @Autowired
+    private CardOutboxRepository cardOutboxRepository;
+
+    private final UUID cardId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cardOutboxRepository.deleteAll();
+    }
+
+    private CardOutboxEvent save(CardStateChangedEvent.Transition transition, LocalDateTime publishedAt) {
+        CardOutboxEvent entry = new CardOutboxEvent(transition, cardId, UUID.randomUUID(), "{}");
+        entry.setPublishedAt(publishedAt);
+        return cardOutboxRepository.save(entry);
+    }
+
+    @Test
+    void testFindPendingReturnsUnpublishedInInsertOrder() {
+        CardOutboxEvent created = save(CardStateChangedEvent.Transition.CREATED, null);
+        save(CardStateChangedEvent.Transition.EXTENDED, LocalDateTime.now());
+        CardOutboxEvent closed = save(CardStateChangedEvent.Transition.CLOSED, null);
+        CardOutboxEvent archived = save(CardStateChangedEvent.Transition.ARCHIVED, null);
+
+        List<CardOutboxEvent> pending = cardOutboxRepository.findPending(Limit.of(2));
+
+        assertEquals(List.of(created.getId(), closed.getId()), pending.stream().map(CardOutboxEvent::getId).toList());
+        assertTrue(created.getId() < closed.getId() && closed.getId() < archived.getId());
+        assertEquals(3, cardOutboxRepository.countPending());
+    }
+
+    @Test
+    void testStoresPayloadLongerThanVarchar() {
+        // Подробно описание с кавички и нови редове - след екранирането в JSON става много по-дълго
+        String payload = "{\"detailedDescription\":\"" + "\\\"ред\\n".repeat(2000) + "\"}";
+
+        CardOutboxEvent entry = cardOutboxRepository.saveAndFlush(
+                new CardOutboxEvent(CardStateChangedEvent.Transition.EXTENDED, cardId, UUID.randomUUID(), payload));
+
+        assertTrue(payload.length() > 4000);
+        assertEquals(payload, cardOutboxRepository.findPending(Limit.of(1)).get(0).getPayload());
+        assertNotNull(entry.getId());
+    }
+
+    @Test
+    void testDeletePublishedBeforeKeepsPendingAndRecent() {
+        save(CardStateChangedEvent.Transition.CREATED, LocalDateTime.now().minusDays(2));
+        CardOutboxEvent recent = save(CardStateChangedEvent.Transition.EXTENDED, LocalDateTime.now());
+        CardOutboxEvent pending = save(CardStateChangedEvent.Transition.CLOSED, null);
+
+        int deleted = cardOutboxRepository.deletePublishedBefore(LocalDateTime.now().minusDays(1));
+
+        assertEquals(1, deleted);
+        assertEquals(List.of(recent.getId(), pending.getId()),
+                cardOutboxRepository.findAll().stream().map(CardOutboxEvent::getId).sorted().toList());
+    }
+}
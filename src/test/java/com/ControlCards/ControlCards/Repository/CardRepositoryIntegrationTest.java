@@ -0,0 +1,351 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.DTO.CardStatusSnapshot;
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Model.ArchivedCard;
+import com.ControlCards.ControlCards.Model.Card;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Model.WorkCenter;
+import com.ControlCards.ControlCards.Model.Workshop;
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import com.ControlCards.ControlCards.Util.Enums.Role;
+import com.ControlCards.ControlCards.Util.Enums.Shift;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class CardRepositoryIntegrationTest {
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private ArchivedCardRepository archivedCardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkshopRepository workshopRepository;
+
+    @Autowired
+    private WorkCenterRepository workCenterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User testUser;
+    private Workshop workshop1;
+    private Workshop workshop2;
+    private WorkCenter workCenter1;
+    private WorkCenter workCenter2;
+    private LocalDateTime baseTime;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+
+        testUser = new User();
+        testUser.setUsername("cardowner");
+        testUser.setPassword("encodedPassword");
+        testUser.setFirstName("Card");
+        testUser.setLastName("Owner");
+        testUser.setRole(Role.TECHNICIAN);
+        testUser.setActive(true);
+        testUser.setCreatedAt(LocalDateTime.now());
+        userRepository.save(testUser);
+
+        workshop1 = saveWorkshop("Workshop 1");
+        workshop2 = saveWorkshop("Workshop 2");
+        workCenter1 = saveWorkCenter("1001", workshop1);
+        workCenter2 = saveWorkCenter("2001", workshop2);
+
+        baseTime = LocalDateTime.of(2025, 1, 15, 8, 0);
+    }
+
+    @Test
+    void testFindPageWalksAllCardsNewestFirst() {
+        for (int i = 0; i < 5; i++) {
+            saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime.plusMinutes(i));
+        }
+
+        List<CardViewDTO> firstPage = cardRepository.findPage(null, null, Limit.of(2));
+        assertEquals(2, firstPage.size());
+        assertEquals(baseTime.plusMinutes(4), firstPage.get(0).getCreatedAt());
+        assertEquals(baseTime.plusMinutes(3), firstPage.get(1).getCreatedAt());
+
+        CardViewDTO last = firstPage.get(1);
+        List<CardViewDTO> secondPage = cardRepository.findPage(last.getCreatedAt(), last.getId(), Limit.of(2));
+        assertEquals(2, secondPage.size());
+        assertEquals(baseTime.plusMinutes(2), secondPage.get(0).getCreatedAt());
+
+        last = secondPage.get(1);
+        List<CardViewDTO> thirdPage = cardRepository.findPage(last.getCreatedAt(), last.getId(), Limit.of(2));
+        assertEquals(1, thirdPage.size());
+        assertEquals(baseTime, thirdPage.get(0).getCreatedAt());
+    }
+
+    @Test
+    void testFindPageBreaksTiesById() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime).getId());
+        }
+
+        List<UUID> seen = new ArrayList<>();
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        List<CardViewDTO> page;
+        do {
+            page = cardRepository.findPage(afterCreatedAt, afterId, Limit.of(3));
+            for (CardViewDTO card : page) {
+                seen.add(card.getId());
+            }
+            if (!page.isEmpty()) {
+                afterCreatedAt = page.get(page.size() - 1).getCreatedAt();
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(4, seen.size());
+        assertTrue(seen.containsAll(ids));
+    }
+
+    @Test
+    void testFindPageProjectsUserNames() {
+        saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+
+        CardViewDTO view = cardRepository.findPage(null, null, Limit.of(1)).get(0);
+
+        assertEquals("cardowner", view.getCreatedByUsername());
+        assertEquals("Card Owner", view.getCreatedByName());
+        assertNull(view.getExtendedByUsername());
+        assertNull(view.getExtendedByName());
+        assertEquals(Shift.FIRST, view.getShift());
+    }
+
+    @Test
+    void testFindPageByStatusAndWorkshopIds() {
+        saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+        saveCard(workshop1, workCenter1, CardStatus.EXTENDED, baseTime.plusMinutes(1));
+        saveCard(workshop2, workCenter2, CardStatus.CREATED, baseTime.plusMinutes(2));
+
+        List<CardViewDTO> result = cardRepository.findPageByStatusAndWorkshopIds(CardStatus.CREATED,
+                List.of(workshop1.getId()), null, null, Limit.of(10));
+
+        assertEquals(1, result.size());
+        assertEquals("Workshop 1", result.get(0).getWorkshopName());
+        assertEquals("1001", result.get(0).getWorkCenterName());
+        assertEquals(CardStatus.CREATED, result.get(0).getStatus());
+    }
+
+    @Test
+    void testFindPageByWorkshopIds() {
+        saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+        saveCard(workshop1, workCenter1, CardStatus.EXTENDED, baseTime.plusMinutes(1));
+        saveCard(workshop2, workCenter2, CardStatus.CREATED, baseTime.plusMinutes(2));
+
+        List<CardViewDTO> result = cardRepository.findPageByWorkshopIds(List.of(workshop1.getId()), null, null, Limit.of(10));
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(card -> "Workshop 1".equals(card.getWorkshopName())));
+    }
+
+    @Test
+    void testExtendIfStatusUpdatesOnlyOnce() {
+        Card card = saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+        Long version = card.getVersion();
+        LocalDateTime now = baseTime.plusHours(1);
+
+        int first = cardRepository.extendIfStatus(card.getId(), CardStatus.CREATED, CardStatus.EXTENDED,
+                "Сменен лагер", 45, testUser, now);
+        int second = cardRepository.extendIfStatus(card.getId(), CardStatus.CREATED, CardStatus.EXTENDED,
+                "Втори опит", 10, testUser, now);
+        entityManager.clear();
+
+        assertEquals(1, first);
+        assertEquals(0, second);
+        Card reloaded = cardRepository.findById(card.getId()).orElseThrow();
+        assertEquals(CardStatus.EXTENDED, reloaded.getStatus());
+        assertEquals("Сменен лагер", reloaded.getDetailedDescription());
+        assertEquals(45, reloaded.getResolutionDurationMinutes());
+        assertEquals(now, reloaded.getExtendedAt());
+        assertEquals(version + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void testExtendIfStatusKeepsDescriptionWhenNull() {
+        Card card = saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+        card.setDetailedDescription("Първоначално описание");
+        cardRepository.saveAndFlush(card);
+
+        cardRepository.extendIfStatus(card.getId(), CardStatus.CREATED, CardStatus.EXTENDED, null, null, testUser, baseTime);
+        entityManager.clear();
+
+        assertEquals("Първоначално описание", cardRepository.findById(card.getId()).orElseThrow().getDetailedDescription());
+    }
+
+    @Test
+    void testCloseIfStatusInRejectsOtherStatuses() {
+        Card created = saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+        Card extended = saveCard(workshop1, workCenter1, CardStatus.EXTENDED, baseTime);
+
+        int createdClosed = cardRepository.closeIfStatusIn(created.getId(), List.of(CardStatus.EXTENDED),
+                CardStatus.CLOSED, testUser, baseTime);
+        int extendedClosed = cardRepository.closeIfStatusIn(extended.getId(), List.of(CardStatus.EXTENDED),
+                CardStatus.CLOSED, testUser, baseTime);
+        entityManager.clear();
+
+        assertEquals(0, createdClosed);
+        assertEquals(1, extendedClosed);
+        assertEquals(CardStatus.CREATED, cardRepository.findById(created.getId()).orElseThrow().getStatus());
+        assertEquals(CardStatus.CLOSED, cardRepository.findById(extended.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testStaleEntitySaveFailsAfterConditionalUpdate() {
+        Card card = saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+        cardRepository.flush();
+        entityManager.detach(card);
+
+        cardRepository.extendIfStatus(card.getId(), CardStatus.CREATED, CardStatus.EXTENDED, null, null, testUser, baseTime);
+        card.setShortDescription("Остаряла промяна");
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> cardRepository.saveAndFlush(card));
+    }
+
+    @Test
+    void testFindViewByIdIncludesWorkshopId() {
+        Card card = saveCard(workshop2, workCenter2, CardStatus.CREATED, baseTime);
+
+        CardViewDTO view = cardRepository.findViewById(card.getId()).orElseThrow();
+
+        assertEquals(workshop2.getId(), view.getWorkshopId());
+        assertEquals("2001", view.getWorkCenterName());
+    }
+
+    @Test
+    void testArchiveMoveCopiesAndDeletesOnlyClosedCards() {
+        Card closed1 = saveCard(workshop1, workCenter1, CardStatus.CLOSED, baseTime);
+        closed1.setDetailedDescription("Сменен лагер");
+        closed1.setResolutionDurationMinutes(30);
+        Card closed2 = saveCard(workshop2, workCenter2, CardStatus.CLOSED, baseTime.plusMinutes(1));
+        Card open = saveCard(workshop1, workCenter1, CardStatus.EXTENDED, baseTime.plusMinutes(2));
+        List<UUID> ids = List.of(closed1.getId(), closed2.getId(), open.getId());
+        LocalDateTime archivedAt = baseTime.plusDays(1);
+
+        int copied = archivedCardRepository.copyFromCards(ids, CardStatus.CLOSED, testUser, archivedAt);
+        int deleted = cardRepository.deleteByIdInAndStatus(ids, CardStatus.CLOSED);
+        entityManager.clear();
+
+        assertEquals(2, copied);
+        assertEquals(2, deleted);
+        assertEquals(List.of(open.getId()), cardRepository.findAll().stream().map(Card::getId).toList());
+        ArchivedCard archived = archivedCardRepository.findById(closed1.getId()).orElseThrow();
+        assertEquals("Сменен лагер", archived.getDetailedDescription());
+        assertEquals(30, archived.getResolutionDurationMinutes());
+        assertEquals(baseTime, archived.getCreatedAt());
+        assertEquals(archivedAt, archived.getArchivedAt());
+        assertEquals(workshop1.getId(), archived.getWorkshop().getId());
+        assertEquals(testUser.getId(), archived.getArchivedBy().getId());
+        assertTrue(archivedCardRepository.existsById(closed2.getId()));
+    }
+
+    @Test
+    void testCloseAllIfStatusInClosesOnlyMatchingCards() {
+        Card created = saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+        Card extended1 = saveCard(workshop1, workCenter1, CardStatus.EXTENDED, baseTime);
+        Card extended2 = saveCard(workshop2, workCenter2, CardStatus.EXTENDED, baseTime);
+        List<UUID> ids = List.of(created.getId(), extended1.getId(), extended2.getId());
+
+        List<CardStatusSnapshot> locked = cardRepository.lockStatusesByIdIn(ids);
+        int closed = cardRepository.closeAllIfStatusIn(ids, List.of(CardStatus.EXTENDED), CardStatus.CLOSED, testUser, baseTime);
+        entityManager.clear();
+
+        assertEquals(3, locked.size());
+        assertEquals(2, closed);
+        assertEquals(CardStatus.CREATED, cardRepository.findById(created.getId()).orElseThrow().getStatus());
+        Card reloaded = cardRepository.findById(extended2.getId()).orElseThrow();
+        assertEquals(CardStatus.CLOSED, reloaded.getStatus());
+        assertEquals(testUser.getId(), reloaded.getClosedBy().getId());
+    }
+
+    @Test
+    void testFindIdsByStatusAndClosedAtBeforeOldestFirst() {
+        Card recent = saveClosedCard(baseTime.plusDays(10));
+        Card oldest = saveClosedCard(baseTime);
+        Card older = saveClosedCard(baseTime.plusDays(1));
+        saveCard(workshop1, workCenter1, CardStatus.EXTENDED, baseTime);
+        LocalDateTime cutoff = baseTime.plusDays(5);
+
+        List<UUID> ids = cardRepository.findIdsByStatusAndClosedAtBefore(CardStatus.CLOSED, cutoff, Limit.of(10));
+
+        assertEquals(List.of(oldest.getId(), older.getId()), ids);
+        assertFalse(ids.contains(recent.getId()));
+        assertEquals(2, cardRepository.countByStatusAndClosedAtBefore(CardStatus.CLOSED, cutoff));
+        assertEquals(List.of(oldest.getId()),
+                cardRepository.findIdsByStatusAndClosedAtBefore(CardStatus.CLOSED, cutoff, Limit.of(1)));
+    }
+
+    @Test
+    void testFindViewsByIdInAndStatus() {
+        Card closed = saveCard(workshop1, workCenter1, CardStatus.CLOSED, baseTime);
+        Card created = saveCard(workshop1, workCenter1, CardStatus.CREATED, baseTime);
+
+        List<CardViewDTO> views = cardRepository.findViewsByIdInAndStatus(
+                List.of(closed.getId(), created.getId(), UUID.randomUUID()), CardStatus.CLOSED);
+
+        assertEquals(1, views.size());
+        assertEquals(closed.getId(), views.get(0).getId());
+    }
+
+    private Card saveClosedCard(LocalDateTime closedAt) {
+        Card card = saveCard(workshop1, workCenter1, CardStatus.CLOSED, baseTime);
+        card.setClosedBy(testUser);
+        card.setClosedAt(closedAt);
+        return cardRepository.save(card);
+    }
+
+    private Workshop saveWorkshop(String name) {
+        Workshop workshop = new Workshop();
+        workshop.setName(name);
+        workshop.setActive(true);
+        return workshopRepository.save(workshop);
+    }
+
+    private WorkCenter saveWorkCenter(String number, Workshop workshop) {
+        WorkCenter workCenter = new WorkCenter();
+        workCenter.setNumber(number);
+        workCenter.setActive(true);
+        workCenter.setWorkshop(workshop);
+        return workCenterRepository.save(workCenter);
+    }
+
+    private Card saveCard(Workshop workshop, WorkCenter workCenter, CardStatus status, LocalDateTime createdAt) {
+        Card card = new Card();
+        card.setCreatedBy(testUser);
+        card.setWorkshop(workshop);
+        card.setWorkCenter(workCenter);
+        card.setShift(Shift.FIRST);
+        card.setShortDescription("Test card");
+        card.setStatus(status);
+        card.setCreatedAt(createdAt);
+        return cardRepository.save(card);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ControlCards.ControlCards.Repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class DatabaseIndexIntegrationTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testCardIndexesExist() {
+        List<String> indexes = indexNames("CARDS");
+
+        assertTrue(indexes.contains("IDX_CARDS_STATUS_WORKSHOP_CREATED"));
+        assertTrue(indexes.contains("IDX_CARDS_STATUS_CREATED"));
+        assertTrue(indexes.contains("IDX_CARDS_WORKSHOP_CREATED"));
+        assertTrue(indexes.contains("IDX_CARDS_CREATED"));
+    }
+
+    @Test
+    void testCardStatusWorkshopIndexColumnOrder() {
+        List<String> columns = indexColumns("IDX_CARDS_STATUS_WORKSHOP_CREATED");
+
+        assertEquals(List.of("STATUS", "WORKSHOP_ID", "CREATED_AT"), columns);
+    }
+
+    @Test
+    void testArchivedCardIndexesExist() {
+        List<String> indexes = indexNames("ARCHIVED_CARDS");
+
+        assertTrue(indexes.contains("IDX_ARCHIVED_CARDS_WORKSHOP_ARCHIVED"));
+        assertTrue(indexes.contains("IDX_ARCHIVED_CARDS_ARCHIVED"));
+    }
+
+    @Test
+    void testLogEntryIndexesExist() {
+        List<String> indexes = indexNames("LOG_ENTRIES");
+
+        assertTrue(indexes.contains("IDX_LOG_ENTRIES_CREATED"));
+        assertTrue(indexes.contains("IDX_LOG_ENTRIES_USER_CREATED"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> indexNames(String tableName) {
+        return entityManager.createNativeQuery(
+                        "SELECT UPPER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE UPPER(TABLE_NAME) = :tableName")
+                .setParameter("tableName", tableName)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> indexColumns(String indexName) {
+        return entityManager.createNativeQuery(
+                        "SELECT UPPER(COLUMN_NAME) FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                        "WHERE UPPER(INDEX_NAME) = :indexName ORDER BY ORDINAL_POSITION")
+                .setParameter("indexName", indexName)
+                .getResultList();
+    }
+}
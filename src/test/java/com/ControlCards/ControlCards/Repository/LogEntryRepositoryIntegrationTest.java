@@ -0,0 +1,177 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.DTO.LogEntryFilterDTO;
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
+import com.ControlCards.ControlCards.Model.LogEntry;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Service.Impl.LogPartitionManager;
+import com.ControlCards.ControlCards.Util.Enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class LogEntryRepositoryIntegrationTest {
+
+    @Autowired
+    private LogEntryRepository logEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User admin;
+    private User manager;
+    private LocalDateTime baseTime;
+
+    @BeforeEach
+    void setUp() {
+        logEntryRepository.deleteAll();
+
+        admin = saveUser("admin1");
+        manager = saveUser("manager1");
+        baseTime = LocalDateTime.of(2025, 3, 10, 12, 0);
+    }
+
+    @Test
+    void testSearchProjectsUsernameAndOrdersNewestFirst() {
+        saveLog(admin, "Създаден потребител", baseTime);
+        saveLog(manager, "Създаден цех", baseTime.plusMinutes(5));
+
+        Page<LogEntryViewDTO> page = logEntryRepository.search(null, null, null, null, PageRequest.of(0, 10));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals("manager1", page.getContent().get(0).getUsername());
+        assertEquals("admin1", page.getContent().get(1).getUsername());
+    }
+
+    @Test
+    void testSearchPagesInDatabase() {
+        for (int i = 0; i < 5; i++) {
+            saveLog(admin, "Действие " + i, baseTime.plusMinutes(i));
+        }
+
+        Page<LogEntryViewDTO> page = logEntryRepository.search(null, null, null, null, PageRequest.of(1, 2));
+
+        assertEquals(5, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(List.of("Действие 2", "Действие 1"),
+                page.getContent().stream().map(LogEntryViewDTO::getDescription).toList());
+    }
+
+    @Test
+    void testSearchFiltersByUserDateRangeAndText() {
+        saveLog(admin, "Деактивиран цех", baseTime.minusDays(2));
+        saveLog(admin, "Деактивиран цех", baseTime);
+        saveLog(admin, "Създаден цех", baseTime);
+        saveLog(manager, "Деактивиран цех", baseTime);
+
+        LogEntryFilterDTO filter = new LogEntryFilterDTO(admin.getId(), baseTime.toLocalDate(),
+                baseTime.toLocalDate(), "ДЕАКТИВИРАН", null, null);
+        Page<LogEntryViewDTO> page = logEntryRepository.search(filter.getUserId(), filter.getCreatedFrom(),
+                filter.getCreatedBefore(), filter.getTextPattern(), PageRequest.of(0, 10));
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals("admin1", page.getContent().get(0).getUsername());
+        assertEquals(baseTime, page.getContent().get(0).getCreatedAt());
+    }
+
+    @Test
+    void testSearchTextEscapesWildcards() {
+        saveLog(admin, "Прогрес 50% завършен", baseTime);
+        saveLog(admin, "Прогрес 500 завършен", baseTime);
+
+        LogEntryFilterDTO filter = new LogEntryFilterDTO(null, null, null, "50%", null, null);
+        Page<LogEntryViewDTO> page = logEntryRepository.search(null, null, null, filter.getTextPattern(),
+                PageRequest.of(0, 10));
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals("Прогрес 50% завършен", page.getContent().get(0).getDescription());
+    }
+
+    @Test
+    void testStreamAllAppliesFilters() {
+        saveLog(admin, "Създаден потребител", baseTime);
+        saveLog(manager, "Създаден цех", baseTime);
+
+        LocalDate day = baseTime.toLocalDate();
+        try (Stream<LogEntryViewDTO> logs = logEntryRepository.streamAll(manager.getId(),
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null)) {
+            List<LogEntryViewDTO> result = logs.toList();
+
+            assertEquals(1, result.size());
+            assertEquals("manager1", result.get(0).getUsername());
+        }
+    }
+
+    @Test
+    void testFindIdsCreatedBeforeReturnsOldestFirstUpToLimit() {
+        LogEntry oldest = saveLog(admin, "Най-стар", baseTime.minusDays(3));
+        LogEntry older = saveLog(admin, "По-стар", baseTime.minusDays(2));
+        saveLog(admin, "Стар", baseTime.minusDays(1));
+        saveLog(admin, "Нов", baseTime.plusDays(1));
+
+        List<UUID> ids = logEntryRepository.findIdsCreatedBefore(baseTime, Limit.of(2));
+
+        assertEquals(List.of(oldest.getId(), older.getId()), ids);
+    }
+
+    @Test
+    void testDeleteByIdInDeletesOnlyGivenChunk() {
+        saveLog(admin, "Стар 1", baseTime.minusDays(2));
+        saveLog(admin, "Стар 2", baseTime.minusDays(1));
+        saveLog(admin, "Нов", baseTime.plusDays(1));
+
+        List<UUID> chunk = logEntryRepository.findIdsCreatedBefore(baseTime, Limit.of(1));
+        int deleted = logEntryRepository.deleteByIdIn(chunk);
+
+        assertEquals(1, deleted);
+        assertEquals(1, logEntryRepository.countByCreatedAtBefore(baseTime));
+        assertEquals(2, logEntryRepository.count());
+    }
+
+    @Test
+    void testPartitionManagerFallsBackToChunkedPurgeOnH2() {
+        LogPartitionManager logPartitionManager = new LogPartitionManager(new JdbcTemplate(dataSource), 3);
+
+        assertFalse(logPartitionManager.isPartitioned());
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("encodedPassword");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setRole(Role.ADMIN);
+        user.setActive(true);
+        user.setCreatedAt(LocalDateTime.now());
+        return userRepository.save(user);
+    }
+
+    private LogEntry saveLog(User user, String description, LocalDateTime createdAt) {
+        LogEntry logEntry = new LogEntry(user, description);
+        logEntry.setCreatedAt(createdAt);
+        return logEntryRepository.save(logEntry);
+    }
+}
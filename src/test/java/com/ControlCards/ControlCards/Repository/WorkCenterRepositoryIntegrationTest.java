@@ -0,0 +1,78 @@
+package com.ControlCards.ControlCards.Repository;
+
+import com.ControlCards.ControlCards.DTO.ReferenceDataRow;
+import com.ControlCards.ControlCards.Model.WorkCenter;
+import com.ControlCards.ControlCards.Model.Workshop;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class WorkCenterRepositoryIntegrationTest {
+
+    @Autowired
+    private WorkCenterRepository workCenterRepository;
+
+    @Autowired
+    private WorkshopRepository workshopRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Workshop workshop;
+    private Workshop emptyWorkshop;
+
+    @BeforeEach
+    void setUp() {
+        workshop = new Workshop();
+        workshop.setName("Цех 1");
+        workshop.setActive(true);
+        workshopRepository.save(workshop);
+
+        emptyWorkshop = new Workshop();
+        emptyWorkshop.setName("Цех 2");
+        emptyWorkshop.setActive(true);
+        workshopRepository.save(emptyWorkshop);
+
+        workCenterRepository.save(workCenter("1002", true));
+        workCenterRepository.save(workCenter("1001", true));
+        workCenterRepository.save(workCenter("1003", false));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private WorkCenter workCenter(String number, boolean active) {
+        WorkCenter workCenter = new WorkCenter();
+        workCenter.setNumber(number);
+        workCenter.setActive(active);
+        workCenter.setWorkshop(workshop);
+        return workCenter;
+    }
+
+    @Test
+    void testFindReferenceDataIncludesWorkshopsWithoutWorkCenters() {
+        List<ReferenceDataRow> rows = workshopRepository.findReferenceData();
+
+        assertEquals(4, rows.size());
+        assertEquals(List.of("1001", "1002", "1003"), rows.stream()
+                .filter(row -> workshop.getId().equals(row.getWorkshopId()))
+                .map(ReferenceDataRow::getWorkCenterNumber)
+                .toList());
+        ReferenceDataRow emptyRow = rows.stream()
+                .filter(row -> emptyWorkshop.getId().equals(row.getWorkshopId()))
+                .findFirst()
+                .orElseThrow();
+        assertNull(emptyRow.getWorkCenterId());
+    }
+}
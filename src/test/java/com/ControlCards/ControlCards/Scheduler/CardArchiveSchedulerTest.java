@@ -0,0 +1,133 @@
+package com.ControlCards.ControlCards.Scheduler;
+
+import com.ControlCards.ControlCards.DTO.CardBulkResultDTO;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Service.CardService;
+import com.ControlCards.ControlCards.Service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardArchiveSchedulerTest {
+
+    @Mock
+    private CardService cardService;
+
+    @Mock
+    private UserService userService;
+
+    private MeterRegistry meterRegistry;
+    private CardArchiveScheduler cardArchiveScheduler;
+    private User systemUser;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cardArchiveScheduler = new CardArchiveScheduler(cardService, userService, meterRegistry, 30, 2, 0, 30, "system");
+        systemUser = new User();
+        systemUser.setUsername("system");
+    }
+
+    private static List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    private static CardBulkResultDTO archived(List<UUID> cardIds) {
+        return new CardBulkResultDTO(CardBulkResultDTO.Outcome.ARCHIVED, cardIds.stream()
+                .map(id -> new CardBulkResultDTO.Item(id, "Карта", CardBulkResultDTO.Outcome.ARCHIVED, null))
+                .toList());
+    }
+
+    @Test
+    void testArchivesInBatchesAsSystemUser() {
+        List<UUID> first = ids(2);
+        List<UUID> second = ids(1);
+        when(cardService.findClosedCardIdsBefore(any(LocalDateTime.class), eq(2))).thenReturn(first).thenReturn(second);
+        when(userService.findOrCreateSystemUser("system")).thenReturn(systemUser);
+        when(cardService.archiveExpiredCards(first, systemUser)).thenReturn(archived(first));
+        when(cardService.archiveExpiredCards(second, systemUser)).thenReturn(archived(second));
+
+        cardArchiveScheduler.archiveClosedCards();
+
+        verify(userService, times(1)).findOrCreateSystemUser("system");
+        verify(cardService, never()).countClosedCardsBefore(any());
+        assertEquals(3, meterRegistry.get("cards.archive.auto.archived").counter().count());
+        assertEquals(2, meterRegistry.get("cards.archive.auto.batches").counter().count());
+        assertEquals(3, meterRegistry.get("cards.archive.auto.last.archived").gauge().value());
+    }
+
+    @Test
+    void testUsesCloseAgeCutoff() {
+        when(cardService.findClosedCardIdsBefore(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        cardArchiveScheduler.archiveClosedCards();
+
+        verify(cardService).findClosedCardIdsBefore(argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusDays(29))), eq(2));
+        verify(cardService, never()).archiveExpiredCards(any(), any());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testYieldsWhenRuntimeBudgetIsExhausted() {
+        meterRegistry = new SimpleMeterRegistry();
+        cardArchiveScheduler = new CardArchiveScheduler(cardService, userService, meterRegistry, 30, 2, 0, 0, "system");
+        List<UUID> batch = ids(2);
+        when(cardService.findClosedCardIdsBefore(any(LocalDateTime.class), eq(2))).thenReturn(batch);
+        when(userService.findOrCreateSystemUser("system")).thenReturn(systemUser);
+        when(cardService.archiveExpiredCards(batch, systemUser)).thenReturn(archived(batch));
+        when(cardService.countClosedCardsBefore(any(LocalDateTime.class))).thenReturn(500L);
+
+        cardArchiveScheduler.archiveClosedCards();
+
+        verify(cardService, times(1)).archiveExpiredCards(any(), any());
+        assertEquals(1, meterRegistry.get("cards.archive.auto.yielded").counter().count());
+        assertEquals(500, meterRegistry.get("cards.archive.auto.backlog").gauge().value());
+    }
+
+    @Test
+    void testStopsWhenNothingInBatchCouldBeArchived() {
+        List<UUID> batch = ids(2);
+        when(cardService.findClosedCardIdsBefore(any(LocalDateTime.class), eq(2))).thenReturn(batch);
+        when(userService.findOrCreateSystemUser("system")).thenReturn(systemUser);
+        when(cardService.archiveExpiredCards(batch, systemUser)).thenReturn(new CardBulkResultDTO(
+                CardBulkResultDTO.Outcome.ARCHIVED, batch.stream()
+                .map(id -> new CardBulkResultDTO.Item(id, null, CardBulkResultDTO.Outcome.NOT_FOUND, null))
+                .toList()));
+
+        cardArchiveScheduler.archiveClosedCards();
+
+        verify(cardService, times(1)).findClosedCardIdsBefore(any(LocalDateTime.class), anyInt());
+        assertEquals(0, meterRegistry.get("cards.archive.auto.archived").counter().count());
+    }
+
+    @Test
+    void testArchivingErrorDoesNotPropagate() {
+        when(cardService.findClosedCardIdsBefore(any(LocalDateTime.class), anyInt()))
+                .thenThrow(new RuntimeException("Database error"));
+
+        assertDoesNotThrow(() -> cardArchiveScheduler.archiveClosedCards());
+
+        assertEquals(0, meterRegistry.get("cards.archive.auto.archived").counter().count());
+    }
+}
@@ -1,14 +1,22 @@
 package com.ControlCards.ControlCards.Scheduler;
 
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
+import com.ControlCards.ControlCards.Service.Impl.LogPartitionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -17,39 +25,91 @@ class LogCleanupSchedulerTest {
     @Mock
     private LogEntryService logEntryService;
 
-    @InjectMocks
+    @Mock
+    private LogPartitionManager logPartitionManager;
+
+    private MeterRegistry meterRegistry;
     private LogCleanupScheduler logCleanupScheduler;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(logCleanupScheduler, "daysToKeep", 90);
+        meterRegistry = new SimpleMeterRegistry();
+        logCleanupScheduler = new LogCleanupScheduler(logEntryService, logPartitionManager, meterRegistry, 90, 100, 0, 180);
+    }
+
+    @Test
+    void testCleanupOldLogsDeletesInChunks() {
+        when(logEntryService.deleteOldLogsChunk(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 100, 40);
+
+        logCleanupScheduler.cleanupOldLogs();
+
+        verify(logEntryService, times(3)).deleteOldLogsChunk(any(LocalDateTime.class), eq(100));
+        verify(logEntryService, never()).countOldLogs(any(LocalDateTime.class));
+        assertEquals(240, meterRegistry.get("log.cleanup.deleted").counter().count());
+        assertEquals(3, meterRegistry.get("log.cleanup.chunks").counter().count());
+        assertEquals(240, meterRegistry.get("log.cleanup.last.deleted").gauge().value());
+        assertEquals(0, meterRegistry.get("log.cleanup.backlog").gauge().value());
+    }
+
+    @Test
+    void testCleanupOldLogsUsesRetentionCutoff() {
+        when(logEntryService.deleteOldLogsChunk(any(LocalDateTime.class), anyInt())).thenReturn(100, 0);
+
+        logCleanupScheduler.cleanupOldLogs();
+
+        verify(logEntryService, times(2)).deleteOldLogsChunk(argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusDays(89))), eq(100));
+        assertEquals(1, meterRegistry.get("log.cleanup.chunks").counter().count());
     }
 
     @Test
-    void testCleanupOldLogsSuccess() {
-        when(logEntryService.deleteOldLogs(90)).thenReturn(5);
+    void testCleanupOldLogsYieldsWhenRuntimeBudgetIsExhausted() {
+        meterRegistry = new SimpleMeterRegistry();
+        logCleanupScheduler = new LogCleanupScheduler(logEntryService, logPartitionManager, meterRegistry, 90, 100, 0, 0);
+        when(logEntryService.deleteOldLogsChunk(any(LocalDateTime.class), eq(100))).thenReturn(100);
+        when(logEntryService.countOldLogs(any(LocalDateTime.class))).thenReturn(5000L);
 
         logCleanupScheduler.cleanupOldLogs();
 
-        verify(logEntryService, times(1)).deleteOldLogs(90);
+        verify(logEntryService, times(1)).deleteOldLogsChunk(any(LocalDateTime.class), eq(100));
+        assertEquals(1, meterRegistry.get("log.cleanup.yielded").counter().count());
+        assertEquals(5000, meterRegistry.get("log.cleanup.backlog").gauge().value());
     }
 
     @Test
     void testCleanupOldLogsWithException() {
-        when(logEntryService.deleteOldLogs(90)).thenThrow(new RuntimeException("Database error"));
+        when(logEntryService.deleteOldLogsChunk(any(LocalDateTime.class), anyInt()))
+                .thenThrow(new RuntimeException("Database error"));
 
         logCleanupScheduler.cleanupOldLogs();
 
-        verify(logEntryService, times(1)).deleteOldLogs(90);
+        verify(logEntryService, times(1)).deleteOldLogsChunk(any(LocalDateTime.class), anyInt());
+        assertEquals(0, meterRegistry.get("log.cleanup.deleted").counter().count());
     }
 
     @Test
     void testCleanupOldLogsNoLogsToDelete() {
-        when(logEntryService.deleteOldLogs(90)).thenReturn(0);
+        when(logEntryService.deleteOldLogsChunk(any(LocalDateTime.class), anyInt())).thenReturn(0);
 
         logCleanupScheduler.cleanupOldLogs();
 
-        verify(logEntryService, times(1)).deleteOldLogs(90);
+        verify(logEntryService, times(1)).deleteOldLogsChunk(any(LocalDateTime.class), anyInt());
+        assertEquals(0, meterRegistry.get("log.cleanup.chunks").counter().count());
     }
-}
 
+    @Test
+    void testCleanupOldLogsDropsPartitionsWhenTableIsPartitioned() {
+        when(logPartitionManager.isPartitioned()).thenReturn(true);
+        when(logPartitionManager.createFuturePartitions(any(LocalDate.class))).thenReturn(1);
+        when(logPartitionManager.dropExpiredPartitions(any(LocalDateTime.class))).thenReturn(2);
+
+        logCleanupScheduler.cleanupOldLogs();
+
+        verify(logPartitionManager, times(1)).createFuturePartitions(any(LocalDate.class));
+        verify(logPartitionManager, times(1)).dropExpiredPartitions(argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusDays(89))));
+        verify(logEntryService, never()).deleteOldLogsChunk(any(LocalDateTime.class), anyInt());
+        assertEquals(2, meterRegistry.get("log.cleanup.partitions.dropped").counter().count());
+    }
+}
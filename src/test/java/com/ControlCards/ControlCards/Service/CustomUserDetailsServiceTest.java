@@ -0,0 +1,155 @@
+package com.ControlCards.ControlCards.Service;
+
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Repository.UserRepository;
+import com.ControlCards.ControlCards.Service.Impl.UserCredentialsCache;
+import com.ControlCards.ControlCards.Util.Enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCredentialsCache userCredentialsCache;
+    private CustomUserDetailsService customUserDetailsService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userCredentialsCache = new UserCredentialsCache(new ConcurrentMapCacheManager());
+        customUserDetailsService = new CustomUserDetailsService(userRepository, userCredentialsCache);
+
+        testUser = new User();
+        testUser.setUsername("worker");
+        testUser.setPassword("encodedPassword");
+        testUser.setRole(Role.WORKER);
+        testUser.setActive(true);
+    }
+
+    @Test
+    void testRepeatedLoginsHitDatabaseOnce() {
+        when(userRepository.findByUsername("worker")).thenReturn(Optional.of(testUser));
+
+        UserDetails first = customUserDetailsService.loadUserByUsername("worker");
+        UserDetails second = customUserDetailsService.loadUserByUsername("worker");
+
+        assertEquals("encodedPassword", second.getPassword());
+        assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_WORKER")));
+        assertNotSame(first, second);
+        verify(userRepository, times(1)).findByUsername("worker");
+    }
+
+    @Test
+    void testErasedCredentialsDoNotLeakIntoCache() {
+        when(userRepository.findByUsername("worker")).thenReturn(Optional.of(testUser));
+
+        UserDetails first = customUserDetailsService.loadUserByUsername("worker");
+        ((CredentialsContainer) first).eraseCredentials();
+        UserDetails second = customUserDetailsService.loadUserByUsername("worker");
+
+        assertEquals("encodedPassword", second.getPassword());
+    }
+
+    @Test
+    void testEvictReloadsFromDatabase() {
+        when(userRepository.findByUsername("worker")).thenReturn(Optional.of(testUser));
+        customUserDetailsService.loadUserByUsername("worker");
+
+        testUser.setActive(false);
+        userCredentialsCache.evict("worker");
+
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("worker"));
+        verify(userRepository, times(2)).findByUsername("worker");
+    }
+
+    @Test
+    void testDeactivateDuringLoginIsNotOverwritten() throws Exception {
+        User staleActive = new User();
+        staleActive.setUsername("worker");
+        staleActive.setPassword("encodedPassword");
+        staleActive.setRole(Role.WORKER);
+        staleActive.setActive(true);
+        testUser.setActive(false);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        // Първият вход чете активния потребител и изчаква деактивирането, преди да върне резултата
+        when(userRepository.findByUsername("worker"))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    evicted.await(200, TimeUnit.MILLISECONDS);
+                    return Optional.of(staleActive);
+                })
+                .thenReturn(Optional.of(testUser));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserDetails> login = executor.submit(() -> customUserDetailsService.loadUserByUsername("worker"));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<?> deactivate = executor.submit(() -> {
+                userCredentialsCache.evict("worker");
+                evicted.countDown();
+            });
+            login.get(5, TimeUnit.SECONDS);
+            deactivate.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(userCredentialsCache.get("worker").isEmpty());
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("worker"));
+    }
+
+    @Test
+    void testInactiveAdminCanStillLogIn() {
+        testUser.setRole(Role.ADMIN);
+        testUser.setActive(false);
+        when(userRepository.findByUsername("worker")).thenReturn(Optional.of(testUser));
+
+        UserDetails userDetails = customUserDetailsService.loadUserByUsername("worker");
+
+        assertEquals("worker", userDetails.getUsername());
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        when(userRepository.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("nobody"));
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("nobody"));
+
+        verify(userRepository, times(2)).findByUsername("nobody");
+        assertTrue(userCredentialsCache.get("nobody").isEmpty());
+    }
+
+    @Test
+    void testUpdatePasswordStoresNewHashAndEvictsCache() {
+        when(userRepository.findByUsername("worker")).thenReturn(Optional.of(testUser));
+        UserDetails loaded = customUserDetailsService.loadUserByUsername("worker");
+
+        UserDetails updated = customUserDetailsService.updatePassword(loaded, "newHash");
+
+        assertEquals("newHash", updated.getPassword());
+        assertEquals("newHash", testUser.getPassword());
+        verify(userRepository, times(1)).save(testUser);
+        assertTrue(userCredentialsCache.get("worker").isEmpty());
+    }
+}
@@ -0,0 +1,164 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Model.LogEntry;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Repository.LogEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private LogEntryRepository logEntryRepository;
+
+    private AuditLogWriter auditLogWriter;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+        testUser.setUsername("testuser");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (auditLogWriter != null) {
+            auditLogWriter.stop();
+        }
+    }
+
+    @Test
+    void testWriteIsSynchronousWhenDisabled() {
+        auditLogWriter = new AuditLogWriter(logEntryRepository, false, 10, 5, 50, 1000,
+                AuditLogWriter.OverflowPolicy.CALLER_RUNS);
+        auditLogWriter.start();
+        LogEntry logEntry = new LogEntry(testUser, "Test action");
+
+        auditLogWriter.write(logEntry);
+
+        assertFalse(auditLogWriter.isRunning());
+        verify(logEntryRepository, times(1)).save(logEntry);
+        verify(logEntryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWritesAreFlushedInBatches() {
+        auditLogWriter = new AuditLogWriter(logEntryRepository, true, 100, 10, 50, 1000,
+                AuditLogWriter.OverflowPolicy.CALLER_RUNS);
+        List<LogEntry> saved = new ArrayList<>();
+        when(logEntryRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        auditLogWriter.start();
+
+        for (int i = 0; i < 25; i++) {
+            auditLogWriter.write(new LogEntry(testUser, "Action " + i));
+        }
+
+        verify(logEntryRepository, timeout(2000).atLeast(3)).saveAll(anyList());
+        auditLogWriter.stop();
+        ArgumentCaptor<List<LogEntry>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(logEntryRepository, atLeast(3)).saveAll(batchCaptor.capture());
+        assertTrue(batchCaptor.getAllValues().stream().allMatch(batch -> batch.size() <= 10));
+        verify(logEntryRepository, never()).save(any(LogEntry.class));
+        assertEquals(25, saved.size());
+    }
+
+    @Test
+    void testStopDrainsQueuedEntries() throws Exception {
+        auditLogWriter = new AuditLogWriter(logEntryRepository, true, 100, 1, 60000, 1000,
+                AuditLogWriter.OverflowPolicy.CALLER_RUNS);
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<LogEntry> saved = new ArrayList<>();
+        when(logEntryRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<LogEntry> batch = invocation.getArgument(0);
+            if (firstBatchStarted.getCount() > 0) {
+                firstBatchStarted.countDown();
+                releaseFirstBatch.await(2, TimeUnit.SECONDS);
+            }
+            synchronized (saved) {
+                saved.addAll(batch);
+            }
+            return batch;
+        });
+        auditLogWriter.start();
+
+        auditLogWriter.write(new LogEntry(testUser, "First"));
+        assertTrue(firstBatchStarted.await(2, TimeUnit.SECONDS));
+        auditLogWriter.write(new LogEntry(testUser, "Second"));
+        auditLogWriter.write(new LogEntry(testUser, "Third"));
+        releaseFirstBatch.countDown();
+        auditLogWriter.stop();
+
+        assertFalse(auditLogWriter.isRunning());
+        assertEquals(0, auditLogWriter.getQueueSize());
+        assertEquals(3, saved.size());
+    }
+
+    @Test
+    void testOverflowCallerRunsSavesSynchronously() throws Exception {
+        auditLogWriter = new AuditLogWriter(logEntryRepository, true, 1, 1, 50, 1000,
+                AuditLogWriter.OverflowPolicy.CALLER_RUNS);
+        CountDownLatch flusherBlocked = blockFlusher();
+        auditLogWriter.start();
+
+        auditLogWriter.write(new LogEntry(testUser, "Blocks flusher"));
+        assertTrue(flusherBlocked.await(2, TimeUnit.SECONDS));
+        auditLogWriter.write(new LogEntry(testUser, "Fills queue"));
+        LogEntry overflow = new LogEntry(testUser, "Overflow");
+        auditLogWriter.write(overflow);
+
+        verify(logEntryRepository, times(1)).save(overflow);
+        assertEquals(0, auditLogWriter.getDroppedCount());
+    }
+
+    @Test
+    void testOverflowDropDiscardsEntry() throws Exception {
+        auditLogWriter = new AuditLogWriter(logEntryRepository, true, 1, 1, 50, 1000,
+                AuditLogWriter.OverflowPolicy.DROP);
+        CountDownLatch flusherBlocked = blockFlusher();
+        auditLogWriter.start();
+
+        auditLogWriter.write(new LogEntry(testUser, "Blocks flusher"));
+        assertTrue(flusherBlocked.await(2, TimeUnit.SECONDS));
+        auditLogWriter.write(new LogEntry(testUser, "Fills queue"));
+        auditLogWriter.write(new LogEntry(testUser, "Overflow"));
+
+        verify(logEntryRepository, never()).save(any(LogEntry.class));
+        assertEquals(1, auditLogWriter.getDroppedCount());
+    }
+
+    // Първата партида блокира нишката за запис за кратко, за да може опашката да се напълни
+    private CountDownLatch blockFlusher() {
+        CountDownLatch flusherBlocked = new CountDownLatch(1);
+        when(logEntryRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (flusherBlocked.getCount() > 0) {
+                flusherBlocked.countDown();
+                Thread.sleep(500);
+            }
+            return invocation.getArgument(0);
+        });
+        return flusherBlocked;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Model.Workshop;
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import com.ControlCards.ControlCards.Util.Enums.Role;
+import com.ControlCards.ControlCards.Util.Enums.Shift;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardEventBroadcasterTest {
+
+    private final UUID workshopA = UUID.randomUUID();
+    private final UUID workshopB = UUID.randomUUID();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecordingBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new RecordingBroadcaster(meterRegistry);
+    }
+
+    private static User user(Role role, UUID... workshopIds) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(role.name().toLowerCase());
+        user.setRole(role);
+        List<Workshop> workshops = new ArrayList<>();
+        for (UUID workshopId : workshopIds) {
+            Workshop workshop = new Workshop();
+            workshop.setId(workshopId);
+            workshops.add(workshop);
+        }
+        user.setWorkshops(workshops);
+        return user;
+    }
+
+    private static CardStateChangedEvent event(CardStateChangedEvent.Transition transition, UUID workshopId) {
+        CardViewDTO card = new CardViewDTO();
+        card.setId(UUID.randomUUID());
+        card.setWorkshopName("Цех 1");
+        card.setWorkCenterName("1001");
+        card.setShift(Shift.FIRST);
+        card.setShortDescription("Спряла машина");
+        card.setStatus(CardStatus.CREATED);
+        card.setCreatedByName("Иван Петров");
+        return new CardStateChangedEvent(transition, card.getId(), workshopId, card);
+    }
+
+    @Test
+    void testEventsAreScopedToSubscriberWorkshops() {
+        RecordingEmitter technicianA = (RecordingEmitter) broadcaster.subscribe(user(Role.TECHNICIAN, workshopA));
+        RecordingEmitter technicianB = (RecordingEmitter) broadcaster.subscribe(user(Role.TECHNICIAN, workshopB));
+        RecordingEmitter admin = (RecordingEmitter) broadcaster.subscribe(user(Role.ADMIN));
+
+        broadcaster.onCardStateChanged(event(CardStateChangedEvent.Transition.CREATED, workshopA));
+
+        assertEquals(1, technicianA.sent.size());
+        assertTrue(technicianB.sent.isEmpty());
+        assertEquals(1, admin.sent.size());
+    }
+
+    @Test
+    void testPayloadCarriesTableColumns() {
+        RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe(user(Role.ADMIN));
+        CardStateChangedEvent event = event(CardStateChangedEvent.Transition.EXTENDED, workshopA);
+
+        broadcaster.onCardStateChanged(event);
+
+        String payload = emitter.sent.get(0);
+        assertTrue(payload.contains("event:" + CardEventBroadcaster.EVENT_NAME), payload);
+        assertTrue(payload.contains("\"type\":\"EXTENDED\""), payload);
+        assertTrue(payload.contains("\"cardId\":\"" + event.getCardId() + "\""), payload);
+        assertTrue(payload.contains("\"shift\":\"" + Shift.FIRST.getDisplayName() + "\""), payload);
+        assertTrue(payload.contains("\"createdBy\":\"Иван Петров\""), payload);
+    }
+
+    @Test
+    void testFailedSubscriberIsRemoved() {
+        RecordingEmitter broken = (RecordingEmitter) broadcaster.subscribe(user(Role.ADMIN));
+        RecordingEmitter healthy = (RecordingEmitter) broadcaster.subscribe(user(Role.ADMIN));
+        broken.failing = true;
+
+        broadcaster.onCardStateChanged(event(CardStateChangedEvent.Transition.CLOSED, workshopA));
+        broadcaster.onCardStateChanged(event(CardStateChangedEvent.Transition.ARCHIVED, workshopA));
+
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(2, healthy.sent.size());
+        assertEquals(1.0, meterRegistry.get("cards.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void testHeartbeatReachesAllSubscribers() {
+        RecordingEmitter technician = (RecordingEmitter) broadcaster.subscribe(user(Role.TECHNICIAN));
+        RecordingEmitter admin = (RecordingEmitter) broadcaster.subscribe(user(Role.ADMIN));
+
+        broadcaster.heartbeat();
+
+        assertEquals(List.of(":ping"), technician.sent);
+        assertEquals(List.of(":ping"), admin.sent);
+    }
+
+    @Test
+    void testFullQueueFailsRelayForRetry() {
+        CardEventBroadcaster saturated = new CardEventBroadcaster(Jackson2ObjectMapperBuilder.json().build(),
+                meterRegistry, 1000, task -> {
+                    throw new RejectedExecutionException("full");
+                });
+        saturated.subscribe(user(Role.ADMIN));
+
+        assertThrows(RejectedExecutionException.class,
+                () -> saturated.onCardStateChanged(event(CardStateChangedEvent.Transition.CREATED, workshopA)));
+        assertEquals(1.0, meterRegistry.get("cards.stream.rejected").counter().count());
+    }
+
+    @Test
+    void testNoSubscribersAcceptsEventWithoutQueueing() {
+        CardEventBroadcaster saturated = new CardEventBroadcaster(Jackson2ObjectMapperBuilder.json().build(),
+                meterRegistry, 1000, task -> {
+                    throw new RejectedExecutionException("full");
+                });
+
+        assertDoesNotThrow(() -> saturated.onCardStateChanged(event(CardStateChangedEvent.Transition.CREATED, workshopA)));
+        assertEquals(0.0, meterRegistry.get("cards.stream.rejected").counter().count());
+    }
+
+    // Записва изпратеното вместо да пише в HTTP отговор
+    private static final class RecordingBroadcaster extends CardEventBroadcaster {
+
+        private RecordingBroadcaster(SimpleMeterRegistry meterRegistry) {
+            super(Jackson2ObjectMapperBuilder.json().build(), meterRegistry, 1000, Runnable::run);
+        }
+
+        @Override
+        SseEmitter createEmitter() {
+            return new RecordingEmitter();
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            Set<DataWithMediaType> parts = builder.build();
+            sent.add(parts.stream().map(part -> String.valueOf(part.getData())).collect(Collectors.joining()).trim());
+        }
+    }
+}
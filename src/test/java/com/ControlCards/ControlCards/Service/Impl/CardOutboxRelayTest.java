@@ -0,0 +1,166 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
+import com.ControlCards.ControlCards.Model.CardOutboxEvent;
+import com.ControlCards.ControlCards.Repository.CardOutboxRepository;
+import com.ControlCards.ControlCards.Util.Enums.CardStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardOutboxRelayTest {
+
+    private static final int BATCH_SIZE = 3;
+    private static final int MAX_ATTEMPTS = 2;
+
+    @Mock
+    private CardOutboxRepository cardOutboxRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final AtomicLong ids = new AtomicLong();
+    private final List<CardOutboxEvent> table = new ArrayList<>();
+    private final List<CardStateChangedEvent> published = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private CardOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new CardOutboxRelay(cardOutboxRepository, eventPublisher, objectMapper, transactionManager,
+                meterRegistry, false, BATCH_SIZE, 1000, MAX_ATTEMPTS, 24);
+        // Като заявката - най-малките id без публикуваните
+        lenient().when(cardOutboxRepository.findPending(any(Limit.class))).thenAnswer(invocation -> {
+            Limit limit = invocation.getArgument(0);
+            return table.stream().filter(e -> e.getPublishedAt() == null).limit(limit.max()).toList();
+        });
+    }
+
+    private CardOutboxEvent entry(CardStateChangedEvent.Transition transition, UUID cardId) throws Exception {
+        CardViewDTO card = new CardViewDTO();
+        card.setId(cardId);
+        card.setStatus(CardStatus.CREATED);
+        card.setShortDescription("Спряла машина");
+        CardOutboxEvent entry = new CardOutboxEvent(transition, cardId, UUID.randomUUID(),
+                objectMapper.writeValueAsString(card));
+        entry.setId(ids.incrementAndGet());
+        table.add(entry);
+        return entry;
+    }
+
+    private void recordPublished() {
+        doAnswer(invocation -> {
+            published.add(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testPublishesPendingInOrderAcrossBatches() throws Exception {
+        recordPublished();
+        UUID cardId = UUID.randomUUID();
+        entry(CardStateChangedEvent.Transition.CREATED, cardId);
+        entry(CardStateChangedEvent.Transition.EXTENDED, cardId);
+        entry(CardStateChangedEvent.Transition.CLOSED, cardId);
+        entry(CardStateChangedEvent.Transition.ARCHIVED, cardId);
+
+        assertEquals(4, relay.relayPending());
+
+        assertEquals(List.of(CardStateChangedEvent.Transition.CREATED, CardStateChangedEvent.Transition.EXTENDED,
+                        CardStateChangedEvent.Transition.CLOSED, CardStateChangedEvent.Transition.ARCHIVED),
+                published.stream().map(CardStateChangedEvent::getTransition).toList());
+        assertEquals("Спряла машина", published.get(0).getCard().getShortDescription());
+        assertTrue(table.stream().allMatch(e -> e.getPublishedAt() != null));
+        verify(cardOutboxRepository, times(2)).findPending(any(Limit.class));
+        assertEquals(4.0, meterRegistry.get("cards.outbox.published").counter().count());
+    }
+
+    @Test
+    void testFailureHoldsBackLaterChangesOfSameCard() throws Exception {
+        UUID failingCard = UUID.randomUUID();
+        UUID otherCard = UUID.randomUUID();
+        CardOutboxEvent failing = entry(CardStateChangedEvent.Transition.CREATED, failingCard);
+        CardOutboxEvent heldBack = entry(CardStateChangedEvent.Transition.EXTENDED, failingCard);
+        CardOutboxEvent other = entry(CardStateChangedEvent.Transition.CREATED, otherCard);
+        doAnswer(invocation -> {
+            CardStateChangedEvent event = invocation.getArgument(0);
+            if (event.getCardId().equals(failingCard)) {
+                throw new IllegalStateException("listener down");
+            }
+            published.add(event);
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        assertEquals(1, relay.relayPending());
+
+        assertEquals(1, failing.getAttempts());
+        assertTrue(failing.getLastError().contains("listener down"));
+        assertNull(failing.getPublishedAt());
+        assertNull(heldBack.getPublishedAt());
+        assertEquals(0, heldBack.getAttempts());
+        assertNotNull(other.getPublishedAt());
+        assertEquals(List.of(otherCard), published.stream().map(CardStateChangedEvent::getCardId).toList());
+    }
+
+    @Test
+    void testRetriesOnNextRunAndKeepsOrder() throws Exception {
+        UUID cardId = UUID.randomUUID();
+        entry(CardStateChangedEvent.Transition.CREATED, cardId);
+        entry(CardStateChangedEvent.Transition.EXTENDED, cardId);
+        doThrow(new IllegalStateException("listener down"))
+                .doAnswer(invocation -> {
+                    published.add(invocation.getArgument(0));
+                    return null;
+                })
+                .when(eventPublisher).publishEvent(any(Object.class));
+
+        assertEquals(0, relay.relayPending());
+        assertEquals(2, relay.relayPending());
+
+        assertEquals(List.of(CardStateChangedEvent.Transition.CREATED, CardStateChangedEvent.Transition.EXTENDED),
+                published.stream().map(CardStateChangedEvent::getTransition).toList());
+    }
+
+    @Test
+    void testAbandonsAfterMaxAttempts() throws Exception {
+        recordPublished();
+        UUID cardId = UUID.randomUUID();
+        CardOutboxEvent broken = entry(CardStateChangedEvent.Transition.CREATED, cardId);
+        broken.setPayload("{not json");
+        CardOutboxEvent next = entry(CardStateChangedEvent.Transition.EXTENDED, cardId);
+
+        relay.relayPending();
+        assertNull(next.getPublishedAt());
+        relay.relayPending();
+
+        assertEquals(MAX_ATTEMPTS, broken.getAttempts());
+        assertNotNull(broken.getPublishedAt());
+        assertNotNull(broken.getLastError());
+        assertNotNull(next.getPublishedAt());
+        assertEquals(1.0, meterRegistry.get("cards.outbox.abandoned").counter().count());
+    }
+}
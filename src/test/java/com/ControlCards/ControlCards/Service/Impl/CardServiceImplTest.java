@@ -1,13 +1,20 @@
 package com.ControlCards.ControlCards.Service.Impl;
 
+import com.ControlCards.ControlCards.DTO.ArchivedCardFilterDTO;
+import com.ControlCards.ControlCards.DTO.ArchivedCardPageDTO;
+import com.ControlCards.ControlCards.DTO.CardBulkResultDTO;
 import com.ControlCards.ControlCards.DTO.CardCreateDTO;
+import com.ControlCards.ControlCards.DTO.CardCursorDTO;
 import com.ControlCards.ControlCards.DTO.CardExtendDTO;
+import com.ControlCards.ControlCards.DTO.CardPageDTO;
+import com.ControlCards.ControlCards.DTO.CardStatusSnapshot;
 import com.ControlCards.ControlCards.DTO.CardViewDTO;
+import com.ControlCards.ControlCards.Event.CardStateChangedEvent;
 import com.ControlCards.ControlCards.Exception.CardNotFoundException;
+import com.ControlCards.ControlCards.Exception.CardStateConflictException;
 import com.ControlCards.ControlCards.Exception.InvalidCardStatusException;
 import com.ControlCards.ControlCards.Exception.WorkshopNotFoundException;
 import com.ControlCards.ControlCards.Exception.WorkCenterNotFoundException;
-import com.ControlCards.ControlCards.Model.ArchivedCard;
 import com.ControlCards.ControlCards.Model.Card;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Model.WorkCenter;
@@ -22,15 +29,19 @@ import com.ControlCards.ControlCards.Util.Enums.Shift;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +62,9 @@ class CardServiceImplTest {
     @Mock
     private WorkCenterService workCenterService;
 
+    @Mock
+    private CardOutboxService cardOutboxService;
+
     @InjectMocks
     private CardServiceImpl cardService;
 
@@ -59,6 +73,7 @@ class CardServiceImplTest {
     private Workshop testWorkshop;
     private WorkCenter testWorkCenter;
     private Card testCard;
+    private CardViewDTO testCardView;
     private CardCreateDTO cardCreateDTO;
     private UUID testCardId;
     private UUID testWorkshopId;
@@ -105,6 +120,15 @@ class CardServiceImplTest {
         testCard.setWorkCenter(testWorkCenter);
         testCard.setCreatedAt(LocalDateTime.now());
 
+        testCardView = new CardViewDTO();
+        testCardView.setId(testCardId);
+        testCardView.setWorkshopName(testWorkshop.getName());
+        testCardView.setWorkCenterName(testWorkCenter.getNumber());
+        testCardView.setShift(Shift.FIRST);
+        testCardView.setShortDescription("Test Card");
+        testCardView.setStatus(CardStatus.CREATED);
+        testCardView.setCreatedAt(testCard.getCreatedAt());
+
         cardCreateDTO = new CardCreateDTO();
         cardCreateDTO.setWorkshopId(testWorkshopId);
         cardCreateDTO.setWorkCenterId(testWorkCenterId);
@@ -158,77 +182,115 @@ class CardServiceImplTest {
 
     @Test
     void testGetCreatedCardsForAdmin() {
-        when(cardRepository.findByStatus(CardStatus.CREATED)).thenReturn(Arrays.asList(testCard));
+        when(cardRepository.findPageByStatus(eq(CardStatus.CREATED), isNull(), isNull(), any(Limit.class)))
+                .thenReturn(Arrays.asList(testCardView));
 
-        List<CardViewDTO> result = cardService.getCreatedCards(adminUser);
+        CardPageDTO result = cardService.getCreatedCards(adminUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(cardRepository, times(1)).findByStatus(CardStatus.CREATED);
-        verify(cardRepository, never()).findByStatusAndWorkshopIn(any(), any());
+        assertEquals(1, result.getCards().size());
+        assertFalse(result.isHasNext());
+        verify(cardRepository, times(1)).findPageByStatus(CardStatus.CREATED, null, null, Limit.of(CardCursorDTO.DEFAULT_SIZE + 1));
+        verify(cardRepository, never()).findPageByStatusAndWorkshopIds(any(), any(), any(), any(), any());
     }
 
     @Test
     void testGetCreatedCardsForTechnician() {
         testUser.setWorkshops(Arrays.asList(testWorkshop));
-        when(cardRepository.findByStatusAndWorkshopIn(CardStatus.CREATED, Arrays.asList(testWorkshop)))
-                .thenReturn(Arrays.asList(testCard));
+        when(cardRepository.findPageByStatusAndWorkshopIds(eq(CardStatus.CREATED), eq(List.of(testWorkshopId)),
+                isNull(), isNull(), any(Limit.class)))
+                .thenReturn(Arrays.asList(testCardView));
 
-        List<CardViewDTO> result = cardService.getCreatedCards(testUser);
+        CardPageDTO result = cardService.getCreatedCards(testUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(cardRepository, never()).findByStatus(any());
-        verify(cardRepository, times(1)).findByStatusAndWorkshopIn(CardStatus.CREATED, Arrays.asList(testWorkshop));
+        assertEquals(1, result.getCards().size());
+        verify(cardRepository, never()).findPageByStatus(any(), any(), any(), any());
+        verify(cardRepository, times(1)).findPageByStatusAndWorkshopIds(eq(CardStatus.CREATED), eq(List.of(testWorkshopId)),
+                isNull(), isNull(), any(Limit.class));
     }
 
     @Test
     void testGetCreatedCardsForUserWithNoWorkshops() {
         testUser.setWorkshops(new ArrayList<>());
 
-        List<CardViewDTO> result = cardService.getCreatedCards(testUser);
+        CardPageDTO result = cardService.getCreatedCards(testUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(cardRepository, never()).findByStatus(any());
-        verify(cardRepository, never()).findByStatusAndWorkshopIn(any(), any());
+        assertTrue(result.getCards().isEmpty());
+        assertFalse(result.isHasNext());
+        verify(cardRepository, never()).findPageByStatus(any(), any(), any(), any());
+        verify(cardRepository, never()).findPageByStatusAndWorkshopIds(any(), any(), any(), any(), any());
     }
 
     @Test
     void testGetExtendedCardsForAdmin() {
         testCard.setStatus(CardStatus.EXTENDED);
-        when(cardRepository.findByStatus(CardStatus.EXTENDED)).thenReturn(Arrays.asList(testCard));
+        when(cardRepository.findPageByStatus(eq(CardStatus.EXTENDED), isNull(), isNull(), any(Limit.class)))
+                .thenReturn(Arrays.asList(testCardView));
 
-        List<CardViewDTO> result = cardService.getExtendedCards(adminUser);
+        CardPageDTO result = cardService.getExtendedCards(adminUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(cardRepository, times(1)).findByStatus(CardStatus.EXTENDED);
+        assertEquals(1, result.getCards().size());
+        verify(cardRepository, times(1)).findPageByStatus(eq(CardStatus.EXTENDED), isNull(), isNull(), any(Limit.class));
     }
 
     @Test
     void testGetAllCardsForAdmin() {
-        when(cardRepository.findAll()).thenReturn(Arrays.asList(testCard));
+        when(cardRepository.findPage(isNull(), isNull(), any(Limit.class))).thenReturn(Arrays.asList(testCardView));
 
-        List<CardViewDTO> result = cardService.getAllCards(adminUser);
+        CardPageDTO result = cardService.getAllCards(adminUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(cardRepository, times(1)).findAll();
-        verify(cardRepository, never()).findByWorkshopIn(any());
+        assertEquals(1, result.getCards().size());
+        verify(cardRepository, times(1)).findPage(isNull(), isNull(), any(Limit.class));
+        verify(cardRepository, never()).findPageByWorkshopIds(any(), any(), any(), any());
     }
 
     @Test
     void testGetAllCardsForTechnician() {
         testUser.setWorkshops(Arrays.asList(testWorkshop));
-        when(cardRepository.findByWorkshopIn(Arrays.asList(testWorkshop))).thenReturn(Arrays.asList(testCard));
+        when(cardRepository.findPageByWorkshopIds(eq(List.of(testWorkshopId)), isNull(), isNull(), any(Limit.class)))
+                .thenReturn(Arrays.asList(testCardView));
 
-        List<CardViewDTO> result = cardService.getAllCards(testUser);
+        CardPageDTO result = cardService.getAllCards(testUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(cardRepository, never()).findAll();
-        verify(cardRepository, times(1)).findByWorkshopIn(Arrays.asList(testWorkshop));
+        assertEquals(1, result.getCards().size());
+        verify(cardRepository, never()).findPage(any(), any(), any());
+        verify(cardRepository, times(1)).findPageByWorkshopIds(eq(List.of(testWorkshopId)), isNull(), isNull(), any(Limit.class));
+    }
+
+    @Test
+    void testGetAllCardsReturnsNextCursorWhenMoreRowsExist() {
+        CardViewDTO olderCard = new CardViewDTO();
+        olderCard.setId(UUID.randomUUID());
+        olderCard.setStatus(CardStatus.CREATED);
+        olderCard.setCreatedAt(testCard.getCreatedAt().minusMinutes(5));
+        when(cardRepository.findPage(isNull(), isNull(), eq(Limit.of(2))))
+                .thenReturn(Arrays.asList(testCardView, olderCard));
+
+        CardPageDTO result = cardService.getAllCards(adminUser, new CardCursorDTO(null, null, 1));
+
+        assertEquals(1, result.getCards().size());
+        assertTrue(result.isHasNext());
+        assertEquals(testCard.getCreatedAt(), result.getNextCreatedAt());
+        assertEquals(testCardId, result.getNextId());
+    }
+
+    @Test
+    void testGetAllCardsWithCursorPassesSeekPosition() {
+        LocalDateTime afterCreatedAt = LocalDateTime.now().minusDays(1);
+        UUID afterId = UUID.randomUUID();
+        when(cardRepository.findPage(afterCreatedAt, afterId, Limit.of(CardCursorDTO.DEFAULT_SIZE + 1)))
+                .thenReturn(new ArrayList<>());
+
+        CardPageDTO result = cardService.getAllCards(adminUser, new CardCursorDTO(afterCreatedAt, afterId, null));
+
+        assertTrue(result.getCards().isEmpty());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextId());
     }
 
     @Test
@@ -237,93 +299,382 @@ class CardServiceImplTest {
         extendDTO.setDetailedDescription("Extended description");
         extendDTO.setResolutionDurationMinutes(60);
 
-        when(cardRepository.findById(testCardId)).thenReturn(Optional.of(testCard));
-        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
+        when(cardRepository.extendIfStatus(eq(testCardId), eq(CardStatus.CREATED), eq(CardStatus.EXTENDED),
+                eq("Extended description"), eq(60), eq(testUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.findViewById(testCardId)).thenReturn(Optional.of(testCardView));
         when(logEntryService.createLog(any(User.class), anyString())).thenReturn(null);
 
         cardService.extendCard(testCardId, extendDTO, testUser);
 
-        assertEquals(CardStatus.EXTENDED, testCard.getStatus());
-        assertEquals("Extended description", testCard.getDetailedDescription());
-        assertEquals(60, testCard.getResolutionDurationMinutes());
-        verify(cardRepository, times(1)).findById(testCardId);
-        verify(cardRepository, times(1)).save(testCard);
+        verify(cardRepository, never()).findById(any());
+        verify(cardRepository, never()).save(any());
         verify(logEntryService, times(1)).createLog(any(User.class), anyString());
     }
 
+    @Test
+    void testExtendCardKeepsDescriptionWhenBlank() {
+        CardExtendDTO extendDTO = new CardExtendDTO();
+        extendDTO.setDetailedDescription("   ");
+
+        when(cardRepository.extendIfStatus(eq(testCardId), eq(CardStatus.CREATED), eq(CardStatus.EXTENDED),
+                isNull(), isNull(), eq(testUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.findViewById(testCardId)).thenReturn(Optional.of(testCardView));
+
+        cardService.extendCard(testCardId, extendDTO, testUser);
+
+        verify(cardRepository).extendIfStatus(eq(testCardId), eq(CardStatus.CREATED), eq(CardStatus.EXTENDED),
+                isNull(), isNull(), eq(testUser), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testExtendCardRecordsOutboxEvent() {
+        when(cardRepository.extendIfStatus(any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(cardRepository.findViewById(testCardId)).thenReturn(Optional.of(testCardView));
+
+        cardService.extendCard(testCardId, new CardExtendDTO(), testUser);
+
+        verify(cardOutboxService).record(CardStateChangedEvent.Transition.EXTENDED, testCardView);
+    }
+
+    @Test
+    void testArchiveCardRecordsOutboxEvent() {
+        testCardView.setStatus(CardStatus.CLOSED);
+        testCardView.setWorkshopId(testWorkshopId);
+        when(cardRepository.findViewsByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(List.of(testCardView));
+        when(archivedCardService.copyClosedCards(eq(List.of(testCardId)), eq(adminUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.deleteByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(1);
+
+        cardService.archiveCard(testCardId, adminUser);
+
+        ArgumentCaptor<CardViewDTO> card = ArgumentCaptor.forClass(CardViewDTO.class);
+        verify(cardOutboxService).record(eq(CardStateChangedEvent.Transition.ARCHIVED), card.capture());
+        assertEquals(testCardId, card.getValue().getId());
+        assertEquals(testWorkshopId, card.getValue().getWorkshopId());
+        verify(logEntryService).createLog(eq(adminUser), anyString());
+        verify(cardRepository, never()).findById(any());
+        verify(cardRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void testArchiveCardNotClosed() {
+        when(cardRepository.findViewsByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(List.of());
+        when(cardRepository.existsById(testCardId)).thenReturn(true);
+
+        assertThrows(InvalidCardStatusException.class, () -> cardService.archiveCard(testCardId, adminUser));
+
+        verify(archivedCardService, never()).copyClosedCards(any(), any(), any());
+        verify(cardRepository, never()).deleteByIdInAndStatus(any(), any());
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
+    @Test
+    void testArchiveCardNotFound() {
+        when(cardRepository.findViewsByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(List.of());
+        when(cardRepository.existsById(testCardId)).thenReturn(false);
+
+        assertThrows(CardNotFoundException.class, () -> cardService.archiveCard(testCardId, adminUser));
+    }
+
+    @Test
+    void testArchiveCardConcurrentlyArchivedIsConflict() {
+        when(cardRepository.findViewsByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(List.of(testCardView));
+        when(archivedCardService.copyClosedCards(any(), any(), any())).thenReturn(0);
+        when(cardRepository.deleteByIdInAndStatus(any(), any())).thenReturn(0);
+
+        assertThrows(CardStateConflictException.class, () -> cardService.archiveCard(testCardId, adminUser));
+
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
+    @Test
+    void testArchiveCardsMovesOnlyClosedCardsAndReportsTheRest() {
+        UUID otherCardId = UUID.randomUUID();
+        CardViewDTO otherCard = new CardViewDTO();
+        otherCard.setId(otherCardId);
+        otherCard.setStatus(CardStatus.CLOSED);
+        UUID openCardId = UUID.randomUUID();
+        UUID missingCardId = UUID.randomUUID();
+        List<UUID> requested = List.of(testCardId, otherCardId, openCardId, missingCardId);
+        when(cardRepository.lockStatusesByIdIn(requested)).thenReturn(List.of(
+                new CardStatusSnapshot(testCardId, CardStatus.CLOSED, "Test Card", testWorkshopId),
+                new CardStatusSnapshot(otherCardId, CardStatus.CLOSED, "Other", testWorkshopId),
+                new CardStatusSnapshot(openCardId, CardStatus.EXTENDED, "Open", testWorkshopId)));
+        List<UUID> closed = List.of(testCardId, otherCardId);
+        when(cardRepository.findViewsByIdInAndStatus(closed, CardStatus.CLOSED)).thenReturn(List.of(testCardView, otherCard));
+        when(archivedCardService.copyClosedCards(eq(closed), eq(adminUser), any(LocalDateTime.class))).thenReturn(2);
+        when(cardRepository.deleteByIdInAndStatus(closed, CardStatus.CLOSED)).thenReturn(2);
+
+        CardBulkResultDTO result = cardService.archiveCards(requested, adminUser);
+
+        assertEquals(2, result.getSucceededCount());
+        assertEquals(2, result.getSkippedCount());
+        assertEquals(CardBulkResultDTO.Outcome.INVALID_STATUS, result.getItems().get(2).getOutcome());
+        assertEquals(CardStatus.EXTENDED, result.getItems().get(2).getStatus());
+        assertEquals(CardBulkResultDTO.Outcome.NOT_FOUND, result.getItems().get(3).getOutcome());
+        verify(cardOutboxService, times(2)).record(eq(CardStateChangedEvent.Transition.ARCHIVED), any(CardViewDTO.class));
+        verify(logEntryService, times(1)).createLog(adminUser,
+                "Масово архивирани карти: 2 от 4 - ID: " + testCardId + ", " + otherCardId);
+    }
+
+    @Test
+    void testArchiveCardsWithNothingClosed() {
+        when(cardRepository.lockStatusesByIdIn(List.of(testCardId)))
+                .thenReturn(List.of(new CardStatusSnapshot(testCardId, CardStatus.CREATED, "Test Card", testWorkshopId)));
+
+        assertEquals(0, cardService.archiveCards(List.of(testCardId), adminUser).getSucceededCount());
+        assertTrue(cardService.archiveCards(List.of(), adminUser).getItems().isEmpty());
+
+        verify(archivedCardService, never()).copyClosedCards(any(), any(), any());
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
+    @Test
+    void testCloseCardsUsesTechnicianRulesInChunks() {
+        testUser.setWorkshops(List.of(testWorkshop));
+        List<UUID> requested = new ArrayList<>();
+        List<CardStatusSnapshot> firstChunk = new ArrayList<>();
+        for (int i = 0; i < CardServiceImpl.BULK_CHUNK_SIZE; i++) {
+            UUID id = UUID.randomUUID();
+            requested.add(id);
+            firstChunk.add(new CardStatusSnapshot(id, CardStatus.EXTENDED, "Card " + i, testWorkshopId));
+        }
+        requested.add(testCardId);
+        requested.add(testCardId);
+        when(cardRepository.lockStatusesByIdIn(requested.subList(0, CardServiceImpl.BULK_CHUNK_SIZE))).thenReturn(firstChunk);
+        when(cardRepository.lockStatusesByIdIn(List.of(testCardId)))
+                .thenReturn(List.of(new CardStatusSnapshot(testCardId, CardStatus.CREATED, "Test Card", testWorkshopId)));
+        when(cardRepository.closeAllIfStatusIn(eq(requested.subList(0, CardServiceImpl.BULK_CHUNK_SIZE)),
+                eq(List.of(CardStatus.EXTENDED)), eq(CardStatus.CLOSED), eq(testUser), any(LocalDateTime.class)))
+                .thenReturn(CardServiceImpl.BULK_CHUNK_SIZE);
+        when(cardRepository.findViewsByIdInAndStatus(any(), eq(CardStatus.CLOSED))).thenReturn(List.of(testCardView));
+
+        CardBulkResultDTO result = cardService.closeCards(requested, testUser);
+
+        assertEquals(CardServiceImpl.BULK_CHUNK_SIZE + 1, result.getItems().size());
+        assertEquals(CardServiceImpl.BULK_CHUNK_SIZE, result.getSucceededCount());
+        assertEquals(CardStatus.CREATED, result.getItems().get(CardServiceImpl.BULK_CHUNK_SIZE).getStatus());
+        verify(cardRepository, times(1)).closeAllIfStatusIn(any(), any(), any(), any(), any());
+        // Id-тата на 50 карти не се събират в едно описание - продължават в следващ запис
+        ArgumentCaptor<String> entries = ArgumentCaptor.forClass(String.class);
+        verify(logEntryService, atLeast(2)).createLog(eq(testUser), entries.capture());
+        assertTrue(entries.getAllValues().get(0).startsWith(
+                "Масово затворени карти: " + CardServiceImpl.BULK_CHUNK_SIZE + " от " + (CardServiceImpl.BULK_CHUNK_SIZE + 1) + " - ID: "));
+        assertTrue(entries.getAllValues().stream().allMatch(entry -> entry.length() <= CardServiceImpl.MAX_LOG_LENGTH));
+        String logged = String.join(" ", entries.getAllValues());
+        assertTrue(requested.subList(0, CardServiceImpl.BULK_CHUNK_SIZE).stream().allMatch(id -> logged.contains(id.toString())));
+        assertFalse(logged.contains(testCardId.toString()));
+    }
+
+    @Test
+    void testCloseCardsByAdminAcceptsCreated() {
+        when(cardRepository.lockStatusesByIdIn(List.of(testCardId)))
+                .thenReturn(List.of(new CardStatusSnapshot(testCardId, CardStatus.CREATED, "Test Card", testWorkshopId)));
+        when(cardRepository.closeAllIfStatusIn(eq(List.of(testCardId)), eq(List.of(CardStatus.CREATED, CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(adminUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.findViewsByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(List.of(testCardView));
+
+        CardBulkResultDTO result = cardService.closeCards(List.of(testCardId), adminUser);
+
+        assertEquals(1, result.getSucceededCount());
+        verify(cardOutboxService).record(CardStateChangedEvent.Transition.CLOSED, testCardView);
+    }
+
+    @Test
+    void testCloseCardsUpdateMismatchIsConflict() {
+        testUser.setWorkshops(List.of(testWorkshop));
+        when(cardRepository.lockStatusesByIdIn(List.of(testCardId)))
+                .thenReturn(List.of(new CardStatusSnapshot(testCardId, CardStatus.EXTENDED, "Test Card", testWorkshopId)));
+        when(cardRepository.closeAllIfStatusIn(any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(CardStateConflictException.class, () -> cardService.closeCards(List.of(testCardId), testUser));
+
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
+    @Test
+    void testCloseCardsSkipsCardsOfOtherWorkshops() {
+        testUser.setWorkshops(List.of(testWorkshop));
+        UUID foreignCardId = UUID.randomUUID();
+        List<UUID> requested = List.of(testCardId, foreignCardId);
+        when(cardRepository.lockStatusesByIdIn(requested)).thenReturn(List.of(
+                new CardStatusSnapshot(testCardId, CardStatus.EXTENDED, "Test Card", testWorkshopId),
+                new CardStatusSnapshot(foreignCardId, CardStatus.EXTENDED, "Foreign", UUID.randomUUID())));
+        when(cardRepository.closeAllIfStatusIn(eq(List.of(testCardId)), eq(List.of(CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(testUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.findViewsByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(List.of(testCardView));
+
+        CardBulkResultDTO result = cardService.closeCards(requested, testUser);
+
+        assertEquals(1, result.getSucceededCount());
+        CardBulkResultDTO.Item foreign = result.getItems().get(1);
+        assertEquals(CardBulkResultDTO.Outcome.OTHER_WORKSHOP, foreign.getOutcome());
+        assertNull(foreign.getShortDescription());
+        assertNull(foreign.getStatus());
+        verify(cardOutboxService, times(1)).record(CardStateChangedEvent.Transition.CLOSED, testCardView);
+    }
+
+    @Test
+    void testArchiveCardsWithoutWorkshopsArchivesNothing() {
+        when(cardRepository.lockStatusesByIdIn(List.of(testCardId)))
+                .thenReturn(List.of(new CardStatusSnapshot(testCardId, CardStatus.CLOSED, "Test Card", testWorkshopId)));
+
+        CardBulkResultDTO result = cardService.archiveCards(List.of(testCardId), testUser);
+
+        assertEquals(CardBulkResultDTO.Outcome.OTHER_WORKSHOP, result.getItems().get(0).getOutcome());
+        verify(archivedCardService, never()).copyClosedCards(any(), any(), any());
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
+    @Test
+    void testArchiveExpiredCardsIgnoresWorkshops() {
+        when(cardRepository.lockStatusesByIdIn(List.of(testCardId)))
+                .thenReturn(List.of(new CardStatusSnapshot(testCardId, CardStatus.CLOSED, "Test Card", testWorkshopId)));
+        when(cardRepository.findViewsByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(List.of(testCardView));
+        when(archivedCardService.copyClosedCards(eq(List.of(testCardId)), eq(testUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.deleteByIdInAndStatus(List.of(testCardId), CardStatus.CLOSED)).thenReturn(1);
+
+        CardBulkResultDTO result = cardService.archiveExpiredCards(List.of(testCardId), testUser);
+
+        assertEquals(1, result.getSucceededCount());
+        verify(cardOutboxService).record(CardStateChangedEvent.Transition.ARCHIVED, testCardView);
+    }
+
+    @Test
+    void testFailedExtendDoesNotRecordOutboxEvent() {
+        when(cardRepository.extendIfStatus(any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(true);
+
+        assertThrows(InvalidCardStatusException.class,
+                () -> cardService.extendCard(testCardId, new CardExtendDTO(), testUser));
+
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
     @Test
     void testExtendCardNotFound() {
         CardExtendDTO extendDTO = new CardExtendDTO();
-        when(cardRepository.findById(testCardId)).thenReturn(Optional.empty());
+        when(cardRepository.extendIfStatus(any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(false);
 
         assertThrows(CardNotFoundException.class, () -> 
             cardService.extendCard(testCardId, extendDTO, testUser));
         
-        verify(cardRepository, times(1)).findById(testCardId);
-        verify(cardRepository, never()).save(any());
+        verify(cardRepository, never()).findViewById(any());
     }
 
     @Test
     void testExtendCardInvalidStatus() {
-        testCard.setStatus(CardStatus.EXTENDED);
         CardExtendDTO extendDTO = new CardExtendDTO();
-        when(cardRepository.findById(testCardId)).thenReturn(Optional.of(testCard));
+        when(cardRepository.extendIfStatus(any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(true);
 
-        assertThrows(InvalidCardStatusException.class, () -> 
+        assertThrows(CardStateConflictException.class, () -> 
             cardService.extendCard(testCardId, extendDTO, testUser));
         
-        verify(cardRepository, times(1)).findById(testCardId);
-        verify(cardRepository, never()).save(any());
+        verify(cardRepository, never()).findViewById(any());
     }
 
     @Test
     void testCloseCardByAdmin() {
-        testCard.setStatus(CardStatus.CREATED);
-        when(cardRepository.findById(testCardId)).thenReturn(Optional.of(testCard));
-        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
-        when(archivedCardService.save(any(ArchivedCard.class))).thenReturn(null);
-        doNothing().when(cardRepository).deleteById(testCardId);
-        when(logEntryService.createLog(any(User.class), anyString())).thenReturn(null);
+        testCardView.setStatus(CardStatus.CLOSED);
+        when(cardRepository.closeIfStatusIn(eq(testCardId), eq(List.of(CardStatus.CREATED, CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(adminUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.findViewById(testCardId)).thenReturn(Optional.of(testCardView));
 
         cardService.closeCard(testCardId, adminUser);
 
-        verify(cardRepository, times(1)).findById(testCardId);
-        verify(cardRepository, times(1)).save(testCard);
-        verify(archivedCardService, times(1)).save(any(ArchivedCard.class));
-        verify(cardRepository, times(1)).deleteById(testCardId);
-        verify(logEntryService, times(1)).createLog(any(User.class), anyString());
+        verify(cardRepository, never()).findById(any());
+        verify(cardRepository, never()).save(any());
+        verify(logEntryService, times(1)).createLog(eq(adminUser), anyString());
+        verify(cardOutboxService).record(CardStateChangedEvent.Transition.CLOSED, testCardView);
+    }
+
+    @Test
+    void testCloseCardByAdminNotFound() {
+        when(cardRepository.closeIfStatusIn(eq(testCardId), eq(List.of(CardStatus.CREATED, CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(adminUser), any(LocalDateTime.class))).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(false);
+
+        assertThrows(CardNotFoundException.class, () -> cardService.closeCard(testCardId, adminUser));
+
+        verify(cardRepository, never()).findViewById(any());
+        verifyNoInteractions(cardOutboxService, logEntryService);
     }
 
     @Test
     void testCloseCardByTechnician() {
-        testCard.setStatus(CardStatus.EXTENDED);
-        when(cardRepository.findById(testCardId)).thenReturn(Optional.of(testCard));
-        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
-        when(archivedCardService.save(any(ArchivedCard.class))).thenReturn(null);
-        doNothing().when(cardRepository).deleteById(testCardId);
-        when(logEntryService.createLog(any(User.class), anyString())).thenReturn(null);
+        testCardView.setStatus(CardStatus.CLOSED);
+        when(cardRepository.closeIfStatusIn(eq(testCardId), eq(List.of(CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(testUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.findViewById(testCardId)).thenReturn(Optional.of(testCardView));
 
         cardService.closeCard(testCardId, testUser);
 
-        verify(cardRepository, times(1)).findById(testCardId);
-        verify(cardRepository, times(1)).save(testCard);
-        verify(archivedCardService, times(1)).save(any(ArchivedCard.class));
-        verify(cardRepository, times(1)).deleteById(testCardId);
+        verify(cardRepository, never()).findById(any());
+        verify(cardRepository, never()).save(any());
+        verify(logEntryService, times(1)).createLog(eq(testUser), anyString());
+        verify(cardOutboxService).record(CardStateChangedEvent.Transition.CLOSED, testCardView);
+    }
+
+    @Test
+    void testCloseCardByTechnicianNotFound() {
+        when(cardRepository.closeIfStatusIn(eq(testCardId), eq(List.of(CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(testUser), any(LocalDateTime.class))).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(false);
+
+        assertThrows(CardNotFoundException.class, () -> cardService.closeCard(testCardId, testUser));
+
+        verify(cardRepository, never()).findViewById(any());
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
+    @Test
+    void testCloseCardByTechnicianConflict() {
+        when(cardRepository.closeIfStatusIn(eq(testCardId), eq(List.of(CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(testUser), any(LocalDateTime.class))).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(true);
+
+        assertThrows(CardStateConflictException.class, () -> cardService.closeCard(testCardId, testUser));
+
+        verify(cardRepository, never()).findViewById(any());
+        verifyNoInteractions(cardOutboxService, logEntryService);
     }
 
     @Test
     void testCloseCardInvalidStatusForTechnician() {
-        testCard.setStatus(CardStatus.CREATED);
-        when(cardRepository.findById(testCardId)).thenReturn(Optional.of(testCard));
+        when(cardRepository.closeIfStatusIn(eq(testCardId), eq(List.of(CardStatus.EXTENDED)), eq(CardStatus.CLOSED),
+                eq(testUser), any(LocalDateTime.class))).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(true);
 
         assertThrows(InvalidCardStatusException.class, () -> 
             cardService.closeCard(testCardId, testUser));
         
-        verify(cardRepository, times(1)).findById(testCardId);
         verify(cardRepository, never()).save(any());
         verify(archivedCardService, never()).save(any());
     }
 
+    @Test
+    void testCloseCardByAdminAcceptsCreatedAndExtended() {
+        when(cardRepository.closeIfStatusIn(eq(testCardId), eq(List.of(CardStatus.CREATED, CardStatus.EXTENDED)),
+                eq(CardStatus.CLOSED), eq(adminUser), any(LocalDateTime.class))).thenReturn(1);
+        when(cardRepository.findViewById(testCardId)).thenReturn(Optional.of(testCardView));
+
+        cardService.closeCard(testCardId, adminUser);
+
+        verify(cardOutboxService).record(CardStateChangedEvent.Transition.CLOSED, testCardView);
+        verify(logEntryService).createLog(eq(adminUser), anyString());
+    }
+
+    @Test
+    void testCloseCardAlreadyClosedIsConflict() {
+        when(cardRepository.closeIfStatusIn(any(), any(), any(), any(), any())).thenReturn(0);
+        when(cardRepository.existsById(testCardId)).thenReturn(true);
+
+        assertThrows(CardStateConflictException.class, () -> cardService.closeCard(testCardId, adminUser));
+
+        verifyNoInteractions(cardOutboxService, logEntryService);
+    }
+
     @Test
     void testCardExists() {
         when(cardRepository.existsById(testCardId)).thenReturn(true);
@@ -399,43 +750,82 @@ class CardServiceImplTest {
 
     @Test
     void testGetClosedCardsForAdmin() {
-        ArchivedCard archivedCard = new ArchivedCard();
-        archivedCard.setId(testCardId);
-        archivedCard.setWorkshop(testWorkshop);
-        when(archivedCardService.findAll()).thenReturn(Arrays.asList(archivedCard));
+        testCard.setStatus(CardStatus.CLOSED);
+        when(cardRepository.findPageByStatus(eq(CardStatus.CLOSED), isNull(), isNull(), any(Limit.class)))
+                .thenReturn(Arrays.asList(testCardView));
 
-        List<CardViewDTO> result = cardService.getClosedCards(adminUser);
+        CardPageDTO result = cardService.getClosedCards(adminUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(archivedCardService, times(1)).findAll();
+        assertEquals(1, result.getCards().size());
+        verify(cardRepository, times(1)).findPageByStatus(eq(CardStatus.CLOSED), isNull(), isNull(), any(Limit.class));
     }
 
     @Test
     void testGetClosedCardsForTechnician() {
         testUser.setWorkshops(Arrays.asList(testWorkshop));
-        ArchivedCard archivedCard = new ArchivedCard();
-        archivedCard.setId(testCardId);
-        archivedCard.setWorkshop(testWorkshop);
-        when(archivedCardService.findAll()).thenReturn(Arrays.asList(archivedCard));
+        testCard.setStatus(CardStatus.CLOSED);
+        when(cardRepository.findPageByStatusAndWorkshopIds(eq(CardStatus.CLOSED), eq(List.of(testWorkshopId)),
+                isNull(), isNull(), any(Limit.class)))
+                .thenReturn(Arrays.asList(testCardView));
 
-        List<CardViewDTO> result = cardService.getClosedCards(testUser);
+        CardPageDTO result = cardService.getClosedCards(testUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(archivedCardService, times(1)).findAll();
+        assertEquals(1, result.getCards().size());
     }
 
     @Test
     void testGetClosedCardsForUserWithNoWorkshops() {
         testUser.setWorkshops(new ArrayList<>());
-        when(archivedCardService.findAll()).thenReturn(Arrays.asList(new ArchivedCard()));
 
-        List<CardViewDTO> result = cardService.getClosedCards(testUser);
+        CardPageDTO result = cardService.getClosedCards(testUser, CardCursorDTO.firstPage());
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(archivedCardService, times(1)).findAll();
+        assertTrue(result.getCards().isEmpty());
+        verify(cardRepository, never()).findPageByStatusAndWorkshopIds(any(), any(), any(), any(), any());
     }
-}
 
+    @Test
+    void testGetArchivedCardsForAdmin() {
+        ArchivedCardFilterDTO filter = ArchivedCardFilterDTO.firstPage();
+        when(archivedCardService.findPage(filter, ArchivedCardFilterDTO.DEFAULT_SIZE + 1))
+                .thenReturn(Arrays.asList(testCardView));
+
+        ArchivedCardPageDTO result = cardService.getArchivedCards(adminUser, filter);
+
+        assertEquals(1, result.getCards().size());
+        assertFalse(result.isHasNext());
+        verify(archivedCardService, never()).findPageByWorkshopIds(any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetArchivedCardsForTechnicianFiltersByWorkshop() {
+        testUser.setWorkshops(Arrays.asList(testWorkshop));
+        ArchivedCardFilterDTO filter = new ArchivedCardFilterDTO(null, null, Shift.FIRST, null, null, 1);
+        CardViewDTO olderCard = new CardViewDTO();
+        olderCard.setId(UUID.randomUUID());
+        testCardView.setClosedAt(LocalDateTime.now());
+        when(archivedCardService.findPageByWorkshopIds(List.of(testWorkshopId), filter, 2))
+                .thenReturn(Arrays.asList(testCardView, olderCard));
+
+        ArchivedCardPageDTO result = cardService.getArchivedCards(testUser, filter);
+
+        assertEquals(1, result.getCards().size());
+        assertTrue(result.isHasNext());
+        assertEquals(testCardView.getClosedAt(), result.getNextArchivedAt());
+        assertEquals(testCardId, result.getNextId());
+        verify(archivedCardService, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void testGetArchivedCardsForUserWithNoWorkshops() {
+        testUser.setWorkshops(new ArrayList<>());
+
+        ArchivedCardPageDTO result = cardService.getArchivedCards(testUser, ArchivedCardFilterDTO.firstPage());
+
+        assertTrue(result.getCards().isEmpty());
+        verify(archivedCardService, never()).findPage(any(), anyInt());
+        verify(archivedCardService, never()).findPageByWorkshopIds(any(), any(), anyInt());
+    }
+}
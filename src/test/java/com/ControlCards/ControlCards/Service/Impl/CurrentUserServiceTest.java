@@ -0,0 +1,123 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Exception.UserNotFoundException;
+import com.ControlCards.ControlCards.Model.User;
+import com.ControlCards.ControlCards.Repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CurrentUserService currentUserService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUsername("testuser");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void authenticate(String username) {
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername(username).password("password").roles("ADMIN").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @Test
+    void testLoadsCurrentUserOncePerRequest() {
+        authenticate("testuser");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        User first = currentUserService.getCurrentUser();
+        User second = currentUserService.getCurrentUser();
+
+        assertSame(testUser, first);
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void testEachRequestLoadsItsOwnUser() {
+        authenticate("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        for (int i = 0; i < 2; i++) {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            currentUserService.findCurrentUser();
+            currentUserService.findCurrentUser();
+        }
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void testWithoutRequestLooksUpEveryTime() {
+        authenticate("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        currentUserService.findCurrentUser();
+        currentUserService.findCurrentUser();
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void testIgnoresMemoizedUserOfAnotherPrincipal() {
+        User otherUser = new User();
+        otherUser.setUsername("other");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.findByUsername("other")).thenReturn(Optional.of(otherUser));
+
+        authenticate("testuser");
+        currentUserService.findCurrentUser();
+        authenticate("other");
+        Optional<User> result = currentUserService.findCurrentUser();
+
+        assertEquals(Optional.of(otherUser), result);
+    }
+
+    @Test
+    void testNoAuthentication() {
+        assertTrue(currentUserService.findCurrentUser().isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testGetCurrentUserNotFound() {
+        authenticate("missing");
+        when(userRepository.findByUsername("missing")).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> currentUserService.getCurrentUser());
+    }
+}
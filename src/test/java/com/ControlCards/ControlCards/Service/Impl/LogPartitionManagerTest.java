@@ -0,0 +1,133 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LogPartitionManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LogPartitionManager logPartitionManager;
+
+    @BeforeEach
+    void setUp() {
+        logPartitionManager = new LogPartitionManager(jdbcTemplate, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIsPartitionedFalseOnH2() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        assertFalse(logPartitionManager.isPartitioned());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIsPartitionedFalseForPlainMySqlTable() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of());
+
+        assertFalse(logPartitionManager.isPartitioned());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIsPartitionedTrueForPartitionedMySqlTable() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+                .thenReturn(List.of("p202610", "pmax"));
+
+        assertTrue(logPartitionManager.isPartitioned());
+    }
+
+    @Test
+    void testExpiredPartitionsOnlyWhenWholeMonthIsBeforeCutoff() {
+        List<String> partitions = List.of("p202606", "p202607", "p202608", "pmax");
+
+        List<String> expired = LogPartitionManager.expiredPartitions(partitions,
+                LocalDateTime.of(2026, 8, 1, 0, 0));
+
+        assertEquals(List.of("p202606", "p202607"), expired);
+    }
+
+    @Test
+    void testExpiredPartitionsIgnoresUnknownNames() {
+        List<String> expired = LogPartitionManager.expiredPartitions(List.of("p_history", "pmax"),
+                LocalDateTime.of(2030, 1, 1, 0, 0));
+
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void testMissingMonthsContinuesAfterLastPartition() {
+        List<YearMonth> months = LogPartitionManager.missingMonths(List.of("p202609", "p202610", "pmax"),
+                YearMonth.of(2026, 10), 2);
+
+        assertEquals(List.of(YearMonth.of(2026, 11), YearMonth.of(2026, 12)), months);
+    }
+
+    @Test
+    void testMissingMonthsStartsAtCurrentMonthWithoutMonthlyPartitions() {
+        List<YearMonth> months = LogPartitionManager.missingMonths(List.of("pmax"), YearMonth.of(2026, 12), 1);
+
+        assertEquals(List.of(YearMonth.of(2026, 12), YearMonth.of(2027, 1)), months);
+    }
+
+    @Test
+    void testCreateFuturePartitionsReorganizesMaxPartition() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+                .thenReturn(List.of("p202610", "pmax"));
+
+        int created = logPartitionManager.createFuturePartitions(LocalDate.of(2026, 10, 18));
+
+        assertEquals(2, created);
+        verify(jdbcTemplate).execute("ALTER TABLE log_entries REORGANIZE PARTITION pmax INTO (" +
+                "PARTITION p202611 VALUES LESS THAN ('2026-12-01'), " +
+                "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), " +
+                "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void testCreateFuturePartitionsNothingToDo() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+                .thenReturn(List.of("p202610", "p202611", "p202612", "pmax"));
+
+        int created = logPartitionManager.createFuturePartitions(LocalDate.of(2026, 10, 18));
+
+        assertEquals(0, created);
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void testDropExpiredPartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+                .thenReturn(List.of("p202606", "p202607", "p202608", "pmax"));
+
+        int dropped = logPartitionManager.dropExpiredPartitions(LocalDateTime.of(2026, 8, 15, 2, 0));
+
+        assertEquals(2, dropped);
+        verify(jdbcTemplate).execute("ALTER TABLE log_entries DROP PARTITION p202606");
+        verify(jdbcTemplate).execute("ALTER TABLE log_entries DROP PARTITION p202607");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE log_entries DROP PARTITION pmax");
+    }
+}
@@ -0,0 +1,147 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Exception.PageLoadTimeoutException;
+import com.ControlCards.ControlCards.Exception.UserNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageDataLoaderTest {
+
+    private ExecutorService pool;
+    private PageDataLoader pageDataLoader;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newCachedThreadPool();
+        pageDataLoader = new PageDataLoader(pool::execute, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testLoadsInParallel() {
+        long start = System.nanoTime();
+        try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+            Supplier<String> first = scope.fork("first", () -> {
+                Thread.sleep(300);
+                return "a";
+            });
+            Supplier<List<String>> second = scope.fork("second", () -> {
+                Thread.sleep(300);
+                return List.of("b");
+            });
+            scope.join();
+
+            assertEquals("a", first.get());
+            assertEquals(List.of("b"), second.get());
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < 550, "Tasks ran sequentially: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testFailureCancelsOtherTasksAndPropagatesCause() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+            scope.fork("slow", () -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "never";
+            });
+            scope.fork("failing", () -> {
+                throw new UserNotFoundException("missing");
+            });
+
+            long start = System.nanoTime();
+            UserNotFoundException ex = assertThrows(UserNotFoundException.class, scope::join);
+            assertEquals("missing", ex.getMessage());
+            assertTrue((System.nanoTime() - start) / 1_000_000 < 1000, "join() waited for the slow task");
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "Slow task was not cancelled");
+    }
+
+    @Test
+    void testTimeoutCancelsTask() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+            scope.fork("fast", () -> "ok");
+            scope.fork("slow", Duration.ofMillis(100), () -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "never";
+            });
+
+            PageLoadTimeoutException ex = assertThrows(PageLoadTimeoutException.class, scope::join);
+            assertTrue(ex.getMessage().contains("slow"));
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "Timed out task was not cancelled");
+    }
+
+    @Test
+    void testTasksSeeCallerSecurityContext() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+
+        try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+            Supplier<String> name = scope.fork("name",
+                    () -> SecurityContextHolder.getContext().getAuthentication().getName());
+            scope.join();
+
+            assertEquals("admin", name.get());
+        }
+    }
+
+    @Test
+    void testGetBeforeJoinFails() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        try (PageDataLoader.Scope scope = pageDataLoader.open()) {
+            Supplier<String> value = scope.fork("value", () -> {
+                release.await();
+                return "v";
+            });
+
+            assertThrows(IllegalStateException.class, value::get);
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testRunsInlineWhenExecutorRejects() {
+        PageDataLoader saturated = new PageDataLoader(task -> {
+            throw new TaskRejectedException("full");
+        }, 2000);
+
+        try (PageDataLoader.Scope scope = saturated.open()) {
+            Supplier<String> thread = scope.fork("thread", () -> Thread.currentThread().getName());
+            scope.join();
+
+            assertEquals(Thread.currentThread().getName(), thread.get());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.ReferenceDataRow;
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
+import com.ControlCards.ControlCards.DTO.WorkshopSnapshot;
+import com.ControlCards.ControlCards.Repository.WorkshopRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataRegistryTest {
+
+    @Mock
+    private WorkshopRepository workshopRepository;
+
+    @InjectMocks
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    private UUID workshopId1;
+    private UUID workshopId2;
+    private UUID emptyWorkshopId;
+    private UUID activeCenterId;
+    private UUID inactiveCenterId;
+    private UUID otherCenterId;
+
+    @BeforeEach
+    void setUp() {
+        workshopId1 = UUID.randomUUID();
+        workshopId2 = UUID.randomUUID();
+        emptyWorkshopId = UUID.randomUUID();
+        activeCenterId = UUID.randomUUID();
+        inactiveCenterId = UUID.randomUUID();
+        otherCenterId = UUID.randomUUID();
+    }
+
+    private List<ReferenceDataRow> rows() {
+        return List.of(
+                new ReferenceDataRow(workshopId1, "Цех 1", null, true, activeCenterId, "1001", null, null, true),
+                new ReferenceDataRow(workshopId1, "Цех 1", null, true, inactiveCenterId, "1002", null, null, false),
+                new ReferenceDataRow(workshopId2, "Цех 2", null, false, otherCenterId, "2001", null, null, true),
+                new ReferenceDataRow(emptyWorkshopId, "Цех 3", null, true, null, null, null, null, null));
+    }
+
+    @Test
+    void testLoadsOnceAndServesFromMemory() {
+        when(workshopRepository.findReferenceData()).thenReturn(rows());
+
+        referenceDataRegistry.getWorkshops();
+        referenceDataRegistry.getWorkCenters();
+        referenceDataRegistry.findWorkCenter(activeCenterId);
+
+        verify(workshopRepository, times(1)).findReferenceData();
+    }
+
+    @Test
+    void testBuildsWorkshopsAndWorkCenters() {
+        when(workshopRepository.findReferenceData()).thenReturn(rows());
+
+        List<WorkshopSnapshot> workshops = referenceDataRegistry.getWorkshops();
+        List<WorkCenterSnapshot> workCenters = referenceDataRegistry.getWorkCenters();
+
+        assertEquals(3, workshops.size());
+        assertEquals(List.of(workshopId1, emptyWorkshopId),
+                referenceDataRegistry.getActiveWorkshops().stream().map(WorkshopSnapshot::getId).toList());
+        assertEquals(3, workCenters.size());
+        assertEquals(List.of(activeCenterId, otherCenterId),
+                referenceDataRegistry.getActiveWorkCenters().stream().map(WorkCenterSnapshot::getId).toList());
+        WorkCenterSnapshot center = referenceDataRegistry.findWorkCenter(activeCenterId).orElseThrow();
+        assertEquals(workshopId1, center.getWorkshopId());
+        assertEquals("Цех 1", center.getWorkshopName());
+        assertTrue(referenceDataRegistry.findWorkshop(emptyWorkshopId).isPresent());
+        assertTrue(referenceDataRegistry.findWorkCenter(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void testActiveWorkCentersByWorkshopIdsKeepsWorkshopOrder() {
+        when(workshopRepository.findReferenceData()).thenReturn(rows());
+
+        List<WorkCenterSnapshot> result = referenceDataRegistry.getActiveWorkCentersByWorkshopIds(
+                List.of(workshopId2, emptyWorkshopId, workshopId1, workshopId2));
+
+        assertEquals(List.of(otherCenterId, activeCenterId), result.stream().map(WorkCenterSnapshot::getId).toList());
+    }
+
+    @Test
+    void testActiveWorkCentersByWorkshopIdsEmpty() {
+        assertTrue(referenceDataRegistry.getActiveWorkCentersByWorkshopIds(List.of()).isEmpty());
+        verifyNoInteractions(workshopRepository);
+    }
+
+    @Test
+    void testRefreshReplacesSnapshot() {
+        when(workshopRepository.findReferenceData()).thenReturn(rows()).thenReturn(List.of(
+                new ReferenceDataRow(workshopId1, "Цех 1 - нов", null, true, null, null, null, null, null)));
+
+        List<WorkshopSnapshot> before = referenceDataRegistry.getWorkshops();
+        referenceDataRegistry.refresh();
+        List<WorkshopSnapshot> after = referenceDataRegistry.getWorkshops();
+
+        assertEquals(3, before.size());
+        assertEquals(1, after.size());
+        assertEquals("Цех 1 - нов", after.get(0).getName());
+        assertTrue(referenceDataRegistry.getWorkCenters().isEmpty());
+        verify(workshopRepository, times(2)).findReferenceData();
+    }
+}
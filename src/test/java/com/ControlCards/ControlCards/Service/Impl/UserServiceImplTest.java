@@ -26,6 +26,15 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LogEntryService logEntryService;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private UserCredentialsCache userCredentialsCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -122,6 +131,29 @@ class UserServiceImplTest {
         assertNotNull(result);
         assertEquals("newuser", result.getUsername());
         verify(userRepository, times(1)).save(newUser);
+        verify(userCredentialsCache, times(1)).evict("newuser");
+    }
+
+    @Test
+    void testSaveExistingUserClearsCredentialsCache() {
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        userService.save(testUser);
+
+        verify(userCredentialsCache, times(1)).clear();
+    }
+
+    @Test
+    void testSaveLogsActionAsCurrentUser() {
+        User newUser = new User();
+        newUser.setUsername("newuser");
+        when(userRepository.save(any(User.class))).thenReturn(newUser);
+        when(currentUserService.findCurrentUser()).thenReturn(Optional.of(adminUser));
+
+        userService.save(newUser);
+
+        verify(logEntryService, times(1)).createLog(adminUser, "Създаден нов потребител: newuser");
+        verify(userRepository, never()).findByUsername(any());
     }
 
     @Test
@@ -134,6 +166,7 @@ class UserServiceImplTest {
         assertFalse(testUser.getActive());
         verify(userRepository, times(1)).findById(testUserId);
         verify(userRepository, times(1)).save(testUser);
+        verify(userCredentialsCache, times(1)).evict("testuser");
     }
 
     @Test
@@ -169,6 +202,7 @@ class UserServiceImplTest {
         assertTrue(testUser.getActive());
         verify(userRepository, times(1)).findById(testUserId);
         verify(userRepository, times(1)).save(testUser);
+        verify(userCredentialsCache, times(1)).evict("testuser");
     }
 
     @Test
@@ -190,5 +224,41 @@ class UserServiceImplTest {
         assertTrue(result);
         verify(userRepository, times(1)).existsById(testUserId);
     }
-}
 
+    @Test
+    void testFindOrCreateSystemUserReturnsExisting() {
+        testUser.setActive(false);
+        testUser.setPassword("!");
+        when(userRepository.findByUsername("system")).thenReturn(Optional.of(testUser));
+
+        assertSame(testUser, userService.findOrCreateSystemUser("system"));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testFindOrCreateSystemUserRejectsRealAccount() {
+        testUser.setActive(true);
+        when(userRepository.findByUsername("system")).thenReturn(Optional.of(testUser));
+
+        assertThrows(IllegalStateException.class, () -> userService.findOrCreateSystemUser("system"));
+
+        testUser.setActive(false);
+        testUser.setPassword("$2a$10$hash");
+        assertThrows(IllegalStateException.class, () -> userService.findOrCreateSystemUser("system"));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testFindOrCreateSystemUserCreatesInactiveUser() {
+        when(userRepository.findByUsername("system")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User systemUser = userService.findOrCreateSystemUser("system");
+
+        assertEquals("system", systemUser.getUsername());
+        assertFalse(systemUser.getActive());
+        assertFalse(systemUser.getPassword().startsWith("$2"));
+        verifyNoInteractions(logEntryService);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ControlCards.ControlCards.Service.Impl;
 
+import com.ControlCards.ControlCards.DTO.WorkCenterSnapshot;
 import com.ControlCards.ControlCards.Model.WorkCenter;
 import com.ControlCards.ControlCards.Repository.WorkCenterRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +25,12 @@ class WorkCenterServiceImplTest {
     @Mock
     private WorkCenterRepository workCenterRepository;
 
+    @Mock
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
     @InjectMocks
     private WorkCenterServiceImpl workCenterService;
 
@@ -55,37 +62,6 @@ class WorkCenterServiceImplTest {
         verify(workCenterRepository, times(1)).findAll();
     }
 
-    @Test
-    void testFindAllActive() {
-        List<WorkCenter> allWorkCenters = Arrays.asList(testWorkCenter);
-        when(workCenterRepository.findAll()).thenReturn(allWorkCenters);
-
-        List<WorkCenter> result = workCenterService.findAllActive();
-
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertTrue(result.get(0).getActive());
-        verify(workCenterRepository, times(1)).findAll();
-    }
-
-    @Test
-    void testFindAllActiveFiltersInactive() {
-        WorkCenter inactiveWorkCenter = new WorkCenter();
-        inactiveWorkCenter.setId(UUID.randomUUID());
-        inactiveWorkCenter.setNumber("1002");
-        inactiveWorkCenter.setActive(false);
-
-        List<WorkCenter> allWorkCenters = Arrays.asList(testWorkCenter, inactiveWorkCenter);
-        when(workCenterRepository.findAll()).thenReturn(allWorkCenters);
-
-        List<WorkCenter> result = workCenterService.findAllActive();
-
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertTrue(result.get(0).getActive());
-        verify(workCenterRepository, times(1)).findAll();
-    }
-
     @Test
     void testFindById() {
         when(workCenterRepository.findById(testWorkCenterId)).thenReturn(Optional.of(testWorkCenter));
@@ -122,6 +98,7 @@ class WorkCenterServiceImplTest {
         assertNotNull(result);
         assertEquals("1003", result.getNumber());
         verify(workCenterRepository, times(1)).save(newWorkCenter);
+        verify(referenceDataRegistry, times(1)).refresh();
     }
 
     @Test
@@ -158,6 +135,7 @@ class WorkCenterServiceImplTest {
         assertFalse(testWorkCenter.getActive());
         verify(workCenterRepository, times(1)).findById(testWorkCenterId);
         verify(workCenterRepository, times(1)).save(testWorkCenter);
+        verify(referenceDataRegistry, times(1)).refresh();
     }
 
     @Test
@@ -168,6 +146,7 @@ class WorkCenterServiceImplTest {
         assertThrows(RuntimeException.class, () -> workCenterService.deactivate(nonExistentId));
         verify(workCenterRepository, times(1)).findById(nonExistentId);
         verify(workCenterRepository, never()).save(any(WorkCenter.class));
+        verify(referenceDataRegistry, never()).refresh();
     }
 
     @Test
@@ -181,6 +160,7 @@ class WorkCenterServiceImplTest {
         assertTrue(testWorkCenter.getActive());
         verify(workCenterRepository, times(1)).findById(testWorkCenterId);
         verify(workCenterRepository, times(1)).save(testWorkCenter);
+        verify(referenceDataRegistry, times(1)).refresh();
     }
 
     @Test
@@ -191,6 +171,7 @@ class WorkCenterServiceImplTest {
         assertThrows(RuntimeException.class, () -> workCenterService.activate(nonExistentId));
         verify(workCenterRepository, times(1)).findById(nonExistentId);
         verify(workCenterRepository, never()).save(any(WorkCenter.class));
+        verify(referenceDataRegistry, never()).refresh();
     }
 
     @Test
@@ -202,5 +183,30 @@ class WorkCenterServiceImplTest {
         assertTrue(result);
         verify(workCenterRepository, times(1)).existsById(testWorkCenterId);
     }
-}
 
+    @Test
+    void testFindActiveByWorkshopIdsUsesReferenceData() {
+        WorkCenterSnapshot snapshot = new WorkCenterSnapshot(testWorkCenterId, "1001", "Test Work Center",
+                null, true, testWorkshopId, "Workshop");
+        List<UUID> workshopIds = List.of(testWorkshopId);
+        when(referenceDataRegistry.getActiveWorkCentersByWorkshopIds(workshopIds)).thenReturn(List.of(snapshot));
+
+        List<WorkCenterSnapshot> result = workCenterService.findActiveByWorkshopIds(workshopIds);
+
+        assertEquals(List.of(snapshot), result);
+        verifyNoInteractions(workCenterRepository);
+    }
+
+    @Test
+    void testFindSnapshotById() {
+        WorkCenterSnapshot snapshot = new WorkCenterSnapshot(testWorkCenterId, "1001", "Test Work Center",
+                null, true, testWorkshopId, "Workshop");
+        when(referenceDataRegistry.findWorkCenter(testWorkCenterId)).thenReturn(Optional.of(snapshot));
+
+        Optional<WorkCenterSnapshot> result = workCenterService.findSnapshotById(testWorkCenterId);
+
+        assertTrue(result.isPresent());
+        assertEquals("1001", result.get().getNumber());
+        verifyNoInteractions(workCenterRepository);
+    }
+}
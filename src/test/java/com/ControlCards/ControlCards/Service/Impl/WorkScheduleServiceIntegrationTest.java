@@ -0,0 +1,221 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.DTO.SchedulePageDTO;
+import com.ControlCards.ControlCards.DTO.ScheduleQueryDTO;
+import com.ControlCards.ControlCards.DTO.WorkScheduleDTO;
+import com.ControlCards.ControlCards.Exception.ScheduleServiceUnavailableException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.FeignException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Истински Feign клиент срещу локален HTTP сървър, който имитира WorkScheduleService
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class WorkScheduleServiceIntegrationTest {
+
+    private static final UUID SLOW_ID = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID MISSING_ID = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    private static final ConcurrentMap<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    // false - имитира по-стара версия на сървиса, която игнорира филтрите и връща всичко
+    private static volatile boolean remoteFilters = true;
+    private static volatile String lastQuery;
+    private static ExecutorService stubExecutor;
+    private static HttpServer stubServer;
+
+    @Autowired
+    private WorkScheduleService workScheduleService;
+
+    @DynamicPropertySource
+    static void stubServerProperties(DynamicPropertyRegistry registry) throws IOException {
+        stubExecutor = Executors.newCachedThreadPool();
+        stubServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stubServer.createContext("/api/schedules", WorkScheduleServiceIntegrationTest::handle);
+        stubServer.setExecutor(stubExecutor);
+        stubServer.start();
+
+        registry.add("workschedule.service.url", () -> "http://127.0.0.1:" + stubServer.getAddress().getPort());
+        registry.add("spring.cloud.openfeign.client.config.workScheduleService.read-timeout", () -> "300");
+        registry.add("workschedule.circuit.failure-threshold", () -> "100");
+    }
+
+    @AfterAll
+    static void stopStubServer() {
+        stubServer.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @BeforeEach
+    void resetStub() {
+        hits.clear();
+        remoteFilters = true;
+        lastQuery = null;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        hits.computeIfAbsent(method + " " + path, key -> new AtomicInteger()).incrementAndGet();
+
+        if (path.endsWith(SLOW_ID.toString())) {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (path.endsWith(MISSING_ID.toString())) {
+            respond(exchange, 404, "{\"message\":\"not found\"}");
+        } else if ("/api/schedules".equals(path) && "GET".equals(method)) {
+            lastQuery = exchange.getRequestURI().getQuery();
+            if (remoteFilters) {
+                exchange.getResponseHeaders().add("X-Total-Count", "1");
+                respond(exchange, 200, "[" + scheduleJson(UUID.randomUUID(), 1, "1001") + "]");
+            } else {
+                respond(exchange, 200, "[" + scheduleJson(UUID.randomUUID(), 1, "1001") + ","
+                        + scheduleJson(UUID.randomUUID(), 2, "1001") + ","
+                        + scheduleJson(UUID.randomUUID(), 2, "1002") + "]");
+            }
+        } else if ("DELETE".equals(method)) {
+            respond(exchange, 204, null);
+        } else {
+            String id = "/api/schedules".equals(path) ? UUID.randomUUID().toString() : path.substring(path.lastIndexOf('/') + 1);
+            respond(exchange, 200, scheduleJson(UUID.fromString(id), 1, "1001"));
+        }
+    }
+
+    private static String scheduleJson(UUID id, int shift, String workCenter) {
+        return "{\"id\":\"" + id + "\",\"date\":\"2025-03-10\",\"shift\":" + shift
+                + ",\"workCenter\":\"" + workCenter + "\",\"productionOrder\":\"PO-1\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static int hitCount(String key) {
+        AtomicInteger count = hits.get(key);
+        return count == null ? 0 : count.get();
+    }
+
+    private static ScheduleQueryDTO query(LocalDate date, Integer shift, String workCenter) {
+        return new ScheduleQueryDTO(date, null, null, shift, workCenter, null, null);
+    }
+
+    @Test
+    void testSearchIsReadThrough() {
+        LocalDate date = LocalDate.of(2025, 3, 10);
+
+        List<WorkScheduleDTO> first = workScheduleService.searchSchedules(query(date, 1, "1001")).getSchedules();
+        List<WorkScheduleDTO> second = workScheduleService.searchSchedules(query(date, 1, "1001")).getSchedules();
+        workScheduleService.searchSchedules(query(date, 2, "1001"));
+
+        assertEquals(1, first.size());
+        assertEquals("PO-1", first.get(0).getProductionOrder());
+        assertEquals(first, second);
+        assertEquals(2, hitCount("GET /api/schedules"));
+    }
+
+    @Test
+    void testFiltersAreSentToRemote() {
+        ScheduleQueryDTO query = new ScheduleQueryDTO(null, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31),
+                2, "1002", 3, 25);
+
+        SchedulePageDTO page = workScheduleService.searchSchedules(query);
+
+        assertEquals(1, page.getTotalElements());
+        assertNotNull(lastQuery);
+        for (String param : List.of("dateFrom=2025-03-01", "dateTo=2025-03-31", "shift=2", "workCenter=1002", "page=3", "size=25")) {
+            assertTrue(lastQuery.contains(param), "Missing " + param + " in " + lastQuery);
+        }
+        assertFalse(lastQuery.contains("date="), lastQuery);
+    }
+
+    @Test
+    void testFiltersLocallyWhenRemoteIgnoresThem() {
+        remoteFilters = false;
+
+        SchedulePageDTO page = workScheduleService.searchSchedules(query(null, 2, "1002"));
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals("1002", page.getSchedules().get(0).getWorkCenter());
+        assertEquals(2, page.getSchedules().get(0).getShift());
+    }
+
+    @Test
+    void testCreateInvalidatesSearch() {
+        LocalDate date = LocalDate.of(2025, 3, 11);
+        workScheduleService.searchSchedules(query(date, 1, null));
+
+        WorkScheduleDTO created = workScheduleService.createSchedule(new WorkScheduleDTO());
+        workScheduleService.searchSchedules(query(date, 1, null));
+
+        assertNotNull(created.getId());
+        assertEquals(1, hitCount("POST /api/schedules"));
+        assertEquals(2, hitCount("GET /api/schedules"));
+    }
+
+    @Test
+    void testUpdateInvalidatesSchedule() {
+        UUID id = UUID.randomUUID();
+        workScheduleService.getScheduleById(id);
+        workScheduleService.getScheduleById(id);
+
+        workScheduleService.updateSchedule(id, new WorkScheduleDTO());
+        workScheduleService.getScheduleById(id);
+
+        assertEquals(2, hitCount("GET /api/schedules/" + id));
+        assertEquals(1, hitCount("PUT /api/schedules/" + id));
+    }
+
+    @Test
+    void testSlowServiceTimesOut() {
+        long start = System.nanoTime();
+
+        assertThrows(ScheduleServiceUnavailableException.class, () -> workScheduleService.getScheduleById(SLOW_ID));
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < 1500, "Read timeout was not applied: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testNotFoundIsNotAnOutage() {
+        assertThrows(FeignException.NotFound.class, () -> workScheduleService.getScheduleById(MISSING_ID));
+        assertEquals(CircuitBreaker.State.CLOSED, workScheduleService.getCircuitState());
+    }
+}
@@ -0,0 +1,259 @@
+package com.ControlCards.ControlCards.Service.Impl;
+
+import com.ControlCards.ControlCards.Client.WorkScheduleClient;
+import com.ControlCards.ControlCards.DTO.SchedulePageDTO;
+import com.ControlCards.ControlCards.DTO.ScheduleQueryDTO;
+import com.ControlCards.ControlCards.DTO.WorkScheduleDTO;
+import com.ControlCards.ControlCards.Exception.ScheduleServiceUnavailableException;
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkScheduleServiceTest {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+    private static final Duration MAX_STALE = Duration.ofMinutes(30);
+    private static final Duration OPEN = Duration.ofSeconds(30);
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 10);
+    private static final int PAGE_SIZE = ScheduleQueryDTO.DEFAULT_SIZE;
+
+    @Mock
+    private WorkScheduleClient workScheduleClient;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private WorkScheduleService workScheduleService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        workScheduleService = new WorkScheduleService(workScheduleClient, meterRegistry, TTL, MAX_STALE, 100,
+                2, OPEN, nanos::get, Runnable::run);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static WorkScheduleDTO schedule(String productionOrder) {
+        WorkScheduleDTO dto = new WorkScheduleDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setDate(DATE);
+        dto.setShift(1);
+        dto.setWorkCenter("1001");
+        dto.setProductionOrder(productionOrder);
+        return dto;
+    }
+
+    private static ScheduleQueryDTO query(Integer shift, String workCenter) {
+        return new ScheduleQueryDTO(DATE, null, null, shift, workCenter, null, null);
+    }
+
+    private static ResponseEntity<List<WorkScheduleDTO>> paged(WorkScheduleDTO... schedules) {
+        return ResponseEntity.ok()
+                .header(WorkScheduleClient.TOTAL_COUNT_HEADER, String.valueOf(schedules.length))
+                .body(List.of(schedules));
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://localhost/api/schedules", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+
+    private static RetryableException connectionRefused() {
+        return new RetryableException(-1, "Connection refused", Request.HttpMethod.GET, (Long) null, request());
+    }
+
+    @Test
+    void testCachesSearchPerKey() {
+        when(workScheduleClient.searchSchedules(DATE, null, null, 1, "1001", 0, PAGE_SIZE)).thenReturn(paged(schedule("PO-1")));
+        when(workScheduleClient.searchSchedules(DATE, null, null, 2, "1001", 0, PAGE_SIZE)).thenReturn(paged());
+
+        workScheduleService.searchSchedules(query(1, "1001"));
+        workScheduleService.searchSchedules(query(1, "1001"));
+        workScheduleService.searchSchedules(query(2, "1001"));
+
+        verify(workScheduleClient, times(1)).searchSchedules(DATE, null, null, 1, "1001", 0, PAGE_SIZE);
+        verify(workScheduleClient, times(1)).searchSchedules(DATE, null, null, 2, "1001", 0, PAGE_SIZE);
+    }
+
+    @Test
+    void testRefreshesAfterTtl() {
+        when(workScheduleClient.searchSchedules(DATE, null, null, 1, null, 0, PAGE_SIZE))
+                .thenReturn(paged(schedule("PO-1")))
+                .thenReturn(paged(schedule("PO-2")));
+
+        workScheduleService.searchSchedules(query(1, null));
+        advance(TTL.plusSeconds(1));
+        workScheduleService.searchSchedules(query(1, null));
+        List<WorkScheduleDTO> refreshed = workScheduleService.searchSchedules(query(1, null)).getSchedules();
+
+        assertEquals("PO-2", refreshed.get(0).getProductionOrder());
+        verify(workScheduleClient, times(2)).searchSchedules(DATE, null, null, 1, null, 0, PAGE_SIZE);
+    }
+
+    @Test
+    void testServesStaleWhenRemoteIsDown() {
+        when(workScheduleClient.searchSchedules(DATE, null, null, 1, null, 0, PAGE_SIZE))
+                .thenReturn(paged(schedule("PO-1")))
+                .thenThrow(connectionRefused());
+
+        workScheduleService.searchSchedules(query(1, null));
+        advance(TTL.plusSeconds(1));
+        List<WorkScheduleDTO> result = workScheduleService.searchSchedules(query(1, null)).getSchedules();
+
+        assertEquals("PO-1", result.get(0).getProductionOrder());
+    }
+
+    @Test
+    void testStaleEntryExpiresAfterMaxStale() {
+        when(workScheduleClient.searchSchedules(DATE, null, null, 1, null, 0, PAGE_SIZE))
+                .thenReturn(paged(schedule("PO-1")))
+                .thenThrow(connectionRefused());
+
+        workScheduleService.searchSchedules(query(1, null));
+        advance(MAX_STALE.plusSeconds(1));
+
+        assertThrows(ScheduleServiceUnavailableException.class,
+                () -> workScheduleService.searchSchedules(query(1, null)));
+    }
+
+    @Test
+    void testCircuitOpensAfterConsecutiveFailures() {
+        when(workScheduleClient.searchSchedules(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenThrow(new FeignException.ServiceUnavailable("Service Unavailable", request(), null, null));
+
+        assertThrows(ScheduleServiceUnavailableException.class, () -> workScheduleService.searchSchedules(query(1, null)));
+        assertThrows(ScheduleServiceUnavailableException.class, () -> workScheduleService.searchSchedules(query(2, null)));
+        assertEquals(CircuitBreaker.State.OPEN, workScheduleService.getCircuitState());
+        assertEquals(1.0, meterRegistry.get("workschedule.circuit.open").gauge().value());
+
+        assertThrows(ScheduleServiceUnavailableException.class, () -> workScheduleService.searchSchedules(query(3, null)));
+        verify(workScheduleClient, times(2)).searchSchedules(any(), any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testCircuitClosesAfterSuccessfulTrial() {
+        when(workScheduleClient.searchSchedules(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenThrow(connectionRefused())
+                .thenThrow(connectionRefused())
+                .thenReturn(paged(schedule("PO-1")));
+
+        assertThrows(ScheduleServiceUnavailableException.class, () -> workScheduleService.searchSchedules(query(1, null)));
+        assertThrows(ScheduleServiceUnavailableException.class, () -> workScheduleService.searchSchedules(query(1, null)));
+        advance(OPEN.plusSeconds(1));
+
+        assertEquals(1, workScheduleService.searchSchedules(query(1, null)).getSchedules().size());
+        assertEquals(CircuitBreaker.State.CLOSED, workScheduleService.getCircuitState());
+    }
+
+    @Test
+    void testClientErrorDoesNotOpenCircuit() {
+        UUID id = UUID.randomUUID();
+        when(workScheduleClient.getScheduleById(id))
+                .thenThrow(new FeignException.NotFound("Not Found", request(), null, null));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(FeignException.NotFound.class, () -> workScheduleService.getScheduleById(id));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, workScheduleService.getCircuitState());
+    }
+
+    @Test
+    void testFiltersArePassedToRemote() {
+        ScheduleQueryDTO query = new ScheduleQueryDTO(null, DATE, DATE.plusDays(6), 2, "1002", 1, 20);
+        when(workScheduleClient.searchSchedules(null, DATE, DATE.plusDays(6), 2, "1002", 1, 20))
+                .thenReturn(ResponseEntity.ok()
+                        .header(WorkScheduleClient.TOTAL_COUNT_HEADER, "41")
+                        .body(List.of(schedule("PO-21"))));
+
+        SchedulePageDTO page = workScheduleService.searchSchedules(query);
+
+        assertEquals(41, page.getTotalElements());
+        assertEquals(1, page.getSchedules().size());
+        assertTrue(page.isHasNext());
+    }
+
+    @Test
+    void testFiltersLocallyWhenRemoteIgnoresThem() {
+        WorkScheduleDTO otherShift = schedule("PO-2");
+        otherShift.setShift(2);
+        WorkScheduleDTO otherWorkCenter = schedule("PO-3");
+        otherWorkCenter.setWorkCenter("1002");
+        WorkScheduleDTO outOfRange = schedule("PO-4");
+        outOfRange.setDate(DATE.plusDays(10));
+        ScheduleQueryDTO query = new ScheduleQueryDTO(null, DATE, DATE.plusDays(6), 1, "1001", 1, 1);
+        when(workScheduleClient.searchSchedules(null, DATE, DATE.plusDays(6), 1, "1001", 1, 1))
+                .thenReturn(ResponseEntity.ok(List.of(schedule("PO-1"), otherShift, otherWorkCenter, outOfRange, schedule("PO-5"))));
+
+        SchedulePageDTO page = workScheduleService.searchSchedules(query);
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of("PO-5"), page.getSchedules().stream().map(WorkScheduleDTO::getProductionOrder).toList());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void testCreateInvalidatesSearchResults() {
+        WorkScheduleDTO created = schedule("PO-2");
+        when(workScheduleClient.searchSchedules(DATE, null, null, 1, null, 0, PAGE_SIZE)).thenReturn(paged(schedule("PO-1")));
+        when(workScheduleClient.createSchedule(created)).thenReturn(created);
+
+        workScheduleService.searchSchedules(query(1, null));
+        workScheduleService.createSchedule(created);
+        workScheduleService.searchSchedules(query(1, null));
+
+        verify(workScheduleClient, times(2)).searchSchedules(DATE, null, null, 1, null, 0, PAGE_SIZE);
+    }
+
+    @Test
+    void testUpdateAndDeleteInvalidateSchedule() {
+        WorkScheduleDTO existing = schedule("PO-1");
+        UUID id = existing.getId();
+        when(workScheduleClient.getScheduleById(id)).thenReturn(existing);
+        when(workScheduleClient.updateSchedule(id, existing)).thenReturn(existing);
+
+        workScheduleService.getScheduleById(id);
+        workScheduleService.updateSchedule(id, existing);
+        workScheduleService.getScheduleById(id);
+        workScheduleService.deleteSchedule(id);
+        workScheduleService.getScheduleById(id);
+
+        verify(workScheduleClient, times(3)).getScheduleById(id);
+        verify(workScheduleClient).deleteSchedule(id);
+    }
+
+    @Test
+    void testGetScheduleByIdReturnsCopy() {
+        WorkScheduleDTO existing = schedule("PO-1");
+        when(workScheduleClient.getScheduleById(existing.getId())).thenReturn(existing);
+
+        WorkScheduleDTO first = workScheduleService.getScheduleById(existing.getId());
+        first.setWorkCenterId(UUID.randomUUID());
+        WorkScheduleDTO second = workScheduleService.getScheduleById(existing.getId());
+
+        assertNotSame(first, second);
+        assertNull(second.getWorkCenterId());
+    }
+}
@@ -24,6 +24,12 @@ class WorkshopServiceImplTest {
     @Mock
     private WorkshopRepository workshopRepository;
 
+    @Mock
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
     @InjectMocks
     private WorkshopServiceImpl workshopService;
 
@@ -102,6 +108,7 @@ class WorkshopServiceImplTest {
         assertNotNull(result);
         assertEquals("New Workshop", result.getName());
         verify(workshopRepository, times(1)).save(newWorkshop);
+        verify(referenceDataRegistry, times(1)).refresh();
     }
 
     @Test
@@ -114,6 +121,7 @@ class WorkshopServiceImplTest {
         assertFalse(testWorkshop.getActive());
         verify(workshopRepository, times(1)).findById(testWorkshopId);
         verify(workshopRepository, times(1)).save(testWorkshop);
+        verify(referenceDataRegistry, times(1)).refresh();
     }
 
     @Test
@@ -124,6 +132,7 @@ class WorkshopServiceImplTest {
         assertThrows(RuntimeException.class, () -> workshopService.deactivate(nonExistentId));
         verify(workshopRepository, times(1)).findById(nonExistentId);
         verify(workshopRepository, never()).save(any(Workshop.class));
+        verify(referenceDataRegistry, never()).refresh();
     }
 
     @Test
@@ -137,6 +146,7 @@ class WorkshopServiceImplTest {
         assertTrue(testWorkshop.getActive());
         verify(workshopRepository, times(1)).findById(testWorkshopId);
         verify(workshopRepository, times(1)).save(testWorkshop);
+        verify(referenceDataRegistry, times(1)).refresh();
     }
 
     @Test
@@ -147,6 +157,7 @@ class WorkshopServiceImplTest {
         assertThrows(RuntimeException.class, () -> workshopService.activate(nonExistentId));
         verify(workshopRepository, times(1)).findById(nonExistentId);
         verify(workshopRepository, never()).save(any(Workshop.class));
+        verify(referenceDataRegistry, never()).refresh();
     }
 
     @Test
@@ -1,8 +1,11 @@
 package com.ControlCards.ControlCards.Service;
 
+import com.ControlCards.ControlCards.DTO.LogEntryFilterDTO;
+import com.ControlCards.ControlCards.DTO.LogEntryViewDTO;
 import com.ControlCards.ControlCards.Model.LogEntry;
 import com.ControlCards.ControlCards.Model.User;
 import com.ControlCards.ControlCards.Repository.LogEntryRepository;
+import com.ControlCards.ControlCards.Service.Impl.AuditLogWriter;
 import com.ControlCards.ControlCards.Service.Impl.LogEntryService;
 import com.ControlCards.ControlCards.Util.Enums.Role;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +15,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.io.StringWriter;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +38,9 @@ class LogEntryServiceTest {
     @Mock
     private LogEntryRepository logEntryRepository;
 
+    @Mock
+    private AuditLogWriter auditLogWriter;
+
     @InjectMocks
     private LogEntryService logEntryService;
 
@@ -51,12 +64,12 @@ class LogEntryServiceTest {
     @Test
     void testCreateLog() {
         ArgumentCaptor<LogEntry> logEntryCaptor = ArgumentCaptor.forClass(LogEntry.class);
-        when(logEntryRepository.save(any(LogEntry.class))).thenReturn(testLogEntry);
 
         LogEntry result = logEntryService.createLog(testUser, "Test action");
 
         assertNotNull(result);
-        verify(logEntryRepository, times(1)).save(logEntryCaptor.capture());
+        verify(auditLogWriter, times(1)).write(logEntryCaptor.capture());
+        verify(logEntryRepository, never()).save(any(LogEntry.class));
         LogEntry captured = logEntryCaptor.getValue();
         assertEquals(testUser, captured.getUser());
         assertEquals("Test action", captured.getDescription());
@@ -82,26 +95,57 @@ class LogEntryServiceTest {
     }
 
     @Test
-    void testDeleteOldLogs() {
-        when(logEntryRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(5L);
-        when(logEntryRepository.deleteByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(5);
+    void testSearchPassesFilterToRepository() {
+        UUID userId = testUser.getId();
+        LogEntryFilterDTO filter = new LogEntryFilterDTO(userId, LocalDate.of(2025, 3, 1),
+                LocalDate.of(2025, 3, 31), "50%", 1, 500);
+        when(logEntryRepository.search(any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        logEntryService.search(filter);
+
+        verify(logEntryRepository, times(1)).search(userId,
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 4, 1, 0, 0),
+                "%50\\%%", PageRequest.of(1, LogEntryFilterDTO.MAX_SIZE));
+    }
 
-        int result = logEntryService.deleteOldLogs(90);
+    @Test
+    void testExportCsvEscapesValues() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 10, 8, 30);
+        UUID id = UUID.randomUUID();
+        LogEntryViewDTO entry = new LogEntryViewDTO(id, "testuser", "=HYPERLINK(\"x\")", createdAt);
+        when(logEntryRepository.streamAll(any(), any(), any(), any())).thenReturn(Stream.of(entry));
+        StringWriter writer = new StringWriter();
+
+        long count = logEntryService.exportCsv(new LogEntryFilterDTO(), writer);
+
+        assertEquals(1, count);
+        assertEquals("id,username,description,created_at\n"
+                + "\"" + id + "\",\"testuser\",\"'=HYPERLINK(\"\"x\"\")\",\"" + createdAt + "\"\n",
+                writer.toString());
+    }
 
-        assertEquals(5, result);
-        verify(logEntryRepository, times(1)).countByCreatedAtBefore(any(LocalDateTime.class));
-        verify(logEntryRepository, times(1)).deleteByCreatedAtBefore(any(LocalDateTime.class));
+    @Test
+    void testDeleteOldLogsChunk() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(90);
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(logEntryRepository.findIdsCreatedBefore(cutoff, Limit.of(500))).thenReturn(ids);
+        when(logEntryRepository.deleteByIdIn(ids)).thenReturn(2);
+
+        int result = logEntryService.deleteOldLogsChunk(cutoff, 500);
+
+        assertEquals(2, result);
+        verify(logEntryRepository, times(1)).deleteByIdIn(ids);
     }
 
     @Test
-    void testDeleteOldLogsNoLogsToDelete() {
-        when(logEntryRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(0L);
+    void testDeleteOldLogsChunkNoLogsToDelete() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(90);
+        when(logEntryRepository.findIdsCreatedBefore(cutoff, Limit.of(500))).thenReturn(List.of());
 
-        int result = logEntryService.deleteOldLogs(90);
+        int result = logEntryService.deleteOldLogsChunk(cutoff, 500);
 
         assertEquals(0, result);
-        verify(logEntryRepository, times(1)).countByCreatedAtBefore(any(LocalDateTime.class));
-        verify(logEntryRepository, never()).deleteByCreatedAtBefore(any(LocalDateTime.class));
+        verify(logEntryRepository, never()).deleteByIdIn(any());
     }
 }
-